@@ -0,0 +1,30 @@
+-- Preenche coupon_redemptions com os cupons one-shot já usados em pedidos antigos.
+-- Rode uma vez no PostgreSQL existente depois de migrate-identity-to-sequences.sql:
+--   psql -U postgres -d pricewise -f backend/db/backfill-coupon-redemptions.sql
+-- Pode ser executado de novo sem efeito colateral.
+
+BEGIN;
+
+CREATE SEQUENCE IF NOT EXISTS coupon_redemptions_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS coupon_redemptions (
+    id BIGINT NOT NULL PRIMARY KEY,
+    coupon_id BIGINT NOT NULL REFERENCES coupons (id),
+    order_id BIGINT NOT NULL REFERENCES orders (id),
+    redeemed_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_coupon_redemptions_coupon_id UNIQUE (coupon_id)
+);
+
+-- O primeiro pedido de cada cupom one-shot fica com o resgate
+INSERT INTO coupon_redemptions (id, coupon_id, order_id, redeemed_at)
+SELECT nextval('coupon_redemptions_seq'), first_use.coupon_id, first_use.order_id, first_use.created_at
+FROM (
+    SELECT DISTINCT ON (o.coupon_id) o.coupon_id, o.id AS order_id, o.created_at
+    FROM orders o
+    JOIN coupons c ON c.id = o.coupon_id
+    WHERE c.one_shot
+    ORDER BY o.coupon_id, o.created_at, o.id
+) first_use
+ON CONFLICT (coupon_id) DO NOTHING;
+
+COMMIT;
@@ -0,0 +1,14 @@
+-- Índices da listagem de cupons por cursor (GET /api/v1/coupons?cursor=...).
+-- Com ddl-auto=update o Hibernate cria os índices compostos declarados em Coupon;
+-- este script também cria o índice de prefixo de código, que exige varchar_pattern_ops
+-- fora da collation "C":
+--   psql -U postgres -d pricewise -f backend/db/coupon-listing-indexes.sql
+-- Pode ser executado de novo sem efeito colateral.
+
+CREATE INDEX IF NOT EXISTS idx_coupons_type_id ON coupons (type, id);
+CREATE INDEX IF NOT EXISTS idx_coupons_valid_from_id ON coupons (valid_from, id);
+CREATE INDEX IF NOT EXISTS idx_coupons_valid_until_id ON coupons (valid_until, id);
+CREATE INDEX IF NOT EXISTS idx_coupons_created_at_id ON coupons (created_at, id);
+
+-- LIKE 'prefixo%' sobre code
+CREATE INDEX IF NOT EXISTS idx_coupons_code_pattern ON coupons (code varchar_pattern_ops);
@@ -0,0 +1,36 @@
+-- Migração de IDENTITY para sequences com pooled optimizer (allocationSize = 50).
+-- Rode uma vez no PostgreSQL existente antes de subir a nova versão do backend:
+--   psql -U postgres -d pricewise -f backend/db/migrate-identity-to-sequences.sql
+-- Pode ser executado de novo: cada sequence só avança, nunca volta para trás de um bloco já
+-- entregue. A leitura e o setval não são atômicos, então rode com os backends novos parados.
+--
+-- O pooled optimizer usa o valor devolvido por nextval como limite superior do bloco
+-- (ids de valor - 49 até valor), então a próxima chamada precisa devolver pelo menos max(id) + 50.
+-- Se a sequence já foi usada, o próximo valor dela (last_value + 50) pode ser maior e é mantido.
+-- As colunas identity antigas podem ficar como estão: o Hibernate passa o id explicitamente.
+
+BEGIN;
+
+CREATE SEQUENCE IF NOT EXISTS products_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS coupons_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS orders_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS order_items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('products_seq', GREATEST(
+    (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM products_seq),
+    (SELECT COALESCE(MAX(id), 0) + 50 FROM products)), false);
+SELECT setval('coupons_seq', GREATEST(
+    (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM coupons_seq),
+    (SELECT COALESCE(MAX(id), 0) + 50 FROM coupons)), false);
+SELECT setval('orders_seq', GREATEST(
+    (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM orders_seq),
+    (SELECT COALESCE(MAX(id), 0) + 50 FROM orders)), false);
+SELECT setval('order_items_seq', GREATEST(
+    (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM order_items_seq),
+    (SELECT COALESCE(MAX(id), 0) + 50 FROM order_items)), false);
+SELECT setval('users_seq', GREATEST(
+    (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM users_seq),
+    (SELECT COALESCE(MAX(id), 0) + 50 FROM users)), false);
+
+COMMIT;
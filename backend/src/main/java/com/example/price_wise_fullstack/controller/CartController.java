@@ -1,12 +1,22 @@
 package com.example.price_wise_fullstack.controller;
 
+import com.example.price_wise_fullstack.dto.BestCouponRequestDTO;
+import com.example.price_wise_fullstack.dto.CartCouponRequestDTO;
+import com.example.price_wise_fullstack.dto.CartDTO;
+import com.example.price_wise_fullstack.dto.CartItemRequestDTO;
+import com.example.price_wise_fullstack.dto.CartQuantityRequestDTO;
 import com.example.price_wise_fullstack.dto.CartRequestDTO;
 import com.example.price_wise_fullstack.dto.CartSummaryDTO;
 import com.example.price_wise_fullstack.service.CartService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.Principal;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/cart")
@@ -20,5 +30,57 @@ public class CartController {
         CartSummaryDTO result = cartService.checkout(dto);
         return ResponseEntity.ok(result);
     }
-}
 
+    @PostMapping("/best-coupon")
+    public ResponseEntity<List<CartSummaryDTO>> bestCoupon(@Valid @RequestBody BestCouponRequestDTO dto) {
+        return ResponseEntity.ok(cartService.bestCoupons(dto));
+    }
+
+    // Carrinho do usuário autenticado, mantido no servidor
+
+    @GetMapping
+    public ResponseEntity<CartDTO> getCart(Principal principal) {
+        return ResponseEntity.ok(cartService.getCart(owner(principal)));
+    }
+
+    @PostMapping("/items")
+    public ResponseEntity<CartDTO> addItem(@Valid @RequestBody CartItemRequestDTO dto, Principal principal) {
+        return ResponseEntity.ok(cartService.addItem(owner(principal), dto));
+    }
+
+    @PutMapping("/items/{productId}")
+    public ResponseEntity<CartDTO> updateQuantity(
+        @PathVariable Long productId,
+        @Valid @RequestBody CartQuantityRequestDTO dto,
+        Principal principal
+    ) {
+        return ResponseEntity.ok(cartService.updateQuantity(owner(principal), productId, dto.getQuantity()));
+    }
+
+    @DeleteMapping("/items/{productId}")
+    public ResponseEntity<CartDTO> removeItem(@PathVariable Long productId, Principal principal) {
+        return ResponseEntity.ok(cartService.removeItem(owner(principal), productId));
+    }
+
+    @PutMapping("/coupon")
+    public ResponseEntity<CartDTO> applyCoupon(@Valid @RequestBody CartCouponRequestDTO dto, Principal principal) {
+        return ResponseEntity.ok(cartService.applyCoupon(owner(principal), dto.getCouponCode()));
+    }
+
+    @DeleteMapping("/coupon")
+    public ResponseEntity<CartDTO> removeCoupon(Principal principal) {
+        return ResponseEntity.ok(cartService.removeCoupon(owner(principal)));
+    }
+
+    @DeleteMapping
+    public ResponseEntity<CartDTO> clear(Principal principal) {
+        return ResponseEntity.ok(cartService.clear(owner(principal)));
+    }
+
+    private static String owner(Principal principal) {
+        if (principal == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Autenticação necessária");
+        }
+        return principal.getName();
+    }
+}
@@ -1,16 +1,26 @@
 package com.example.price_wise_fullstack.controller;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.price_wise_fullstack.dto.ApplyCouponBatchRequestDTO;
 import com.example.price_wise_fullstack.dto.ApplyCouponRequestDTO;
+import com.example.price_wise_fullstack.dto.CouponBatchRequestDTO;
 import com.example.price_wise_fullstack.dto.CouponRequestDTO;
 import com.example.price_wise_fullstack.dto.CouponResponseDTO;
+import com.example.price_wise_fullstack.dto.CouponStatsDTO;
+import com.example.price_wise_fullstack.dto.CursorPageResponseDTO;
 import com.example.price_wise_fullstack.dto.DiscountedProductDTO;
+import com.example.price_wise_fullstack.service.CouponBatchService;
 import com.example.price_wise_fullstack.service.CouponService;
 
 import jakarta.validation.Valid;
@@ -21,21 +31,70 @@ public class CouponController {
     @Autowired
     private CouponService couponService;
 
+    @Autowired
+    private CouponBatchService couponBatchService;
+
     @PostMapping
     public ResponseEntity<CouponResponseDTO> create(@Valid @RequestBody CouponRequestDTO dto) {
         CouponResponseDTO saved = couponService.createCoupon(dto);
         return ResponseEntity.status(HttpStatus.CREATED).body(saved);
     }
 
+    // Gera os códigos em lote e devolve um por linha como arquivo; só está completo se terminar na linha #end
+    @PostMapping("/batch")
+    public ResponseEntity<StreamingResponseBody> createBatch(@Valid @RequestBody CouponBatchRequestDTO dto) {
+        CouponBatchService.CouponBatchPlan plan = couponBatchService.plan(dto);
+        StreamingResponseBody body = out -> couponBatchService.generate(plan, out);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .contentType(MediaType.TEXT_PLAIN)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"coupons-batch-" + plan.batchId() + ".txt\"")
+                .body(body);
+    }
+
     @PostMapping("/apply")
     public ResponseEntity<DiscountedProductDTO> applyCoupon(@Valid @RequestBody ApplyCouponRequestDTO dto) {
         DiscountedProductDTO result = couponService.applyCouponToProduct(dto.getProductId(), dto.getCouponCode());
         return ResponseEntity.ok(result);
     }
 
+    @PostMapping("/apply/batch")
+    public ResponseEntity<List<DiscountedProductDTO>> applyCouponBatch(@Valid @RequestBody ApplyCouponBatchRequestDTO dto) {
+        return ResponseEntity.ok(couponService.applyCouponToProducts(dto.getProductIds(), dto.getCouponCode()));
+    }
+
+    // Sem status, obsoleta: limitada aos cupons mais recentes; use ?cursor= e /stats
     @GetMapping
-    public ResponseEntity<List<CouponResponseDTO>> listAll() {
-        return ResponseEntity.ok(couponService.listAll());
+    public ResponseEntity<List<CouponResponseDTO>> listAll(@RequestParam(required = false) String status) {
+        if (status != null) {
+            return ResponseEntity.ok(couponService.listByStatus(status));
+        }
+        return ResponseEntity.ok()
+                .header("Deprecation", "true")
+                .header(HttpHeaders.LINK, "</api/v1/coupons?cursor=>; rel=\"successor-version\"")
+                .body(couponService.listAll());
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<CouponStatsDTO> stats() {
+        return ResponseEntity.ok(couponService.stats());
+    }
+
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPageResponseDTO<CouponResponseDTO>> getByCursor(
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "20") int limit,
+        @RequestParam(required = false) String type,
+        @RequestParam(required = false) Boolean oneShot,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime activeAt,
+        @RequestParam(required = false) String codePrefix,
+        @RequestParam(defaultValue = "id") String sortBy,
+        @RequestParam(defaultValue = "asc") String sortOrder,
+        @RequestParam(defaultValue = "false") boolean includeTotal
+    ) {
+        CursorPageResponseDTO<CouponResponseDTO> response = couponService.listKeyset(
+            type, oneShot, activeAt, codePrefix, limit, sortBy, sortOrder, cursor, includeTotal
+        );
+        return ResponseEntity.ok(response);
     }
 
     @GetMapping("/{code}")
@@ -1,13 +1,18 @@
 package com.example.price_wise_fullstack.controller;
 
+import com.example.price_wise_fullstack.dto.CursorPageResponseDTO;
 import com.example.price_wise_fullstack.dto.OrderRequestDTO;
+import com.example.price_wise_fullstack.dto.OrderStatsDTO;
 import com.example.price_wise_fullstack.dto.OrderSummaryDTO;
+import com.example.price_wise_fullstack.service.OrderIngestor;
 import com.example.price_wise_fullstack.service.OrderService;
 import jakarta.validation.Valid;
 
+import java.security.Principal;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,16 +24,43 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    // Presente só com pricewise.orders.ingest.enabled=true
+    @Autowired(required = false)
+    private OrderIngestor orderIngestor;
+
     @PostMapping
-    public ResponseEntity<OrderSummaryDTO> createOrder(@Valid @RequestBody OrderRequestDTO dto) {
-        OrderSummaryDTO result = orderService.saveOrder(dto);
+    public ResponseEntity<OrderSummaryDTO> createOrder(@Valid @RequestBody OrderRequestDTO dto, Principal principal) {
+        String userKey = principal != null ? principal.getName() : null;
+        OrderSummaryDTO result = orderIngestor != null
+                ? orderIngestor.place(dto, userKey)
+                : orderService.saveOrder(dto, userKey);
         return ResponseEntity.status(HttpStatus.CREATED).body(result);
     }
 
+    // Obsoleta: limitada aos pedidos mais recentes; use ?cursor= e /stats
+    @Deprecated
     @GetMapping
     public ResponseEntity<List<OrderSummaryDTO>> listOrders() {
         List<OrderSummaryDTO> list = orderService.listAllOrders();
-        return ResponseEntity.ok(list);
+        return ResponseEntity.ok()
+                .header("Deprecation", "true")
+                .header(HttpHeaders.LINK, "</api/v1/orders?cursor=>; rel=\"successor-version\"")
+                .body(list);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<OrderStatsDTO> stats() {
+        return ResponseEntity.ok(orderService.stats());
+    }
+
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPageResponseDTO<OrderSummaryDTO>> listOrdersByCursor(
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "20") int limit,
+        @RequestParam(defaultValue = "desc") String sortOrder,
+        @RequestParam(defaultValue = "false") boolean includeTotal
+    ) {
+        return ResponseEntity.ok(orderService.listKeyset(limit, sortOrder, cursor, includeTotal));
     }
 }
 
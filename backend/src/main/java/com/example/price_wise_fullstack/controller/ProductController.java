@@ -1,15 +1,27 @@
 package com.example.price_wise_fullstack.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.price_wise_fullstack.dto.CursorPageResponseDTO;
 import com.example.price_wise_fullstack.dto.PaginatedResponseDTO;
+import com.example.price_wise_fullstack.dto.ProductImportResultDTO;
 import com.example.price_wise_fullstack.dto.ProductRequestDTO;
 import com.example.price_wise_fullstack.dto.ProductResponseDTO;
+import com.example.price_wise_fullstack.dto.ProductSuggestionDTO;
+import com.example.price_wise_fullstack.service.ProductImportService;
 import com.example.price_wise_fullstack.service.ProductService;
 
 import jakarta.validation.Valid;
@@ -20,12 +32,26 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductImportService productImportService;
+
     @PostMapping
     public ResponseEntity<ProductResponseDTO> create(@Valid @RequestBody ProductRequestDTO dto) {
         ProductResponseDTO saved = productService.createProduct(dto);
         return ResponseEntity.status(HttpStatus.CREATED).body(saved);
     }
 
+    // Corpo lido em streaming: um array JSON de produtos ou um CSV com cabeçalho
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ProductImportResultDTO> importJson(InputStream body) throws IOException {
+        return ResponseEntity.ok(productImportService.importJson(body));
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ProductImportResultDTO> importCsv(InputStream body) throws IOException {
+        return ResponseEntity.ok(productImportService.importCsv(body));
+    }
+
     @GetMapping
     public ResponseEntity<PaginatedResponseDTO<ProductResponseDTO>> getFiltered(
         @RequestParam(defaultValue = "1") int page,
@@ -34,11 +60,54 @@ public class ProductController {
         @RequestParam(required = false) BigDecimal minPrice,
         @RequestParam(required = false) BigDecimal maxPrice,
         @RequestParam(defaultValue = "name") String sortBy,
-        @RequestParam(defaultValue = "asc") String sortOrder
+        @RequestParam(defaultValue = "asc") String sortOrder,
+        @RequestParam(defaultValue = "false") boolean fuzzy
     ) {
         PaginatedResponseDTO<ProductResponseDTO> response = productService.listFiltered(
-            search, minPrice, maxPrice, page, limit, sortBy, sortOrder
+            search, minPrice, maxPrice, page, limit, sortBy, sortOrder, fuzzy
+        );
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPageResponseDTO<ProductResponseDTO>> getByCursor(
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "10") int limit,
+        @RequestParam(required = false) String search,
+        @RequestParam(required = false) BigDecimal minPrice,
+        @RequestParam(required = false) BigDecimal maxPrice,
+        @RequestParam(defaultValue = "name") String sortBy,
+        @RequestParam(defaultValue = "asc") String sortOrder,
+        @RequestParam(defaultValue = "false") boolean includeTotal,
+        @RequestParam(defaultValue = "false") boolean fuzzy
+    ) {
+        CursorPageResponseDTO<ProductResponseDTO> response = productService.listKeyset(
+            search, minPrice, maxPrice, limit, sortBy, sortOrder, cursor, includeTotal, fuzzy
         );
         return ResponseEntity.ok(response);
     }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "ndjson") String format) {
+        String normalizedFormat = format.trim().toLowerCase();
+        MediaType mediaType = switch (normalizedFormat) {
+            case "ndjson" -> MediaType.APPLICATION_NDJSON;
+            case "csv" -> new MediaType("text", "csv", StandardCharsets.UTF_8);
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export format");
+        };
+
+        StreamingResponseBody body = out -> productService.exportCatalog(normalizedFormat, out);
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products." + normalizedFormat + "\"")
+                .body(body);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSuggestionDTO>> suggest(
+        @RequestParam String prefix,
+        @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(productService.suggest(prefix, limit));
+    }
 }
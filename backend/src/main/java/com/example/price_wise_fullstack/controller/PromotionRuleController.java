@@ -0,0 +1,42 @@
+package com.example.price_wise_fullstack.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.price_wise_fullstack.dto.PromotionRuleRequestDTO;
+import com.example.price_wise_fullstack.dto.PromotionRuleResponseDTO;
+import com.example.price_wise_fullstack.service.PromotionRuleService;
+
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/api/v1/promotions")
+public class PromotionRuleController {
+    @Autowired
+    private PromotionRuleService promotionRuleService;
+
+    @PostMapping
+    public ResponseEntity<PromotionRuleResponseDTO> create(@Valid @RequestBody PromotionRuleRequestDTO dto) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(promotionRuleService.create(dto));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<PromotionRuleResponseDTO>> listAll() {
+        return ResponseEntity.ok(promotionRuleService.listAll());
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<PromotionRuleResponseDTO> update(@PathVariable Long id, @Valid @RequestBody PromotionRuleRequestDTO dto) {
+        return ResponseEntity.ok(promotionRuleService.update(id, dto));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable Long id) {
+        promotionRuleService.delete(id);
+        return ResponseEntity.noContent().build();
+    }
+}
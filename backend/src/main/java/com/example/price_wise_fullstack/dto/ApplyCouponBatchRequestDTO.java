@@ -0,0 +1,19 @@
+package com.example.price_wise_fullstack.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class ApplyCouponBatchRequestDTO {
+    @NotEmpty
+    @Size(max = 500, message = "At most 500 products per request")
+    private List<@NotNull Long> productIds;
+
+    @NotBlank
+    private String couponCode;
+}
@@ -0,0 +1,18 @@
+package com.example.price_wise_fullstack.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+@Data
+public class BestCouponRequestDTO {
+    @NotEmpty
+    private List<Long> productIds;
+
+    @Min(1)
+    @Max(20)
+    private int limit = 3;
+}
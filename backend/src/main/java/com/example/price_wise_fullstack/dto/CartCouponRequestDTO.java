@@ -0,0 +1,10 @@
+package com.example.price_wise_fullstack.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class CartCouponRequestDTO {
+    @NotBlank
+    private String couponCode;
+}
@@ -0,0 +1,26 @@
+package com.example.price_wise_fullstack.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class CartDTO {
+    private List<CartItemDTO> items;
+    private Integer itemCount;
+    private BigDecimal totalOriginal;
+    private BigDecimal discountAmount;
+    private BigDecimal totalWithDiscount;
+    private String appliedCoupon;
+    private List<String> appliedPromotions;
+
+    @Data
+    public static class CartItemDTO {
+        private Long productId;
+        private String name;
+        private BigDecimal unitPrice;
+        private Integer quantity;
+        private BigDecimal amount;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.price_wise_fullstack.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class CartItemRequestDTO {
+    @NotNull
+    private Long productId;
+
+    // Somado à quantidade que já estiver no carrinho
+    @NotNull
+    @Min(1)
+    private Integer quantity = 1;
+}
@@ -0,0 +1,13 @@
+package com.example.price_wise_fullstack.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class CartQuantityRequestDTO {
+    // 0 remove o item
+    @NotNull
+    @Min(0)
+    private Integer quantity;
+}
@@ -1,6 +1,7 @@
 package com.example.price_wise_fullstack.dto;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import lombok.Data;
@@ -12,6 +13,11 @@ public class CartSummaryDTO {
     private BigDecimal discountAmount;
     private BigDecimal totalWithDiscount;
     private String appliedCoupon;
+    private List<String> appliedPromotions;
+
+    // Aceito por POST /api/v1/orders até expirar, sem recalcular os preços
+    private String quoteToken;
+    private LocalDateTime quoteExpiresAt;
 
 }
 
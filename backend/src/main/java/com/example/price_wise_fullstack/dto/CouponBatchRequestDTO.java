@@ -0,0 +1,43 @@
+package com.example.price_wise_fullstack.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import jakarta.validation.constraints.*;
+import lombok.Data;
+
+@Data
+public class CouponBatchRequestDTO {
+
+    @Size(max = 16)
+    @Pattern(regexp = "^[a-zA-Z0-9]*$")
+    private String prefix = "";
+
+    // Tamanho da parte gerada, sem o prefixo
+    @NotNull @Min(4) @Max(16)
+    private Integer length;
+
+    // Sem caracteres ambíguos (0/o, 1/l/i); os códigos são gravados em minúsculas
+    @Pattern(regexp = "^[a-z0-9]{2,36}$")
+    private String alphabet = "23456789abcdefghjkmnpqrstuvwxyz";
+
+    @NotBlank
+    @Pattern(regexp = "^(fixed|percent)$")
+    private String type;
+
+    @NotNull @DecimalMin("0.01")
+    private BigDecimal value;
+
+    @NotNull
+    private Boolean oneShot = true;
+
+    @NotNull
+    private LocalDateTime validFrom;
+
+    @NotNull
+    private LocalDateTime validUntil;
+
+    @NotNull @Min(1) @Max(1_000_000)
+    private Integer count;
+
+}
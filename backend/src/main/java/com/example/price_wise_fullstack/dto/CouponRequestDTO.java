@@ -24,6 +24,12 @@ public class CouponRequestDTO {
     @NotNull
     private Boolean oneShot;
 
+    @Min(1)
+    private Integer maxRedemptions;
+
+    @Min(1)
+    private Integer maxRedemptionsPerUser;
+
     @NotNull
     private LocalDateTime validFrom;
 
@@ -3,9 +3,13 @@ package com.example.price_wise_fullstack.dto;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class CouponResponseDTO {
     private Long id;
     private String code;
@@ -16,5 +20,9 @@ public class CouponResponseDTO {
     private LocalDateTime validUntil;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Integer maxRedemptions;
+    private Integer maxRedemptionsPerUser;
+    private Integer redemptionCount;
+    private Long batchId;
 
 }
@@ -0,0 +1,15 @@
+package com.example.price_wise_fullstack.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CouponStatsDTO {
+    private long totalCoupons;
+    private long active;
+    private long pending;
+    private long expired;
+}
@@ -0,0 +1,22 @@
+package com.example.price_wise_fullstack.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class CursorPageResponseDTO<T> {
+    private List<T> data;
+    private int limit;
+    private String nextCursor;
+    private boolean hasNext;
+    private Long totalItems; // null quando o total não foi solicitado
+
+    public CursorPageResponseDTO(List<T> data, int limit, String nextCursor, Long totalItems) {
+        this.data = data;
+        this.limit = limit;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+        this.totalItems = totalItems;
+    }
+}
@@ -7,6 +7,7 @@ import lombok.Data;
 @Data
 public class DiscountedProductDTO {
     
+    private Long productId;
     private String name;
     private BigDecimal originalPrice;
     private BigDecimal discountedPrice;
@@ -10,6 +10,9 @@ public class OrderRequestDTO {
     
     private String couponCode; // opcional
 
+    // opcional: cotação do checkout; itens e cupom, se enviados, precisam bater com ela
+    private String quoteToken;
+
     @Data
     public static class OrderItemDTO {
         private Long productId;
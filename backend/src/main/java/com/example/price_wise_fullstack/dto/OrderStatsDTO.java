@@ -0,0 +1,15 @@
+package com.example.price_wise_fullstack.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatsDTO {
+    private long totalOrders;
+    private BigDecimal totalValue;
+}
@@ -5,8 +5,10 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
 public class OrderSummaryDTO {
     private Long orderId;
     private List<String> productNames;
@@ -14,7 +16,18 @@ public class OrderSummaryDTO {
     private BigDecimal discountApplied;
     private BigDecimal totalFinal;
     private String couponCode;
+    private List<String> appliedPromotions;
     private LocalDateTime createdAt;
 
+    // Usado pela projeção da listagem; productNames é preenchido depois
+    public OrderSummaryDTO(Long orderId, BigDecimal totalOriginal, BigDecimal discountApplied,
+                           BigDecimal totalFinal, String couponCode, LocalDateTime createdAt) {
+        this.orderId = orderId;
+        this.totalOriginal = totalOriginal;
+        this.discountApplied = discountApplied;
+        this.totalFinal = totalFinal;
+        this.couponCode = couponCode;
+        this.createdAt = createdAt;
+    }
 }
 
@@ -0,0 +1,14 @@
+package com.example.price_wise_fullstack.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportErrorDTO {
+    private long row;
+    private String name;
+    private String message;
+}
@@ -0,0 +1,14 @@
+package com.example.price_wise_fullstack.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class ProductImportResultDTO {
+    private long imported;
+    private long rejected;
+    private List<ProductImportErrorDTO> errors = new ArrayList<>();
+
+}
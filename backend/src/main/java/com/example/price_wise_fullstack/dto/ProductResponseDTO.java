@@ -3,9 +3,13 @@ package com.example.price_wise_fullstack.dto;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class ProductResponseDTO {
     private Long id;
     private String name;
@@ -0,0 +1,42 @@
+package com.example.price_wise_fullstack.dto;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+import jakarta.validation.constraints.*;
+import lombok.Data;
+
+@Data
+public class PromotionRuleRequestDTO {
+
+    @NotBlank
+    @Size(max = 100)
+    private String name;
+
+    private Integer priority = 0;
+
+    private Boolean stackable = true;
+
+    private Boolean active = true;
+
+    @DecimalMin("0.00")
+    private BigDecimal minCartValue;
+
+    private Set<@NotNull Long> productIds;
+
+    @Min(1)
+    private Integer minQuantity;
+
+    @NotBlank
+    @Pattern(regexp = "^(percent|fixed|buy_x_get_y)$")
+    private String action;
+
+    @DecimalMin("0.01")
+    private BigDecimal value;
+
+    @Min(1)
+    private Integer buyQuantity;
+
+    @Min(1)
+    private Integer getQuantity;
+}
@@ -0,0 +1,25 @@
+package com.example.price_wise_fullstack.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import lombok.Data;
+
+@Data
+public class PromotionRuleResponseDTO {
+    private Long id;
+    private String name;
+    private Integer priority;
+    private Boolean stackable;
+    private Boolean active;
+    private BigDecimal minCartValue;
+    private Set<Long> productIds;
+    private Integer minQuantity;
+    private String action;
+    private BigDecimal value;
+    private Integer buyQuantity;
+    private Integer getQuantity;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
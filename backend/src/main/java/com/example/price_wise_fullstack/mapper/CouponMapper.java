@@ -11,6 +11,8 @@ public class CouponMapper {
         c.setType(dto.getType());
         c.setDiscountValue(dto.getValue());
         c.setOneShot(dto.getOneShot());
+        c.setMaxRedemptions(dto.getMaxRedemptions());
+        c.setMaxRedemptionsPerUser(dto.getMaxRedemptionsPerUser());
         c.setValidFrom(dto.getValidFrom());
         c.setValidUntil(dto.getValidUntil());
         return c;
@@ -27,6 +29,10 @@ public class CouponMapper {
         dto.setValidUntil(c.getValidUntil());
         dto.setCreatedAt(c.getCreatedAt());
         dto.setUpdatedAt(c.getUpdatedAt());
+        dto.setMaxRedemptions(c.getMaxRedemptions());
+        dto.setMaxRedemptionsPerUser(c.getMaxRedemptionsPerUser());
+        dto.setRedemptionCount(c.getRedemptionCount());
+        dto.setBatchId(c.getBatchId());
         return dto;
     }
 }
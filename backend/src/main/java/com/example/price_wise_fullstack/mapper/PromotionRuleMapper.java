@@ -0,0 +1,46 @@
+package com.example.price_wise_fullstack.mapper;
+
+import java.util.Set;
+
+import com.example.price_wise_fullstack.dto.PromotionRuleRequestDTO;
+import com.example.price_wise_fullstack.dto.PromotionRuleResponseDTO;
+import com.example.price_wise_fullstack.model.PromotionRule;
+
+public class PromotionRuleMapper {
+
+    public static void copyToEntity(PromotionRuleRequestDTO dto, PromotionRule r) {
+        r.setName(dto.getName().trim());
+        r.setPriority(dto.getPriority() != null ? dto.getPriority() : 0);
+        r.setStackable(dto.getStackable() == null || dto.getStackable());
+        r.setActive(dto.getActive() == null || dto.getActive());
+        r.setMinCartValue(dto.getMinCartValue());
+        r.getProductIds().clear();
+        if (dto.getProductIds() != null) {
+            r.getProductIds().addAll(dto.getProductIds());
+        }
+        r.setMinQuantity(dto.getMinQuantity());
+        r.setAction(dto.getAction());
+        r.setDiscountValue(dto.getValue());
+        r.setBuyQuantity(dto.getBuyQuantity());
+        r.setGetQuantity(dto.getGetQuantity());
+    }
+
+    public static PromotionRuleResponseDTO toDTO(PromotionRule r) {
+        PromotionRuleResponseDTO dto = new PromotionRuleResponseDTO();
+        dto.setId(r.getId());
+        dto.setName(r.getName());
+        dto.setPriority(r.getPriority());
+        dto.setStackable(r.getStackable());
+        dto.setActive(r.getActive());
+        dto.setMinCartValue(r.getMinCartValue());
+        dto.setProductIds(Set.copyOf(r.getProductIds()));
+        dto.setMinQuantity(r.getMinQuantity());
+        dto.setAction(r.getAction());
+        dto.setValue(r.getDiscountValue());
+        dto.setBuyQuantity(r.getBuyQuantity());
+        dto.setGetQuantity(r.getGetQuantity());
+        dto.setCreatedAt(r.getCreatedAt());
+        dto.setUpdatedAt(r.getUpdatedAt());
+        return dto;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.price_wise_fullstack.model;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.MapKeyColumn;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+// Cópia do carrinho em memória, gravada em segundo plano para sobreviver a reinícios
+@Entity
+@Table(name = "cart_snapshots")
+@Data
+public class CartSnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_snapshots_seq")
+    @SequenceGenerator(name = "cart_snapshots_seq", sequenceName = "cart_snapshots_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "owner_key", nullable = false, unique = true)
+    private String ownerKey;
+
+    // Quantidade por produto; os preços são relidos ao restaurar
+    @ElementCollection
+    @CollectionTable(name = "cart_snapshot_items", joinColumns = @JoinColumn(name = "cart_id"))
+    @MapKeyColumn(name = "product_id")
+    @Column(name = "quantity", nullable = false)
+    private Map<Long, Integer> items = new LinkedHashMap<>();
+
+    @Column(length = 20)
+    private String couponCode;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
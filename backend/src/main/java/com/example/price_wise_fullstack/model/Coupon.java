@@ -5,20 +5,40 @@ import java.time.LocalDateTime;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 import lombok.Data;
 
+import org.hibernate.annotations.ColumnDefault;
+
+import com.example.price_wise_fullstack.service.CouponEntityListener;
+
 @Entity
-@Table(name = "coupons", uniqueConstraints = @UniqueConstraint(columnNames = "code"))
+@EntityListeners(CouponEntityListener.class)
+@Table(
+    name = "coupons",
+    uniqueConstraints = @UniqueConstraint(columnNames = "code"),
+    // Índices da listagem por cursor: filtro/ordenação seguido do id como desempate
+    indexes = {
+        @Index(name = "idx_coupons_type_id", columnList = "type, id"),
+        @Index(name = "idx_coupons_valid_from_id", columnList = "validFrom, id"),
+        @Index(name = "idx_coupons_valid_until_id", columnList = "validUntil, id"),
+        @Index(name = "idx_coupons_created_at_id", columnList = "createdAt, id")
+    }
+)
 @Data
 public class Coupon {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "coupons_seq")
+    @SequenceGenerator(name = "coupons_seq", sequenceName = "coupons_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 20, unique = true)
@@ -37,6 +57,21 @@ public class Coupon {
     @Column(nullable = false)
     private Boolean oneShot;
 
+    // null = sem limite
+    private Integer maxRedemptions;
+
+    private Integer maxRedemptionsPerUser;
+
+    // Lote de CouponBatchService que gerou o código; null para cupons criados um a um
+    @Column(name = "batch_id")
+    private Long batchId;
+
+    // Soma das fatias de coupon_redemption_stripes, copiada periodicamente por CouponUsageLimiter.reconcile;
+    // incrementada direto só em cupons ainda sem fatias
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Integer redemptionCount = 0;
+
     @Column(nullable = false)
     private LocalDateTime validFrom;
 
@@ -0,0 +1,46 @@
+package com.example.price_wise_fullstack.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+
+// Faixa de contadores reservada por um lote de cupons gerados; templateKey = prefixo + alfabeto + tamanho
+@Entity
+@Table(name = "coupon_batches", uniqueConstraints = @UniqueConstraint(columnNames = { "template_key", "start_counter" }))
+@Data
+public class CouponBatch {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "coupon_batches_seq")
+    @SequenceGenerator(name = "coupon_batches_seq", sequenceName = "coupon_batches_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "template_key", nullable = false, length = 100)
+    private String templateKey;
+
+    @Column(name = "start_counter", nullable = false)
+    private Long startCounter;
+
+    // Contadores reservados: a quantidade pedida mais uma folga para colisões com códigos criados à mão
+    @Column(nullable = false)
+    private Long reservedCount;
+
+    @Column(nullable = false)
+    private Integer requestedCount;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    public void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
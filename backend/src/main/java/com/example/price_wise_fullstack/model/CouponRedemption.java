@@ -0,0 +1,44 @@
+package com.example.price_wise_fullstack.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+
+// Resgate de cupom one-shot: a unique em coupon_id garante um único pedido por cupom
+@Entity
+@Table(name = "coupon_redemptions", uniqueConstraints = @UniqueConstraint(columnNames = "coupon_id"))
+@Data
+public class CouponRedemption {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "coupon_redemptions_seq")
+    @SequenceGenerator(name = "coupon_redemptions_seq", sequenceName = "coupon_redemptions_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "coupon_id", nullable = false)
+    private Coupon coupon;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "order_id", nullable = false)
+    private Order order;
+
+    @Column(nullable = false)
+    private LocalDateTime redeemedAt;
+
+    @PrePersist
+    public void onCreate() {
+        redeemedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.price_wise_fullstack.model;
+
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+
+// Uma fatia do limite de resgates de um cupom; o total é a soma das fatias
+@Entity
+@Table(name = "coupon_redemption_stripes", uniqueConstraints = @UniqueConstraint(columnNames = { "coupon_id", "stripe" }))
+@Data
+public class CouponRedemptionStripe {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "coupon_redemption_stripes_seq")
+    @SequenceGenerator(name = "coupon_redemption_stripes_seq", sequenceName = "coupon_redemption_stripes_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "coupon_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Coupon coupon;
+
+    @Column(nullable = false)
+    private Integer stripe;
+
+    @Column(nullable = false)
+    private Integer used;
+
+    // Resgates que esta fatia ainda pode aceitar: used < quota
+    @Column(nullable = false)
+    private Integer quota;
+}
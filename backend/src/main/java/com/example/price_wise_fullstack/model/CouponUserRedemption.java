@@ -0,0 +1,35 @@
+package com.example.price_wise_fullstack.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+
+// Quantas vezes cada usuário já resgatou um cupom com limite por usuário
+@Entity
+@Table(name = "coupon_user_redemptions", uniqueConstraints = @UniqueConstraint(columnNames = { "coupon_id", "user_key" }))
+@Data
+public class CouponUserRedemption {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "coupon_user_redemptions_seq")
+    @SequenceGenerator(name = "coupon_user_redemptions_seq", sequenceName = "coupon_user_redemptions_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "coupon_id", nullable = false)
+    private Coupon coupon;
+
+    @Column(name = "user_key", nullable = false)
+    private String userKey;
+
+    @Column(nullable = false)
+    private Integer redemptionCount;
+}
@@ -0,0 +1,79 @@
+package com.example.price_wise_fullstack.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+@Entity
+@Table(name = "promotion_rules")
+@Data
+public class PromotionRule {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "promotion_rules_seq")
+    @SequenceGenerator(name = "promotion_rules_seq", sequenceName = "promotion_rules_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    // Maior prioridade é avaliada primeiro
+    @Column(nullable = false)
+    private Integer priority;
+
+    @Column(nullable = false)
+    private Boolean stackable;
+
+    @Column(nullable = false)
+    private Boolean active;
+
+    // Condições; null = sempre verdadeira
+    private BigDecimal minCartValue;
+
+    @ElementCollection
+    @CollectionTable(name = "promotion_rule_products", joinColumns = @JoinColumn(name = "rule_id"))
+    @Column(name = "product_id")
+    private Set<Long> productIds = new HashSet<>();
+
+    private Integer minQuantity;
+
+    // Ação: "percent", "fixed" ou "buy_x_get_y"
+    @Column(nullable = false, length = 20)
+    private String action;
+
+    @Column(name = "discount_value")
+    private BigDecimal discountValue;
+
+    private Integer buyQuantity;
+
+    private Integer getQuantity;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    public void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    public void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.price_wise_fullstack.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.price_wise_fullstack.model.CartSnapshot;
+
+@Repository
+public interface CartSnapshotRepository extends JpaRepository<CartSnapshot, Long> {
+
+    @EntityGraph(attributePaths = "items")
+    Optional<CartSnapshot> findByOwnerKey(String ownerKey);
+
+    // Um lote de gravação em segundo plano lê todos os carrinhos sujos de uma vez
+    @EntityGraph(attributePaths = "items")
+    List<CartSnapshot> findByOwnerKeyIn(Collection<String> ownerKeys);
+}
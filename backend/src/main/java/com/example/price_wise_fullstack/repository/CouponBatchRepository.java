@@ -0,0 +1,12 @@
+package com.example.price_wise_fullstack.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import com.example.price_wise_fullstack.model.CouponBatch;
+
+public interface CouponBatchRepository extends JpaRepository<CouponBatch, Long> {
+
+    @Query("select coalesce(max(b.startCounter + b.reservedCount), 0) from CouponBatch b where b.templateKey = :templateKey")
+    long findNextCounter(String templateKey);
+}
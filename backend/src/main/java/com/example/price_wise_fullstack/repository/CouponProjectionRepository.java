@@ -0,0 +1,16 @@
+package com.example.price_wise_fullstack.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.price_wise_fullstack.dto.CouponResponseDTO;
+import com.example.price_wise_fullstack.model.Coupon;
+
+// Mesmo papel de ProductProjectionRepository para a listagem de cupons
+public interface CouponProjectionRepository {
+
+    List<CouponResponseDTO> findProjected(Specification<Coupon> spec, Sort sort, int limit);
+
+}
@@ -0,0 +1,51 @@
+package com.example.price_wise_fullstack.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import com.example.price_wise_fullstack.dto.CouponResponseDTO;
+import com.example.price_wise_fullstack.model.Coupon;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+
+public class CouponProjectionRepositoryImpl implements CouponProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<CouponResponseDTO> findProjected(Specification<Coupon> spec, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CouponResponseDTO> cq = cb.createQuery(CouponResponseDTO.class);
+        Root<Coupon> root = cq.from(Coupon.class);
+
+        cq.select(cb.construct(CouponResponseDTO.class,
+                root.get("id"),
+                root.get("code"),
+                root.get("type"),
+                root.get("discountValue"),
+                root.get("oneShot"),
+                root.get("validFrom"),
+                root.get("validUntil"),
+                root.get("createdAt"),
+                root.get("updatedAt"),
+                root.get("maxRedemptions"),
+                root.get("maxRedemptionsPerUser"),
+                root.get("redemptionCount"),
+                root.get("batchId")));
+        if (spec != null) {
+            cq.where(spec.toPredicate(root, cq, cb));
+        }
+        if (sort.isSorted()) {
+            cq.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+        return entityManager.createQuery(cq).setMaxResults(limit).getResultList();
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.price_wise_fullstack.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.example.price_wise_fullstack.model.CouponRedemption;
+
+public interface CouponRedemptionRepository extends JpaRepository<CouponRedemption, Long> {
+    boolean existsByCouponId(Long couponId);
+}
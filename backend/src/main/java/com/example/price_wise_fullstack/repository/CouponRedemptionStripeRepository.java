@@ -0,0 +1,45 @@
+package com.example.price_wise_fullstack.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import com.example.price_wise_fullstack.model.CouponRedemptionStripe;
+
+import jakarta.persistence.LockModeType;
+
+public interface CouponRedemptionStripeRepository extends JpaRepository<CouponRedemptionStripe, Long> {
+
+    // Só incrementa enquanto a fatia tiver saldo; 0 linhas afetadas = fatia cheia (ou inexistente)
+    @Modifying(flushAutomatically = true)
+    @Query("update CouponRedemptionStripe s set s.used = s.used + 1 where s.coupon.id = :couponId and s.stripe = :stripe and s.used < s.quota")
+    int claim(Long couponId, int stripe);
+
+    @Query("select s.stripe from CouponRedemptionStripe s where s.coupon.id = :couponId and s.used < s.quota")
+    List<Integer> findStripesWithRoom(Long couponId);
+
+    @Query("select sum(s.used) from CouponRedemptionStripe s where s.coupon.id = :couponId")
+    Integer sumUsed(Long couponId);
+
+    boolean existsByCouponId(Long couponId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from CouponRedemptionStripe s where s.coupon.id = :couponId order by s.stripe")
+    List<CouponRedemptionStripe> lockByCouponId(Long couponId);
+
+    @Query("select c.id from Coupon c where c.maxRedemptions is not null and not exists (select s from CouponRedemptionStripe s where s.coupon = c)")
+    List<Long> findLimitedCouponsWithoutStripes();
+
+    // Dentre os cupons informados, os cujo limite mudou depois da divisão em fatias
+    @Query("select s.coupon.id from CouponRedemptionStripe s where s.coupon.id in :couponIds and s.coupon.maxRedemptions is not null group by s.coupon.id, s.coupon.maxRedemptions having sum(s.quota) <> s.coupon.maxRedemptions")
+    List<Long> findCouponsWithStaleQuotas(Collection<Long> couponIds);
+
+    // Copia a soma das fatias para o contador dos cupons informados, só onde diverge
+    @Modifying
+    @Query("update Coupon c set c.redemptionCount = (select sum(s.used) from CouponRedemptionStripe s where s.coupon = c) where c.id in :couponIds and c.redemptionCount <> (select sum(s.used) from CouponRedemptionStripe s where s.coupon = c)")
+    int reconcileCounts(Collection<Long> couponIds);
+}
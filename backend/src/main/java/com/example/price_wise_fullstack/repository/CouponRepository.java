@@ -1,14 +1,38 @@
 package com.example.price_wise_fullstack.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.example.price_wise_fullstack.model.Coupon;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
-public interface CouponRepository extends JpaRepository<Coupon, Long> {
+public interface CouponRepository extends JpaRepository<Coupon, Long>, JpaSpecificationExecutor<Coupon>, CouponProjectionRepository {
     Optional<Coupon> findByCodeIgnoreCase(String code);
     boolean existsByCodeIgnoreCase(String code);
+
+    // Códigos já gravados em minúsculas: o IN usa o índice único de code
+    @Query("select c.code from Coupon c where c.code in :codes")
+    List<String> findExistingCodes(Collection<String> codes);
+
+    @Query("select c.redemptionCount from Coupon c where c.id = :id")
+    int findRedemptionCount(Long id);
+
+    // Só para cupons ainda sem fatias em coupon_redemption_stripes; 0 linhas afetadas = limite atingido
+    @Modifying(flushAutomatically = true)
+    @Query("update Coupon c set c.redemptionCount = c.redemptionCount + 1 where c.id = :id and (c.maxRedemptions is null or c.redemptionCount < c.maxRedemptions)")
+    int incrementRedemptions(Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Coupon c where c.id = :id")
+    Coupon lockById(Long id);
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.example.price_wise_fullstack.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import com.example.price_wise_fullstack.model.CouponUserRedemption;
+
+public interface CouponUserRedemptionRepository extends JpaRepository<CouponUserRedemption, Long> {
+
+    // 0 linhas afetadas = usuário sem registro ainda ou no limite
+    @Modifying(flushAutomatically = true)
+    @Query("update CouponUserRedemption r set r.redemptionCount = r.redemptionCount + 1 where r.coupon.id = :couponId and r.userKey = :userKey and r.redemptionCount < :max")
+    int increment(Long couponId, String userKey, int max);
+
+    boolean existsByCouponIdAndUserKey(Long couponId, String userKey);
+}
@@ -0,0 +1,16 @@
+package com.example.price_wise_fullstack.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.price_wise_fullstack.dto.OrderSummaryDTO;
+import com.example.price_wise_fullstack.model.Order;
+
+// Mesmo papel de CouponProjectionRepository para a listagem de pedidos; os nomes dos produtos vêm de outra consulta
+public interface OrderProjectionRepository {
+
+    List<OrderSummaryDTO> findProjected(Specification<Order> spec, Sort sort, int limit);
+
+}
@@ -0,0 +1,50 @@
+package com.example.price_wise_fullstack.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import com.example.price_wise_fullstack.dto.OrderSummaryDTO;
+import com.example.price_wise_fullstack.model.Coupon;
+import com.example.price_wise_fullstack.model.Order;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+
+public class OrderProjectionRepositoryImpl implements OrderProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<OrderSummaryDTO> findProjected(Specification<Order> spec, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OrderSummaryDTO> cq = cb.createQuery(OrderSummaryDTO.class);
+        Root<Order> root = cq.from(Order.class);
+        Join<Order, Coupon> coupon = root.join("coupon", JoinType.LEFT);
+
+        cq.select(cb.construct(OrderSummaryDTO.class,
+                root.get("id"),
+                root.get("totalOriginal"),
+                root.get("discountApplied"),
+                root.get("totalFinal"),
+                coupon.get("code"),
+                root.get("createdAt")));
+        if (spec != null) {
+            cq.where(spec.toPredicate(root, cq, cb));
+        }
+        if (sort.isSorted()) {
+            cq.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+        TypedQuery<OrderSummaryDTO> query = entityManager.createQuery(cq);
+        return limit < Integer.MAX_VALUE ? query.setMaxResults(limit).getResultList() : query.getResultList();
+    }
+}
@@ -1,8 +1,24 @@
 package com.example.price_wise_fullstack.repository;
 
+import java.util.Collection;
+import java.util.List;
+
+import com.example.price_wise_fullstack.dto.OrderStatsDTO;
 import com.example.price_wise_fullstack.model.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 
-public interface OrderRepository extends JpaRepository<Order, Long> {
-}
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order>, OrderProjectionRepository {
+
+    interface ProductNameRow {
+        Long getOrderId();
+        String getProductName();
+    }
 
+    @Query("select i.order.id as orderId, p.name as productName from OrderItem i join i.product p where i.order.id in :orderIds order by i.id")
+    List<ProductNameRow> findProductNames(Collection<Long> orderIds);
+
+    @Query("select new com.example.price_wise_fullstack.dto.OrderStatsDTO(count(o), coalesce(sum(o.totalFinal), 0)) from Order o")
+    OrderStatsDTO findStats();
+}
@@ -0,0 +1,20 @@
+package com.example.price_wise_fullstack.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.price_wise_fullstack.dto.ProductResponseDTO;
+import com.example.price_wise_fullstack.model.Product;
+
+// Leituras que selecionam direto no DTO, sem carregar entidades no contexto de persistência
+public interface ProductProjectionRepository {
+
+    Page<ProductResponseDTO> findProjected(Specification<Product> spec, Pageable pageable);
+
+    List<ProductResponseDTO> findProjected(Specification<Product> spec, Sort sort, int limit);
+
+}
@@ -0,0 +1,75 @@
+package com.example.price_wise_fullstack.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import com.example.price_wise_fullstack.dto.ProductResponseDTO;
+import com.example.price_wise_fullstack.model.Product;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+
+public class ProductProjectionRepositoryImpl implements ProductProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<ProductResponseDTO> findProjected(Specification<Product> spec, Pageable pageable) {
+        TypedQuery<ProductResponseDTO> query = select(spec, pageable.getSort());
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        // Só executa o count quando a própria página não revela o total
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(spec));
+    }
+
+    @Override
+    public List<ProductResponseDTO> findProjected(Specification<Product> spec, Sort sort, int limit) {
+        return select(spec, sort).setMaxResults(limit).getResultList();
+    }
+
+    private TypedQuery<ProductResponseDTO> select(Specification<Product> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductResponseDTO> cq = cb.createQuery(ProductResponseDTO.class);
+        Root<Product> root = cq.from(Product.class);
+
+        cq.select(cb.construct(ProductResponseDTO.class,
+                root.get("id"),
+                root.get("name"),
+                root.get("description"),
+                root.get("price"),
+                root.get("stock"),
+                root.get("createdAt"),
+                root.get("updatedAt")));
+        if (spec != null) {
+            cq.where(spec.toPredicate(root, cq, cb));
+        }
+        if (sort.isSorted()) {
+            cq.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+        return entityManager.createQuery(cq);
+    }
+
+    private long count(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        Root<Product> root = cq.from(Product.class);
+        cq.select(cb.count(root));
+        if (spec != null) {
+            cq.where(spec.toPredicate(root, cq, cb));
+        }
+        return entityManager.createQuery(cq).getSingleResult();
+    }
+}
@@ -1,14 +1,39 @@
 package com.example.price_wise_fullstack.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import com.example.price_wise_fullstack.dto.ProductResponseDTO;
 import com.example.price_wise_fullstack.model.Product;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>, ProductProjectionRepository {
+
+    String EXPORT_FETCH_SIZE = "500";
 
     boolean existsByNameIgnoreCase(String name);
 
+    @Query("select lower(p.name) from Product p where lower(p.name) in :names")
+    List<String> findExistingNames(Collection<String> names);
+
+    @Query("select new com.example.price_wise_fullstack.dto.ProductResponseDTO(p.id, p.name, p.description, p.price, p.stock, p.createdAt, p.updatedAt) from Product p")
+    List<ProductResponseDTO> findAllProjected();
+
+    // Cursor forward-only: o driver traz EXPORT_FETCH_SIZE linhas por vez em vez do resultado inteiro
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = EXPORT_FETCH_SIZE),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("select new com.example.price_wise_fullstack.dto.ProductResponseDTO(p.id, p.name, p.description, p.price, p.stock, p.createdAt, p.updatedAt) from Product p order by p.id")
+    Stream<ProductResponseDTO> streamAllProjected();
+
 }
@@ -0,0 +1,20 @@
+package com.example.price_wise_fullstack.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.price_wise_fullstack.model.PromotionRule;
+
+@Repository
+public interface PromotionRuleRepository extends JpaRepository<PromotionRule, Long> {
+
+    // Carrega os produtos de cada regra na mesma consulta usada para compilar o plano
+    @EntityGraph(attributePaths = "productIds")
+    List<PromotionRule> findByActiveTrue();
+
+    @EntityGraph(attributePaths = "productIds")
+    List<PromotionRule> findAllByOrderByPriorityDescIdAsc();
+}
@@ -47,6 +47,10 @@ public class SecurityConfig {
                         .requestMatchers("/api/products/**").hasRole("ADMIN")
                         .requestMatchers("/api/coupons/**").hasRole("ADMIN")
                         .requestMatchers("/api/cart/**").hasAnyRole("USER", "ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/api/v1/promotions/**").authenticated()
+                        .requestMatchers("/api/v1/promotions/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/api/v1/coupons/batch").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/api/v1/products/import").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session
@@ -0,0 +1,15 @@
+package com.example.price_wise_fullstack.service;
+
+import com.example.price_wise_fullstack.dto.CouponResponseDTO;
+
+/**
+ * Told by {@link CouponLifecycle} when a coupon enters or leaves the active
+ * set, under the lifecycle's lock, so calls for one coupon arrive in order.
+ * A coupon whose value changes leaves and enters again.
+ */
+public interface ActiveCouponListener {
+
+    void couponActivated(CouponResponseDTO coupon);
+
+    void couponDeactivated(Long couponId);
+}
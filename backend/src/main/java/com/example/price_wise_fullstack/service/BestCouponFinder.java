@@ -0,0 +1,189 @@
+package com.example.price_wise_fullstack.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import com.example.price_wise_fullstack.dto.CouponResponseDTO;
+import com.example.price_wise_fullstack.mapper.CouponMapper;
+import com.example.price_wise_fullstack.model.Coupon;
+
+/**
+ * Ranks the active coupons by the discount they give on a cart. The active
+ * set is kept as two sorted skip lists, updated one coupon at a time as
+ * {@link CouponLifecycle} moves coupons in and out of it: fixed coupons by
+ * value in cents and percent coupons by rate in basis points. As in
+ * {@link PricingPlan}, the coupon comes after the promotions: a fixed
+ * coupon gives min(value, remaining) and a percent coupon gives
+ * min(subtotal * rate / 100, remaining), in cents (see {@link Money}),
+ * where remaining is what the promotions left. Both are monotonic in the
+ * sort key, so the top k come from merging the heads
+ * of the two lists. Coupons below the heads are dominated and never looked
+ * at. Readers iterate without locking and nothing is ever re-sorted.
+ *
+ * Redemption counts are not part of the key: they are read from the
+ * lifecycle's current view of each candidate during the merge.
+ *
+ * Only coupons meant for anyone are ranked. One-shot coupons and codes
+ * generated by {@link CouponBatchService} go to specific recipients, so
+ * they never enter the index: listing them would hand the codes to any
+ * shopper, and spent one-shots would pile up in front of the live ones.
+ */
+@Component
+public class BestCouponFinder implements ActiveCouponListener {
+
+    // Valor já convertido: centavos para fixed, pontos-base para percent
+    private record Key(long value, long id, boolean fixed) {}
+
+    public record RankedCoupon(CouponResponseDTO coupon, long discountCents) {}
+
+    private static final Comparator<Key> BY_VALUE_DESC =
+            Comparator.comparingLong(Key::value).reversed().thenComparingLong(Key::id);
+
+    private static final class Index {
+        final NavigableSet<Key> fixed = new ConcurrentSkipListSet<>(BY_VALUE_DESC);
+        final NavigableSet<Key> percent = new ConcurrentSkipListSet<>(BY_VALUE_DESC);
+        final Map<Long, Key> keys = new ConcurrentHashMap<>();
+
+        void add(CouponResponseDTO coupon) {
+            remove(coupon.getId());
+            if (!isPublic(coupon)) {
+                return;
+            }
+            Key key;
+            if ("fixed".equals(coupon.getType())) {
+                key = new Key(Money.toCents(coupon.getValue()), coupon.getId(), true);
+            } else if ("percent".equals(coupon.getType())) {
+                key = new Key(Money.toBasisPoints(coupon.getValue()), coupon.getId(), false);
+            } else {
+                return;
+            }
+            keys.put(key.id(), key);
+            (key.fixed() ? fixed : percent).add(key);
+        }
+
+        void remove(Long couponId) {
+            Key key = keys.remove(couponId);
+            if (key != null) {
+                (key.fixed() ? fixed : percent).remove(key);
+            }
+        }
+    }
+
+    private final Index index = new Index();
+
+    @Autowired
+    private CouponLifecycle couponLifecycle;
+
+    @Autowired
+    @Lazy
+    private CouponChangeTracker changeTracker;
+
+    @Override
+    public void couponActivated(CouponResponseDTO coupon) {
+        index.add(coupon);
+    }
+
+    @Override
+    public void couponDeactivated(Long couponId) {
+        index.remove(couponId);
+    }
+
+    // subtotal e o que sobra dele depois das promoções, como PricingPlan aplica o cupom
+    public List<RankedCoupon> top(long subtotalCents, long remainingCents, int k) {
+        Index current;
+        Function<Long, CouponResponseDTO> views;
+        Map<Long, Coupon> own = Map.of();
+        if (couponLifecycle.isReady()) {
+            current = index;
+            // O que a própria transação alterou sai do índice e entra pela versão dela
+            own = changeTracker.ownChanges();
+            Map<Long, Coupon> changed = own;
+            views = id -> changed.containsKey(id) ? null : couponLifecycle.view(id);
+        } else {
+            // Antes da carga inicial o conjunto ativo vem do banco, sem índice guardado
+            current = new Index();
+            Map<Long, CouponResponseDTO> byId = new HashMap<>();
+            for (CouponResponseDTO coupon : couponLifecycle.list(CouponLifecycle.Status.ACTIVE)) {
+                current.add(coupon);
+                byId.put(coupon.getId(), coupon);
+            }
+            views = byId::get;
+        }
+
+        Iterator<Key> fixed = current.fixed.iterator();
+        Iterator<Key> percent = current.percent.iterator();
+        Key f = fixed.hasNext() ? fixed.next() : null;
+        Key p = percent.hasNext() ? percent.next() : null;
+
+        List<RankedCoupon> result = new ArrayList<>(k);
+        while (result.size() < k && (f != null || p != null)) {
+            long fixedDiscount = f != null ? Math.min(f.value(), remainingCents) : -1;
+            long percentDiscount = p != null ? Math.min(Money.percentOf(subtotalCents, p.value()), remainingCents) : -1;
+            Key chosen;
+            long discount;
+            if (fixedDiscount >= percentDiscount) {
+                chosen = f;
+                discount = fixedDiscount;
+                f = fixed.hasNext() ? fixed.next() : null;
+            } else {
+                chosen = p;
+                discount = percentDiscount;
+                p = percent.hasNext() ? percent.next() : null;
+            }
+            // A visão pode ter saído entre a leitura do índice e agora
+            CouponResponseDTO coupon = views.apply(chosen.id());
+            if (coupon != null && !exhausted(coupon)) {
+                result.add(new RankedCoupon(coupon, discount));
+            }
+        }
+        return own.isEmpty() ? result : withOwnChanges(result, own, subtotalCents, remainingCents, k);
+    }
+
+    // Junta os cupons ativos gravados pela transação corrente, ainda fora do índice
+    private static List<RankedCoupon> withOwnChanges(List<RankedCoupon> ranked, Map<Long, Coupon> own,
+            long subtotalCents, long remainingCents, int k) {
+        LocalDateTime now = LocalDateTime.now();
+        List<RankedCoupon> merged = new ArrayList<>(ranked);
+        for (Coupon written : own.values()) {
+            if (written == null || !CouponSnapshot.of(written).isValidAt(now)) {
+                continue;
+            }
+            CouponResponseDTO coupon = CouponMapper.toDTO(written);
+            if (!isPublic(coupon) || exhausted(coupon)) {
+                continue;
+            }
+            if ("fixed".equals(coupon.getType())) {
+                merged.add(new RankedCoupon(coupon, Math.min(Money.toCents(coupon.getValue()), remainingCents)));
+            } else if ("percent".equals(coupon.getType())) {
+                long discount = Money.percentOf(subtotalCents, Money.toBasisPoints(coupon.getValue()));
+                merged.add(new RankedCoupon(coupon, Math.min(discount, remainingCents)));
+            }
+        }
+        // Ordenação estável: nos empates a ordem do índice é mantida
+        merged.sort(Comparator.comparingLong(RankedCoupon::discountCents).reversed());
+        return merged.size() > k ? merged.subList(0, k) : merged;
+    }
+
+    private static boolean isPublic(CouponResponseDTO coupon) {
+        return !Boolean.TRUE.equals(coupon.getOneShot()) && coupon.getBatchId() == null;
+    }
+
+    private static boolean exhausted(CouponResponseDTO coupon) {
+        return coupon.getMaxRedemptions() != null
+                && coupon.getRedemptionCount() != null
+                && coupon.getRedemptionCount() >= coupon.getMaxRedemptions();
+    }
+}
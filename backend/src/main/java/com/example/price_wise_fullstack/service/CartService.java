@@ -1,18 +1,21 @@
 package com.example.price_wise_fullstack.service;
 
+import com.example.price_wise_fullstack.dto.BestCouponRequestDTO;
+import com.example.price_wise_fullstack.dto.CartDTO;
+import com.example.price_wise_fullstack.dto.CartItemRequestDTO;
 import com.example.price_wise_fullstack.dto.CartRequestDTO;
 import com.example.price_wise_fullstack.dto.CartSummaryDTO;
-import com.example.price_wise_fullstack.model.Coupon;
 import com.example.price_wise_fullstack.model.Product;
-import com.example.price_wise_fullstack.repository.CouponRepository;
 import com.example.price_wise_fullstack.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -22,7 +25,22 @@ public class CartService {
     private ProductRepository productRepository;
 
     @Autowired
-    private CouponRepository couponRepository;
+    private CouponRegistry couponRegistry;
+
+    @Autowired
+    private CouponLifecycle couponLifecycle;
+
+    @Autowired
+    private BestCouponFinder bestCouponFinder;
+
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private PriceQuoteSigner quoteSigner;
 
     public CartSummaryDTO checkout(CartRequestDTO dto) {
         List<Long> productIds = dto.getProductIds() != null ? dto.getProductIds() : List.of();
@@ -33,32 +51,125 @@ public class CartService {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Nenhum produto encontrado");
         }
 
-        Coupon coupon = couponRepository.findByCodeIgnoreCase(dto.getCouponCode().trim().toLowerCase())
+        CouponSnapshot coupon = couponRegistry.find(dto.getCouponCode())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Cupom não encontrado"));
 
-        LocalDateTime now = LocalDateTime.now();
-        if (coupon.getDeletedAt() != null || now.isBefore(coupon.getValidFrom()) || now.isAfter(coupon.getValidUntil())) {
+        if (!couponLifecycle.isActive(coupon)) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cupom inválido ou expirado");
         }
 
-        BigDecimal totalOriginal = products.stream()
-                .map(Product::getPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        List<PricingLine> lines = lines(products);
+        return summary(products, lines, pricingEngine.price(lines, coupon), coupon);
+    }
 
-        BigDecimal discount = coupon.getType().equals("percent")
-                ? totalOriginal.multiply(coupon.getDiscountValue()).divide(BigDecimal.valueOf(100))
-                : coupon.getDiscountValue();
+    // Mesmos números que o checkout daria com cada cupom, do maior desconto para o menor
+    public List<CartSummaryDTO> bestCoupons(BestCouponRequestDTO dto) {
+        @SuppressWarnings("null")
+        List<Product> products = productRepository.findAllById(dto.getProductIds());
 
-        BigDecimal totalWithDiscount = totalOriginal.subtract(discount).max(BigDecimal.ZERO);
+        if (products.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Nenhum produto encontrado");
+        }
+
+        // O cupom entra depois das promoções: o ranking usa o que elas deixam
+        List<PricingLine> lines = lines(products);
+        PricingResult promoted = pricingEngine.price(lines, null);
+
+        return bestCouponFinder.top(promoted.subtotal(), promoted.total(), dto.getLimit()).stream()
+                .map(ranked -> couponRegistry.find(ranked.coupon().getCode()).orElse(null))
+                .filter(coupon -> coupon != null)
+                .map(coupon -> summary(products, lines, pricingEngine.price(lines, coupon), coupon))
+                .toList();
+    }
 
+    // Carrinho no servidor: cada alteração ajusta só a linha afetada
+
+    public CartDTO getCart(String owner) {
+        return view(cartStore.get(owner));
+    }
+
+    public CartDTO addItem(String owner, CartItemRequestDTO dto) {
+        @SuppressWarnings("null")
+        Product product = productRepository.findById(dto.getProductId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Produto não encontrado"));
+        return view(cartStore.update(owner, cart -> {
+            cart.add(product.getId(), product.getName(), Money.toCents(product.getPrice()), dto.getQuantity());
+            return cart;
+        }));
+    }
+
+    public CartDTO updateQuantity(String owner, Long productId, int quantity) {
+        return view(cartStore.update(owner, cart -> {
+            if (!cart.setQuantity(productId, quantity)) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Produto não está no carrinho");
+            }
+            return cart;
+        }));
+    }
+
+    public CartDTO removeItem(String owner, Long productId) {
+        return updateQuantity(owner, productId, 0);
+    }
+
+    public CartDTO applyCoupon(String owner, String couponCode) {
+        CouponSnapshot coupon = couponRegistry.find(couponCode)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Cupom não encontrado"));
+
+        if (!couponLifecycle.isActive(coupon)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cupom inválido ou expirado");
+        }
+
+        return view(cartStore.update(owner, cart -> {
+            cart.setCouponCode(coupon.code());
+            return cart;
+        }));
+    }
+
+    public CartDTO removeCoupon(String owner) {
+        return view(cartStore.update(owner, cart -> {
+            cart.setCouponCode(null);
+            return cart;
+        }));
+    }
+
+    public CartDTO clear(String owner) {
+        return view(cartStore.update(owner, cart -> {
+            cart.clear();
+            return cart;
+        }));
+    }
+
+    // Cupom que expirou depois de aplicado fica fora do preço
+    private CartDTO view(ServerCart cart) {
+        return cart.view(pricingEngine.plan(), code -> couponRegistry.find(code)
+                .filter(couponLifecycle::isActive)
+                .map(PricingRule::of)
+                .orElse(null));
+    }
+
+    private static List<PricingLine> lines(List<Product> products) {
+        return products.stream().map(p -> PricingLine.of(p, 1)).toList();
+    }
+
+    private CartSummaryDTO summary(List<Product> products, List<PricingLine> lines, PricingResult price,
+                                   CouponSnapshot coupon) {
         CartSummaryDTO summary = new CartSummaryDTO();
         summary.setProductNames(products.stream().map(Product::getName).toList());
-        summary.setTotalOriginal(totalOriginal);
-        summary.setDiscountAmount(discount);
-        summary.setTotalWithDiscount(totalWithDiscount);
-        summary.setAppliedCoupon(coupon.getCode());
+        summary.setTotalOriginal(Money.toDecimal(price.subtotal()));
+        summary.setDiscountAmount(Money.toDecimal(price.discount()));
+        summary.setTotalWithDiscount(Money.toDecimal(price.total()));
+        summary.setAppliedCoupon(coupon.code());
+        summary.setAppliedPromotions(price.promotionNames());
 
+        List<PriceQuote.Line> quoted = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            PricingLine line = lines.get(i);
+            quoted.add(new PriceQuote.Line(line.productId(), products.get(i).getName(), line.unitCents(), line.quantity()));
+        }
+        long expiresAt = quoteSigner.expiresAt(System.currentTimeMillis());
+        summary.setQuoteToken(quoteSigner.sign(new PriceQuote(expiresAt, coupon.id(), coupon.code(),
+                price.subtotal(), price.discount(), price.total(), price.promotionNames(), quoted)));
+        summary.setQuoteExpiresAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(expiresAt), ZoneId.systemDefault()));
         return summary;
     }
 }
-
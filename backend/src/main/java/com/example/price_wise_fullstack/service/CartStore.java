@@ -0,0 +1,196 @@
+package com.example.price_wise_fullstack.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.price_wise_fullstack.model.CartSnapshot;
+import com.example.price_wise_fullstack.model.Product;
+import com.example.price_wise_fullstack.repository.CartSnapshotRepository;
+import com.example.price_wise_fullstack.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Server-side carts by owner, in a bounded cache that drops carts idle for
+ * longer than the TTL. Changes are written behind: a changed cart stays in
+ * the dirty map, which keeps it reachable even if the cache evicts it, until
+ * a periodic flush saves its snapshot. A cart missing from the cache is read
+ * back from its snapshot with current product prices, so carts survive
+ * eviction and restarts. A crash loses at most one flush interval. The
+ * snapshot is read outside the cache's locks: the entry holds a future
+ * while the cart loads, and other requests for the same owner wait on it.
+ */
+@Component
+@Slf4j
+public class CartStore {
+
+    private final AsyncCache<String, ServerCart> carts;
+    private final Map<String, ServerCart> dirty = new ConcurrentHashMap<>();
+
+    @Autowired
+    private CartSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    public CartStore(
+        @Value("${pricewise.cart.store.max-size:100000}") long maxSize,
+        @Value("${pricewise.cart.store.ttl:2h}") Duration ttl,
+        MeterRegistry meterRegistry
+    ) {
+        this.carts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, carts.synchronous(), "cart.store");
+        Gauge.builder("cart.store.dirty", dirty, Map::size)
+                .description("Carts changed since their last snapshot")
+                .register(meterRegistry);
+    }
+
+    ServerCart get(String owner) {
+        CompletableFuture<ServerCart> loading = new CompletableFuture<>();
+        CompletableFuture<ServerCart> cart = carts.get(owner, (key, executor) -> loading);
+        if (cart == loading) {
+            // Consultas fora do compute: só esta entrada espera, e na thread de quem pediu
+            try {
+                loading.complete(load(owner));
+            } catch (RuntimeException e) {
+                loading.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return cart.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Applies a change and schedules its write. Runs inside the cache's
+     * compute for the owner, so the cart cannot be evicted between being read
+     * and being registered as dirty; otherwise a second request could load a
+     * fresh copy from the snapshot and one of the two changes would be lost.
+     * The compute only touches a cart already loaded: if the entry is gone or
+     * was replaced by a load still running, it loads again and retries.
+     */
+    <T> T update(String owner, Function<ServerCart, T> change) {
+        List<T> result = new ArrayList<>(1);
+        while (result.isEmpty()) {
+            get(owner);
+            carts.asMap().computeIfPresent(owner, (key, entry) -> {
+                ServerCart cart = entry.isDone() && !entry.isCompletedExceptionally() ? entry.join() : null;
+                if (cart != null) {
+                    synchronized (cart) {
+                        result.add(change.apply(cart));
+                        cart.changed();
+                        dirty.put(key, cart);
+                    }
+                }
+                return entry;
+            });
+        }
+        return result.get(0);
+    }
+
+    private ServerCart load(String owner) {
+        // Evictado antes de ser gravado: a versão em memória é a mais nova
+        ServerCart pending = dirty.get(owner);
+        if (pending != null) {
+            return pending;
+        }
+        ServerCart cart = new ServerCart();
+        snapshotRepository.findByOwnerKey(owner).ifPresent(snapshot -> {
+            @SuppressWarnings("null")
+            List<Product> products = productRepository.findAllById(snapshot.getItems().keySet());
+            for (Product product : products) {
+                cart.add(product.getId(), product.getName(), Money.toCents(product.getPrice()),
+                        snapshot.getItems().get(product.getId()));
+            }
+            cart.setCouponCode(snapshot.getCouponCode());
+        });
+        return cart;
+    }
+
+    @Scheduled(fixedDelayString = "${pricewise.cart.snapshot-interval:5s}",
+               initialDelayString = "${pricewise.cart.snapshot-interval:5s}")
+    public synchronized void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        Map<String, ServerCart.Snapshot> batch = new HashMap<>();
+        dirty.forEach((owner, cart) -> batch.put(owner, cart.snapshot()));
+
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> write(batch));
+        } catch (RuntimeException e) {
+            log.warn("Cart snapshot flush of {} carts failed, retrying on the next run", batch.size(), e);
+            return;
+        }
+
+        // Só sai do mapa quem não mudou desde a cópia
+        batch.forEach((owner, snapshot) ->
+            dirty.computeIfPresent(owner, (key, cart) -> cart.version() == snapshot.version() ? null : cart));
+        log.debug("Flushed {} cart snapshots", batch.size());
+    }
+
+    private void write(Map<String, ServerCart.Snapshot> batch) {
+        Map<String, CartSnapshot> existing = new HashMap<>();
+        snapshotRepository.findByOwnerKeyIn(batch.keySet()).forEach(s -> existing.put(s.getOwnerKey(), s));
+
+        List<CartSnapshot> saved = new ArrayList<>();
+        List<CartSnapshot> deleted = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        batch.forEach((owner, snapshot) -> {
+            CartSnapshot entity = existing.get(owner);
+            if (snapshot.items().isEmpty() && snapshot.couponCode() == null) {
+                if (entity != null) {
+                    deleted.add(entity);
+                }
+                return;
+            }
+            if (entity == null) {
+                entity = new CartSnapshot();
+                entity.setOwnerKey(owner);
+            }
+            entity.getItems().clear();
+            entity.getItems().putAll(snapshot.items());
+            entity.setCouponCode(snapshot.couponCode());
+            entity.setUpdatedAt(now);
+            saved.add(entity);
+        });
+        snapshotRepository.saveAll(saved);
+        snapshotRepository.deleteAll(deleted);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.price_wise_fullstack.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.price_wise_fullstack.dto.CouponBatchRequestDTO;
+import com.example.price_wise_fullstack.model.Coupon;
+import com.example.price_wise_fullstack.model.CouponBatch;
+import com.example.price_wise_fullstack.repository.CouponBatchRepository;
+import com.example.price_wise_fullstack.repository.CouponRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Generates coupon codes in bulk. Each template (prefix, alphabet, length)
+ * owns a counter space; a batch reserves the next range of counters and maps
+ * each one through a keyed permutation of all possible codes, so codes are
+ * unique across every batch of the template without checking them one by
+ * one. Codes are persisted in chunks with batched inserts and streamed back
+ * as each chunk commits.
+ *
+ * The response is already 201 when streaming starts, so its end is marked
+ * in the body: a complete file ends with {@code #end count=<n> sha256=<hex>}
+ * over the code lines, and a failed one with {@code #error count=<n>} when
+ * the failure can still be written. A file without a valid {@code #end}
+ * line is incomplete; the codes it lists were committed all the same.
+ */
+@Service
+public class CouponBatchService {
+    private static final int CHUNK_SIZE = 1000;
+    private static final int MIN_SECRET_BYTES = 32;
+
+    // O contador reservado para um lote e a permutação do template
+    public record CouponBatchPlan(Long batchId, CouponBatchRequestDTO template, long startCounter, long reservedCount,
+            CouponCodePermutation permutation) {}
+
+    @Autowired
+    private CouponBatchRepository batchRepository;
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private CouponCodeFilter codeFilter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${pricewise.coupons.batch.secret}")
+    private String secret;
+
+    // Chave própria da permutação: curta demais, a aplicação não sobe
+    @PostConstruct
+    void checkSecret() {
+        if (secret.getBytes(StandardCharsets.UTF_8).length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("pricewise.coupons.batch.secret must be at least " + MIN_SECRET_BYTES + " bytes");
+        }
+    }
+
+    // Valida o template e reserva a faixa de contadores antes de começar a resposta
+    public CouponBatchPlan plan(CouponBatchRequestDTO dto) {
+        if (dto.getValidUntil().isBefore(dto.getValidFrom())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Data de validade inválida");
+        }
+        String prefix = dto.getPrefix() != null ? dto.getPrefix().toLowerCase() : "";
+        dto.setPrefix(prefix);
+        int codeLength = prefix.length() + dto.getLength();
+        if (codeLength < 4 || codeLength > 20) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Prefix plus length must be between 4 and 20 characters");
+        }
+        String alphabet = dto.getAlphabet();
+        if (alphabet.chars().distinct().count() != alphabet.length()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Alphabet must not repeat characters");
+        }
+
+        long domainSize = domainSize(alphabet.length(), dto.getLength());
+        String templateKey = prefix + ":" + alphabet + ":" + dto.getLength();
+        long requested = dto.getCount();
+
+        CouponBatch batch = new TransactionTemplate(transactionManager).execute(status -> {
+            long start = batchRepository.findNextCounter(templateKey);
+            if (domainSize - start < requested) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Not enough unused codes left for this template");
+            }
+            long reservedCount = Math.min(requested + requested / 100 + 16, domainSize - start);
+            CouponBatch b = new CouponBatch();
+            b.setTemplateKey(templateKey);
+            b.setStartCounter(start);
+            b.setReservedCount(reservedCount);
+            b.setRequestedCount(dto.getCount());
+            try {
+                return batchRepository.saveAndFlush(b);
+            } catch (DataIntegrityViolationException e) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Another batch for this template is being generated, please retry");
+            }
+        });
+
+        CouponCodePermutation permutation = new CouponCodePermutation(templateKey(templateKey), domainSize);
+        return new CouponBatchPlan(batch.getId(), dto, batch.getStartCounter(), batch.getReservedCount(), permutation);
+    }
+
+    // Grava e devolve um código por linha; cada bloco só é escrito depois de confirmado no banco
+    public void generate(CouponBatchPlan plan, OutputStream out) throws IOException {
+        CouponBatchRequestDTO template = plan.template();
+        char[] alphabet = template.getAlphabet().toCharArray();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        MessageDigest digest = sha256();
+
+        long counter = plan.startCounter();
+        long endCounter = plan.startCounter() + plan.reservedCount();
+        int remaining = template.getCount();
+        int written = 0;
+        try {
+            while (remaining > 0) {
+                List<String> codes = new ArrayList<>(Math.min(CHUNK_SIZE, remaining));
+                while (codes.size() < Math.min(CHUNK_SIZE, remaining)) {
+                    if (counter == endCounter) {
+                        // Só acontece se colisões com códigos manuais consumirem toda a folga
+                        throw new IllegalStateException("Reserved counter range exhausted for batch " + plan.batchId());
+                    }
+                    codes.add(template.getPrefix() + encode(plan.permutation().permute(counter++), alphabet, template.getLength()));
+                }
+                List<String> saved = new TransactionTemplate(transactionManager).execute(status -> saveChunk(codes, plan));
+                for (String code : saved) {
+                    String line = code + "\n";
+                    digest.update(line.getBytes(StandardCharsets.UTF_8));
+                    writer.write(line);
+                }
+                writer.flush();
+                written += saved.size();
+                remaining -= saved.size();
+            }
+        } catch (RuntimeException e) {
+            // O status já foi enviado: o cliente só sabe da falha pelo corpo
+            writer.write("#error count=" + written + "\n");
+            writer.flush();
+            throw e;
+        }
+        writer.write("#end count=" + written + " sha256=" + HexFormat.of().formatHex(digest.digest()) + "\n");
+        writer.flush();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    private List<String> saveChunk(List<String> codes, CouponBatchPlan plan) {
+        CouponBatchRequestDTO template = plan.template();
+        // Só colide com códigos criados manualmente; esses contadores são pulados
+        List<String> candidates = codeFilter.mightExistNormalized(codes.stream().map(CouponRegistry::normalize).toList());
+        Set<String> existing = candidates.isEmpty()
+                ? Set.of()
+                : new HashSet<>(couponRepository.findExistingCodes(candidates));
+        List<Coupon> coupons = new ArrayList<>(codes.size());
+        List<String> saved = new ArrayList<>(codes.size());
+        for (String code : codes) {
+            if (existing.contains(code)) {
+                continue;
+            }
+            Coupon coupon = new Coupon();
+            coupon.setCode(code);
+            coupon.setType(template.getType());
+            coupon.setDiscountValue(template.getValue());
+            coupon.setOneShot(template.getOneShot());
+            coupon.setValidFrom(template.getValidFrom());
+            coupon.setValidUntil(template.getValidUntil());
+            coupon.setBatchId(plan.batchId());
+            coupons.add(coupon);
+            saved.add(code);
+        }
+        couponRepository.saveAll(coupons);
+        entityManager.flush();
+        entityManager.clear();
+        return saved;
+    }
+
+    private static long domainSize(int alphabetSize, int length) {
+        long size = 1;
+        for (int i = 0; i < length; i++) {
+            if (size > Long.MAX_VALUE / 4 / alphabetSize) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Code space too large; use a shorter length or alphabet");
+            }
+            size *= alphabetSize;
+        }
+        return size;
+    }
+
+    static String encode(long value, char[] alphabet, int length) {
+        char[] code = new char[length];
+        for (int i = length - 1; i >= 0; i--) {
+            code[i] = alphabet[(int) (value % alphabet.length)];
+            value /= alphabet.length;
+        }
+        return new String(code);
+    }
+
+    // Chave da permutação derivada do segredo do servidor e do template
+    private byte[] templateKey(String templateKey) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return mac.doFinal(templateKey.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+}
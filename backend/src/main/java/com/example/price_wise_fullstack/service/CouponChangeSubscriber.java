@@ -0,0 +1,16 @@
+package com.example.price_wise_fullstack.service;
+
+import com.example.price_wise_fullstack.model.Coupon;
+
+/**
+ * In-memory view of the coupons kept in sync by {@link CouponChangeTracker}.
+ */
+public interface CouponChangeSubscriber {
+
+    void couponSaved(Coupon coupon);
+
+    void couponRemoved(Long couponId);
+
+    default void couponsLoaded() {
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.price_wise_fullstack.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.price_wise_fullstack.model.Coupon;
+import com.example.price_wise_fullstack.repository.CouponRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Coupon counterpart of {@link ProductChangeTracker}: keeps the latest state
+ * of each coupon a transaction writes and applies it to the in-memory coupon
+ * views only after the commit, so checkout never prices with a coupon that
+ * may still roll back. The writing transaction itself still reads its own
+ * writes: the views consult {@link #ownChanges()} before their shared state.
+ */
+@Component
+@Slf4j
+public class CouponChangeTracker {
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    @Autowired
+    private List<CouponChangeSubscriber> subscribers;
+
+    @Autowired
+    private ObjectProvider<CouponRepository> couponRepository;
+
+    @Autowired
+    private ObjectProvider<PlatformTransactionManager> transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public void saved(Coupon coupon) {
+        pending(coupon.getId(), coupon);
+    }
+
+    public void removed(Long couponId) {
+        pending(couponId, null);
+    }
+
+    /**
+     * Coupons written by the current transaction and not yet published, by
+     * id, with null for a removal. Pending inserts are flushed first, as
+     * Hibernate does before a query, since the listener only hears of them
+     * on flush.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<Long, Coupon> ownChanges() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Map.of();
+        }
+        entityManager.flush();
+        Map<Long, Coupon> changes = (Map<Long, Coupon>) TransactionSynchronizationManager.getResource(this);
+        return changes != null ? changes : Map.of();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadCoupons() {
+        CouponRepository repository = couponRepository.getObject();
+        TransactionTemplate tx = readOnlyTransaction();
+        long lastId = 0;
+        int loaded = 0;
+        List<Coupon> batch;
+        do {
+            final long afterId = lastId;
+            batch = tx.execute(status -> repository.findBy(
+                    (root, query, cb) -> cb.greaterThan(root.get("id"), afterId),
+                    q -> q.sortBy(Sort.by("id")).limit(LOAD_BATCH_SIZE).all()));
+            for (Coupon coupon : batch) {
+                subscribers.forEach(s -> s.couponSaved(coupon));
+                lastId = coupon.getId();
+            }
+            loaded += batch.size();
+        } while (batch.size() == LOAD_BATCH_SIZE);
+
+        subscribers.forEach(CouponChangeSubscriber::couponsLoaded);
+        log.info("Coupons loaded into {} in-memory views ({} coupons)", subscribers.size(), loaded);
+    }
+
+    // Última versão de cada cupom alterado na transação; null = removido
+    @SuppressWarnings("unchecked")
+    private void pending(Long couponId, Coupon coupon) {
+        if (couponId == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(couponId, coupon);
+            return;
+        }
+        Map<Long, Coupon> changes = (Map<Long, Coupon>) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            Map<Long, Coupon> byId = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, byId);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    byId.forEach(CouponChangeTracker.this::apply);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CouponChangeTracker.this);
+                }
+            });
+            changes = byId;
+        }
+        changes.put(couponId, coupon);
+    }
+
+    private void apply(Long couponId, Coupon coupon) {
+        if (coupon == null) {
+            subscribers.forEach(s -> s.couponRemoved(couponId));
+        } else {
+            subscribers.forEach(s -> s.couponSaved(coupon));
+        }
+    }
+
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager.getObject());
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        tx.setReadOnly(true);
+        return tx;
+    }
+}
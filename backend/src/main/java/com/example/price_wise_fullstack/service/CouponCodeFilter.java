@@ -0,0 +1,115 @@
+package com.example.price_wise_fullstack.service;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import com.example.price_wise_fullstack.model.Coupon;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Answers "this code certainly does not exist" in memory, in front of the
+ * coupon code queries that still reach the database: lookup by code,
+ * duplicate check on create and collision check in bulk generation. Filled
+ * by {@link CouponChangeTracker} at startup and on every committed coupon
+ * write; codes the current transaction wrote are checked apart.
+ * Removed or renamed codes stay in the filter and only cost a false
+ * positive. Until the initial load finishes every code passes.
+ */
+@Component
+public class CouponCodeFilter implements CouponChangeSubscriber {
+
+    private final ScalableBloomFilter filter;
+    private final Counter avoided;
+    private final Counter passed;
+    private volatile boolean ready;
+
+    @Autowired
+    @Lazy
+    private CouponChangeTracker changeTracker;
+
+    public CouponCodeFilter(
+        @Value("${pricewise.coupons.code-filter.initial-capacity:10000}") long initialCapacity,
+        @Value("${pricewise.coupons.code-filter.fpp:0.01}") double fpp,
+        MeterRegistry meterRegistry
+    ) {
+        this.filter = new ScalableBloomFilter(initialCapacity, fpp);
+        this.avoided = Counter.builder("coupons.code_filter.lookups")
+                .tag("result", "avoided")
+                .description("Coupon code lookups answered as absent without a database query")
+                .register(meterRegistry);
+        this.passed = Counter.builder("coupons.code_filter.lookups")
+                .tag("result", "passed")
+                .description("Coupon code lookups sent to the database")
+                .register(meterRegistry);
+        Gauge.builder("coupons.code_filter.size", this, f -> f.size()).register(meterRegistry);
+        Gauge.builder("coupons.code_filter.stages", this, f -> f.stageCount()).register(meterRegistry);
+    }
+
+    public boolean mightExist(String code) {
+        if (!ready) {
+            return true;
+        }
+        String normalized = CouponRegistry.normalize(code);
+        boolean result = filter.mightContain(normalized) || writtenByThisTransaction(normalized);
+        (result ? passed : avoided).increment();
+        return result;
+    }
+
+    // O filtro só recebe códigos confirmados; os da transação corrente ainda podem colidir
+    private boolean writtenByThisTransaction(String normalizedCode) {
+        return ownCodes().contains(normalizedCode);
+    }
+
+    private Set<String> ownCodes() {
+        return changeTracker.ownChanges().values().stream()
+                .filter(Objects::nonNull)
+                .map(c -> CouponRegistry.normalize(c.getCode()))
+                .collect(Collectors.toSet());
+    }
+
+    // Para o gerador em lote: de um bloco de códigos já normalizados, os que podem existir
+    List<String> mightExistNormalized(List<String> normalizedCodes) {
+        if (!ready) {
+            return normalizedCodes;
+        }
+        Set<String> own = ownCodes();
+        List<String> result = normalizedCodes.stream()
+                .filter(code -> filter.mightContain(code) || own.contains(code))
+                .toList();
+        passed.increment(result.size());
+        avoided.increment(normalizedCodes.size() - result.size());
+        return result;
+    }
+
+    @Override
+    public synchronized void couponSaved(Coupon coupon) {
+        filter.add(CouponRegistry.normalize(coupon.getCode()));
+    }
+
+    @Override
+    public void couponRemoved(Long couponId) {
+    }
+
+    @Override
+    public void couponsLoaded() {
+        ready = true;
+    }
+
+    private synchronized long size() {
+        return filter.size();
+    }
+
+    private synchronized int stageCount() {
+        return filter.stageCount();
+    }
+}
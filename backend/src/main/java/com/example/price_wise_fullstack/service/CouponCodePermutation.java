@@ -0,0 +1,61 @@
+package com.example.price_wise_fullstack.service;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Keyed bijection over [0, domainSize): a balanced Feistel network on the
+ * smallest even bit width that covers the domain, with cycle walking to
+ * stay inside it. Feeding distinct counters yields distinct, unpredictable
+ * values, so generated coupon codes never collide with each other.
+ */
+class CouponCodePermutation {
+    private static final int ROUNDS = 4;
+
+    private final long domainSize;
+    private final int halfBits;
+    private final long halfMask;
+    private final long[] roundKeys = new long[ROUNDS];
+
+    CouponCodePermutation(byte[] key, long domainSize) {
+        if (domainSize < 2) {
+            throw new IllegalArgumentException("Domain must have at least two values");
+        }
+        this.domainSize = domainSize;
+        int bits = 64 - Long.numberOfLeadingZeros(domainSize - 1);
+        this.halfBits = (bits + 1) / 2;
+        this.halfMask = (1L << halfBits) - 1;
+        ByteBuffer buffer = ByteBuffer.wrap(key);
+        for (int i = 0; i < ROUNDS; i++) {
+            roundKeys[i] = buffer.getLong();
+        }
+    }
+
+    long permute(long index) {
+        if (index < 0 || index >= domainSize) {
+            throw new IllegalArgumentException("Index outside the domain");
+        }
+        long value = index;
+        do {
+            value = encrypt(value);
+        } while (value >= domainSize);
+        return value;
+    }
+
+    private long encrypt(long value) {
+        long left = value >>> halfBits;
+        long right = value & halfMask;
+        for (long roundKey : roundKeys) {
+            long next = left ^ (mix(right ^ roundKey) & halfMask);
+            left = right;
+            right = next;
+        }
+        return (left << halfBits) | right;
+    }
+
+    // Finalizador do SplitMix64
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
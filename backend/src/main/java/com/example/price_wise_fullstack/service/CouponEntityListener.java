@@ -0,0 +1,29 @@
+package com.example.price_wise_fullstack.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+
+import com.example.price_wise_fullstack.model.Coupon;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+// Instanciado pelo Hibernate; apenas repassa os eventos para o tracker singleton
+public class CouponEntityListener {
+
+    @Autowired
+    @Lazy
+    private CouponChangeTracker tracker;
+
+    @PostPersist
+    @PostUpdate
+    public void afterSave(Coupon coupon) {
+        tracker.saved(coupon);
+    }
+
+    @PostRemove
+    public void afterRemove(Coupon coupon) {
+        tracker.removed(coupon.getId());
+    }
+}
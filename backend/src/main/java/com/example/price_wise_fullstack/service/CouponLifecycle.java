@@ -0,0 +1,229 @@
+package com.example.price_wise_fullstack.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.price_wise_fullstack.dto.CouponResponseDTO;
+import com.example.price_wise_fullstack.mapper.CouponMapper;
+import com.example.price_wise_fullstack.model.Coupon;
+import com.example.price_wise_fullstack.repository.CouponRepository;
+
+/**
+ * Keeps every live coupon in exactly one of the pending, active and expired
+ * sets. The status is computed when a coupon is loaded or saved, and a
+ * {@link HierarchicalTimingWheel} moves it to the next set when its
+ * validFrom / validUntil boundary is reached, so validity checks on the hot
+ * paths are a single set lookup. The wheel ticks every
+ * {@code pricewise.coupons.lifecycle.tick}; a transition is never early and
+ * lags its boundary by less than one tick. Deleted coupons are in no set.
+ */
+@Component
+public class CouponLifecycle implements CouponChangeSubscriber {
+
+    public enum Status { PENDING, ACTIVE, EXPIRED }
+
+    private record Transition(Long couponId, long generation) {}
+
+    // Estado interno, protegido pelo lock do componente
+    private static final class Tracked {
+        long validFromMillis;
+        long validUntilMillis;
+        Status status;
+        long generation;
+    }
+
+    private final Map<Status, Set<Long>> members = new EnumMap<>(Status.class);
+    private final Map<Long, CouponResponseDTO> views = new ConcurrentHashMap<>();
+    private final Map<Long, Tracked> tracked = new HashMap<>();
+    private final HierarchicalTimingWheel<Transition> wheel;
+    private long generations;
+    private volatile boolean ready;
+
+    @Autowired
+    private ObjectProvider<CouponRepository> couponRepository;
+
+    @Autowired
+    @Lazy
+    private CouponChangeTracker changeTracker;
+
+    @Autowired
+    @Lazy
+    private List<ActiveCouponListener> activeListeners;
+
+    public CouponLifecycle(@Value("${pricewise.coupons.lifecycle.tick:1s}") Duration tick) {
+        for (Status status : Status.values()) {
+            members.put(status, ConcurrentHashMap.newKeySet());
+        }
+        this.wheel = new HierarchicalTimingWheel<>(tick.toMillis(), System.currentTimeMillis());
+    }
+
+    public boolean isActive(CouponSnapshot coupon) {
+        // Cupom gravado pela própria transação ainda não está nos conjuntos
+        if (!ready || changeTracker.ownChanges().containsKey(coupon.id())) {
+            return coupon.isValidAt(LocalDateTime.now());
+        }
+        return members.get(Status.ACTIVE).contains(coupon.id());
+    }
+
+    public List<CouponResponseDTO> list(Status status) {
+        if (!ready) {
+            long now = System.currentTimeMillis();
+            return couponRepository.getObject().findAll().stream()
+                    .filter(c -> c.getDeletedAt() == null)
+                    .filter(c -> statusAt(millis(c.getValidFrom()), millis(c.getValidUntil()), now) == status)
+                    .sorted(Comparator.comparing(Coupon::getId))
+                    .map(CouponMapper::toDTO)
+                    .toList();
+        }
+        // Cupons gravados pela própria transação entram com o status calculado na hora
+        Map<Long, Coupon> own = changeTracker.ownChanges();
+        long now = System.currentTimeMillis();
+        Stream<CouponResponseDTO> written = own.values().stream()
+                .filter(c -> c != null && c.getDeletedAt() == null)
+                .filter(c -> statusAt(millis(c.getValidFrom()), millis(c.getValidUntil()), now) == status)
+                .map(CouponMapper::toDTO);
+        return Stream.concat(members.get(status).stream()
+                        .filter(id -> !own.containsKey(id))
+                        .map(views::get)
+                        .filter(Objects::nonNull), written)
+                .sorted(Comparator.comparing(CouponResponseDTO::getId))
+                .toList();
+    }
+
+    public long count(Status status) {
+        if (!ready || !changeTracker.ownChanges().isEmpty()) {
+            return list(status).size();
+        }
+        return members.get(status).size();
+    }
+
+    // Visão atual, com a contagem de resgates em dia; null se o cupom não é mais acompanhado
+    CouponResponseDTO view(Long couponId) {
+        return views.get(couponId);
+    }
+
+    boolean isReady() {
+        return ready;
+    }
+
+    @Scheduled(fixedRateString = "${pricewise.coupons.lifecycle.tick:1s}")
+    public void tick() {
+        advanceTo(System.currentTimeMillis());
+    }
+
+    synchronized void advanceTo(long nowMillis) {
+        for (Transition transition : wheel.advance(nowMillis)) {
+            Tracked state = tracked.get(transition.couponId());
+            if (state != null && state.generation == transition.generation()) {
+                move(transition.couponId(), state, wheel.currentMillis());
+            }
+        }
+    }
+
+    // Resgate confirmado por um UPDATE em massa, que não passa pelos listeners da entidade
+    public void redeemed(Long couponId) {
+        views.computeIfPresent(couponId, (id, view) -> {
+            CouponResponseDTO copy = copyOf(view);
+            copy.setRedemptionCount((view.getRedemptionCount() != null ? view.getRedemptionCount() : 0) + 1);
+            return copy;
+        });
+    }
+
+    @Override
+    public synchronized void couponSaved(Coupon coupon) {
+        forget(coupon.getId());
+        if (coupon.getDeletedAt() != null) {
+            return;
+        }
+        Tracked state = new Tracked();
+        state.validFromMillis = millis(coupon.getValidFrom());
+        state.validUntilMillis = millis(coupon.getValidUntil());
+        state.generation = ++generations;
+        tracked.put(coupon.getId(), state);
+        views.put(coupon.getId(), CouponMapper.toDTO(coupon));
+        move(coupon.getId(), state, Math.max(System.currentTimeMillis(), wheel.currentMillis()));
+    }
+
+    @Override
+    public synchronized void couponRemoved(Long couponId) {
+        forget(couponId);
+    }
+
+    @Override
+    public void couponsLoaded() {
+        ready = true;
+    }
+
+    private void move(Long couponId, Tracked state, long nowMillis) {
+        Status next = statusAt(state.validFromMillis, state.validUntilMillis, nowMillis);
+        Status previous = state.status;
+        if (previous != null) {
+            members.get(previous).remove(couponId);
+        }
+        state.status = next;
+        members.get(next).add(couponId);
+        if (previous != Status.ACTIVE && next == Status.ACTIVE) {
+            CouponResponseDTO view = views.get(couponId);
+            activeListeners.forEach(l -> l.couponActivated(view));
+        } else if (previous == Status.ACTIVE && next != Status.ACTIVE) {
+            activeListeners.forEach(l -> l.couponDeactivated(couponId));
+        }
+
+        // Se a próxima fronteira já passou no relógio da roda, avança na hora
+        long boundary = switch (next) {
+            case PENDING -> state.validFromMillis;
+            case ACTIVE -> state.validUntilMillis + 1;
+            case EXPIRED -> Long.MIN_VALUE;
+        };
+        if (boundary != Long.MIN_VALUE
+                && !wheel.schedule(new Transition(couponId, state.generation), boundary)) {
+            move(couponId, state, boundary);
+        }
+    }
+
+    private void forget(Long couponId) {
+        Tracked previous = tracked.remove(couponId);
+        if (previous != null) {
+            members.get(previous.status).remove(couponId);
+            if (previous.status == Status.ACTIVE) {
+                activeListeners.forEach(l -> l.couponDeactivated(couponId));
+            }
+        }
+        views.remove(couponId);
+    }
+
+    // validUntil é inclusivo, como em CouponSnapshot.isValidAt
+    private static Status statusAt(long validFromMillis, long validUntilMillis, long nowMillis) {
+        if (nowMillis < validFromMillis) {
+            return Status.PENDING;
+        }
+        return nowMillis <= validUntilMillis ? Status.ACTIVE : Status.EXPIRED;
+    }
+
+    private static long millis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static CouponResponseDTO copyOf(CouponResponseDTO v) {
+        return new CouponResponseDTO(v.getId(), v.getCode(), v.getType(), v.getValue(), v.getOneShot(),
+                v.getValidFrom(), v.getValidUntil(), v.getCreatedAt(), v.getUpdatedAt(),
+                v.getMaxRedemptions(), v.getMaxRedemptionsPerUser(), v.getRedemptionCount(), v.getBatchId());
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.price_wise_fullstack.service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import com.example.price_wise_fullstack.model.Coupon;
+import com.example.price_wise_fullstack.repository.CouponRepository;
+
+/**
+ * Coupons by normalized code, so checkout and apply paths resolve a coupon
+ * with a map lookup instead of a lower(code) query. Loaded at startup and
+ * kept current by {@link CouponChangeTracker}, which publishes changes on
+ * commit; a transaction also finds the coupons it wrote itself. Until the
+ * initial load finishes lookups go to the database.
+ */
+@Component
+public class CouponRegistry implements CouponChangeSubscriber {
+
+    private final Map<String, CouponSnapshot> byCode = new ConcurrentHashMap<>();
+    private final Map<Long, String> codeById = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    @Autowired
+    private ObjectProvider<CouponRepository> couponRepository;
+
+    @Autowired
+    @Lazy
+    private CouponChangeTracker changeTracker;
+
+    public Optional<CouponSnapshot> find(String code) {
+        if (code == null) {
+            return Optional.empty();
+        }
+        String normalized = normalize(code);
+        if (!ready) {
+            return couponRepository.getObject().findByCodeIgnoreCase(normalized).map(CouponSnapshot::of);
+        }
+        Map<Long, Coupon> own = changeTracker.ownChanges();
+        for (Coupon coupon : own.values()) {
+            if (coupon != null && normalize(coupon.getCode()).equals(normalized)) {
+                return Optional.of(CouponSnapshot.of(coupon));
+            }
+        }
+        // Alterado ou removido pela própria transação: a versão publicada já não vale para ela
+        CouponSnapshot snapshot = byCode.get(normalized);
+        return snapshot != null && own.containsKey(snapshot.id()) ? Optional.empty() : Optional.ofNullable(snapshot);
+    }
+
+    @Override
+    public synchronized void couponSaved(Coupon coupon) {
+        CouponSnapshot snapshot = CouponSnapshot.of(coupon);
+        String previousCode = codeById.put(snapshot.id(), snapshot.code());
+        if (previousCode != null && !previousCode.equals(snapshot.code())) {
+            byCode.remove(previousCode);
+        }
+        byCode.put(snapshot.code(), snapshot);
+    }
+
+    @Override
+    public synchronized void couponRemoved(Long couponId) {
+        String code = codeById.remove(couponId);
+        if (code != null) {
+            byCode.remove(code);
+        }
+    }
+
+    @Override
+    public void couponsLoaded() {
+        ready = true;
+    }
+
+    static String normalize(String code) {
+        return code.trim().toLowerCase();
+    }
+}
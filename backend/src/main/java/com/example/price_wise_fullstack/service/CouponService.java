@@ -2,15 +2,25 @@ package com.example.price_wise_fullstack.service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import com.example.price_wise_fullstack.dto.CouponRequestDTO;
 import com.example.price_wise_fullstack.dto.CouponResponseDTO;
+import com.example.price_wise_fullstack.dto.CouponStatsDTO;
+import com.example.price_wise_fullstack.dto.CursorPageResponseDTO;
 import com.example.price_wise_fullstack.dto.DiscountedProductDTO;
 import com.example.price_wise_fullstack.mapper.CouponMapper;
 import com.example.price_wise_fullstack.model.Coupon;
@@ -20,6 +30,23 @@ import com.example.price_wise_fullstack.repository.ProductRepository;
 
 @Service
 public class CouponService {
+    // Campos aceitos na paginação por cursor: tipo do valor e como extraí-lo da última linha
+    private static final Map<String, Class<? extends Comparable<?>>> KEYSET_FIELD_TYPES = Map.of(
+        "id", Long.class,
+        "code", String.class,
+        "validFrom", LocalDateTime.class,
+        "validUntil", LocalDateTime.class,
+        "createdAt", LocalDateTime.class
+    );
+    private static final Map<String, Function<CouponResponseDTO, Object>> KEYSET_FIELD_VALUES = Map.of(
+        "id", CouponResponseDTO::getId,
+        "code", CouponResponseDTO::getCode,
+        "validFrom", CouponResponseDTO::getValidFrom,
+        "validUntil", CouponResponseDTO::getValidUntil,
+        "createdAt", CouponResponseDTO::getCreatedAt
+    );
+    // Teto da listagem sem cursor, mantida só para clientes antigos
+    static final int UNPAGED_LIMIT = 1000;
 
     @Autowired
     private CouponRepository couponRepository;
@@ -27,10 +54,26 @@ public class CouponService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private CouponRegistry couponRegistry;
+
+    @Autowired
+    private CouponLifecycle couponLifecycle;
+
+    @Autowired
+    private CouponCodeFilter codeFilter;
+
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    @Autowired
+    private CouponUsageLimiter usageLimiter;
+
+    @Transactional
     public CouponResponseDTO createCoupon(CouponRequestDTO dto) {
         String normalizedCode = dto.getCode().trim().toLowerCase();
 
-        if (couponRepository.existsByCodeIgnoreCase(normalizedCode)) {
+        if (codeFilter.mightExist(normalizedCode) && couponRepository.existsByCodeIgnoreCase(normalizedCode)) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Código já existe");
         }
 
@@ -41,17 +84,93 @@ public class CouponService {
         Coupon coupon = CouponMapper.toEntity(dto);
         @SuppressWarnings("null")
         Coupon saved = couponRepository.save(coupon);
+        // Fatias do limite gravadas junto com o cupom
+        if (saved.getMaxRedemptions() != null) {
+            usageLimiter.createStripes(saved);
+        }
         return CouponMapper.toDTO(saved);
     }
 
+    /**
+     * Deprecated unpaged listing: the newest {@link #UNPAGED_LIMIT} coupons in
+     * id order. Clients should page with {@link #listKeyset} and read the
+     * counts from {@link #stats}.
+     */
+    @Transactional(readOnly = true)
     public List<CouponResponseDTO> listAll() {
-        return couponRepository.findAll()
-                .stream()
-                .map(CouponMapper::toDTO)
-                .toList();
+        List<CouponResponseDTO> coupons = new ArrayList<>(
+                couponRepository.findProjected(null, Sort.by(Sort.Direction.DESC, "id"), UNPAGED_LIMIT));
+        Collections.reverse(coupons);
+        return coupons;
+    }
+
+    // Contagens servidas da memória pelo CouponLifecycle, sem carregar cupons
+    public CouponStatsDTO stats() {
+        long pending = couponLifecycle.count(CouponLifecycle.Status.PENDING);
+        long active = couponLifecycle.count(CouponLifecycle.Status.ACTIVE);
+        long expired = couponLifecycle.count(CouponLifecycle.Status.EXPIRED);
+        return new CouponStatsDTO(pending + active + expired, active, pending, expired);
+    }
+
+    public CursorPageResponseDTO<CouponResponseDTO> listKeyset(
+        String type,
+        Boolean oneShot,
+        LocalDateTime activeAt,
+        String codePrefix,
+        int limit,
+        String sortBy,
+        String sortOrder,
+        String cursor,
+        boolean includeTotal
+    ) {
+        if (limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be at least 1");
+        }
+
+        String validSortBy = sortBy != null ? sortBy : "id";
+        Class<? extends Comparable<?>> valueType = KEYSET_FIELD_TYPES.get(validSortBy);
+        if (valueType == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Sort field not supported for cursor pagination");
+        }
+        Sort.Direction direction = Sort.Direction.fromString(sortOrder != null ? sortOrder : "asc");
+
+        Specification<Coupon> filter = CouponSpecification.filterBy(type, oneShot, activeAt, codePrefix);
+        Specification<Coupon> spec = filter;
+        if (cursor != null && !cursor.isBlank()) {
+            spec = spec.and(KeysetCursor.decode(cursor, validSortBy, direction).seek(valueType));
+        }
+
+        // Busca uma linha extra para saber se existe próxima página sem precisar de count
+        Sort sort = KeysetCursor.sort(validSortBy, direction);
+        List<CouponResponseDTO> rows = couponRepository.findProjected(spec, sort, limit + 1);
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            CouponResponseDTO last = rows.get(limit - 1);
+            Object lastValue = KEYSET_FIELD_VALUES.get(validSortBy).apply(last);
+            nextCursor = new KeysetCursor(validSortBy, direction, last.getId(), lastValue).encode();
+        }
+
+        Long totalItems = includeTotal ? couponRepository.count(filter) : null;
+        return new CursorPageResponseDTO<>(rows, limit, nextCursor, totalItems);
+    }
+
+    // Servido da memória pelo CouponLifecycle; cupons excluídos não aparecem em nenhum status
+    public List<CouponResponseDTO> listByStatus(String status) {
+        CouponLifecycle.Status parsed;
+        try {
+            parsed = CouponLifecycle.Status.valueOf(status.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Status inválido: use active, pending ou expired");
+        }
+        return couponLifecycle.list(parsed);
     }
 
     public CouponResponseDTO getByCode(String code) {
+        if (!codeFilter.mightExist(code)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Cupom não encontrado");
+        }
         Coupon coupon = couponRepository.findByCodeIgnoreCase(code)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Cupom não encontrado"));
         return CouponMapper.toDTO(coupon);
@@ -62,27 +181,50 @@ public class CouponService {
         Product product = productRepository.findById(productId)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Produto não encontrado"));
 
-        Coupon coupon = couponRepository.findByCodeIgnoreCase(couponCode.trim().toLowerCase())
+        return discounted(product, activeCoupon(couponCode));
+    }
+
+    // Um cupom, uma consulta de produtos e um único passe de cálculo; resposta na ordem dos ids pedidos
+    public List<DiscountedProductDTO> applyCouponToProducts(List<Long> productIds, String couponCode) {
+        CouponSnapshot coupon = activeCoupon(couponCode);
+
+        List<Long> distinctIds = productIds.stream().distinct().toList();
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productRepository.findAllById(distinctIds)) {
+            products.put(product.getId(), product);
+        }
+        if (products.size() != distinctIds.size()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Produto não encontrado");
+        }
+
+        List<DiscountedProductDTO> result = new ArrayList<>(productIds.size());
+        for (Long id : productIds) {
+            result.add(discounted(products.get(id), coupon));
+        }
+        return result;
+    }
+
+    private CouponSnapshot activeCoupon(String couponCode) {
+        CouponSnapshot coupon = couponRegistry.find(couponCode)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Cupom não encontrado"));
 
-        LocalDateTime now = LocalDateTime.now();
-        if (coupon.getDeletedAt() != null || now.isBefore(coupon.getValidFrom()) || now.isAfter(coupon.getValidUntil())) {
+        if (!couponLifecycle.isActive(coupon)) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cupom inválido ou expirado");
         }
+        return coupon;
+    }
 
-        BigDecimal discount = coupon.getType().equals("percent")
-            ? product.getPrice().multiply(coupon.getDiscountValue()).divide(BigDecimal.valueOf(100))
-            : coupon.getDiscountValue();
-
-        BigDecimal finalPrice = product.getPrice().subtract(discount).max(BigDecimal.ZERO);
+    private DiscountedProductDTO discounted(Product product, CouponSnapshot coupon) {
+        BigDecimal finalPrice = Money.toDecimal(pricingEngine.price(List.of(PricingLine.of(product, 1)), coupon).total());
 
         DiscountedProductDTO dto = new DiscountedProductDTO();
+        dto.setProductId(product.getId());
         dto.setName(product.getName());
         dto.setOriginalPrice(product.getPrice());
         dto.setDiscountedPrice(finalPrice);
-        dto.setCouponCode(coupon.getCode());
-        dto.setDiscountType(coupon.getType());
-        dto.setDiscountValue(coupon.getDiscountValue());
+        dto.setCouponCode(coupon.code());
+        dto.setDiscountType(coupon.type());
+        dto.setDiscountValue(coupon.discountValue());
 
         return dto;
     }
@@ -0,0 +1,52 @@
+package com.example.price_wise_fullstack.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.example.price_wise_fullstack.model.Coupon;
+
+/**
+ * Immutable copy of a coupon held by {@link CouponRegistry}. Whether the
+ * coupon is currently usable is tracked by {@link CouponLifecycle}.
+ */
+public record CouponSnapshot(
+    Long id,
+    String code,
+    String type,
+    BigDecimal discountValue,
+    boolean oneShot,
+    LocalDateTime validFrom,
+    LocalDateTime validUntil,
+    boolean deleted,
+    Integer maxRedemptions,
+    Integer maxRedemptionsPerUser
+) {
+
+    public static CouponSnapshot of(Coupon coupon) {
+        return new CouponSnapshot(
+            coupon.getId(),
+            coupon.getCode().toLowerCase(),
+            coupon.getType(),
+            coupon.getDiscountValue(),
+            Boolean.TRUE.equals(coupon.getOneShot()),
+            coupon.getValidFrom(),
+            coupon.getValidUntil(),
+            coupon.getDeletedAt() != null,
+            coupon.getMaxRedemptions(),
+            coupon.getMaxRedemptionsPerUser()
+        );
+    }
+
+    public boolean isPercent() {
+        return "percent".equals(type);
+    }
+
+    public boolean isUsageLimited() {
+        return maxRedemptions != null || maxRedemptionsPerUser != null;
+    }
+
+    // Janela com hora exata; nos caminhos quentes vale CouponLifecycle.isActive
+    public boolean isValidAt(LocalDateTime now) {
+        return !deleted && !now.isBefore(validFrom) && !now.isAfter(validUntil);
+    }
+}
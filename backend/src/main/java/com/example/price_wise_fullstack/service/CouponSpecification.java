@@ -0,0 +1,43 @@
+package com.example.price_wise_fullstack.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import jakarta.persistence.criteria.Predicate;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.price_wise_fullstack.model.Coupon;
+
+public class CouponSpecification {
+    public static Specification<Coupon> filterBy(String type, Boolean oneShot, LocalDateTime activeAt, String codePrefix) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.isNull(root.get("deletedAt")));
+
+            if (type != null && !type.isBlank()) {
+                predicates.add(cb.equal(root.get("type"), type.trim().toLowerCase()));
+            }
+
+            if (oneShot != null) {
+                predicates.add(cb.equal(root.get("oneShot"), oneShot));
+            }
+
+            if (activeAt != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("validFrom"), activeAt));
+                predicates.add(cb.greaterThanOrEqualTo(root.get("validUntil"), activeAt));
+            }
+
+            // Códigos são gravados em minúsculas, então o LIKE de prefixo usa o índice de code
+            if (codePrefix != null && !codePrefix.isBlank()) {
+                String escaped = codePrefix.trim().toLowerCase()
+                        .replace("\\", "\\\\")
+                        .replace("%", "\\%")
+                        .replace("_", "\\_");
+                predicates.add(cb.like(root.get("code"), escaped + "%", '\\'));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
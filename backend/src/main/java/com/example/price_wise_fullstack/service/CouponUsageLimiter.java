@@ -0,0 +1,267 @@
+package com.example.price_wise_fullstack.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.price_wise_fullstack.model.Coupon;
+import com.example.price_wise_fullstack.model.CouponRedemptionStripe;
+import com.example.price_wise_fullstack.model.CouponUserRedemption;
+import com.example.price_wise_fullstack.repository.CouponRedemptionStripeRepository;
+import com.example.price_wise_fullstack.repository.CouponRepository;
+import com.example.price_wise_fullstack.repository.CouponUserRedemptionRepository;
+
+/**
+ * Enforces maxRedemptions / maxRedemptionsPerUser. A checkout first reserves
+ * a slot on an in-memory atomic counter, so once a coupon is exhausted the
+ * surplus is rejected without touching the database.
+ *
+ * The reservation is then confirmed at the end of the order transaction on
+ * one of {@link #STRIPES} rows of coupon_redemption_stripes, created with
+ * the coupon (or at startup for older coupons). The cap is
+ * split between them as quotas, so concurrent checkouts lock different rows
+ * instead of all queueing on the coupon row. A stripe is claimed with a
+ * conditional UPDATE (used &lt; quota). When the chosen stripe is full the
+ * claim overflows to the ones that still have room. The database stays the
+ * authority: the quotas add up to the cap, so no interleaving of instances
+ * goes past it. Only a coupon without stripes still takes the conditional
+ * UPDATE on its own row. The coupon's redemptionCount is the sum of its stripes,
+ * copied by {@link #reconcile} on a fixed delay, which also re-splits the
+ * quotas of coupons whose cap changed. It only looks at coupons this
+ * instance redeemed or saved since the last run; every limited coupon is
+ * checked once after startup. Reservations are released when the
+ * transaction rolls back.
+ */
+@Component
+public class CouponUsageLimiter implements CouponChangeSubscriber {
+
+    static final String LIMIT_REACHED = "Coupon redemption limit reached";
+    static final int STRIPES = 16;
+    // Tamanho dos blocos de ids na reconciliação, para limitar a lista do IN
+    private static final int RECONCILE_BATCH_SIZE = 500;
+
+    // Resgates confirmados ou em andamento por cupom nesta instância
+    private final Map<Long, AtomicInteger> reserved = new ConcurrentHashMap<>();
+    // Cupons com resgate ou gravação confirmados desde a última reconciliação
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private CouponUserRedemptionRepository userRedemptionRepository;
+
+    @Autowired
+    private CouponLifecycle couponLifecycle;
+
+    @Autowired
+    private CouponRedemptionStripeRepository stripeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    public void reserve(CouponSnapshot coupon) {
+        Integer max = coupon.maxRedemptions();
+        if (max == null) {
+            return;
+        }
+        AtomicInteger counter = reserved.computeIfAbsent(coupon.id(), id -> new AtomicInteger(redemptions(id)));
+        int current;
+        do {
+            current = counter.get();
+            if (current >= max) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, LIMIT_REACHED);
+            }
+        } while (!counter.compareAndSet(current, current + 1));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        counter.decrementAndGet();
+                    }
+                }
+            });
+        }
+    }
+
+    // Deve ser chamado no fim da transação do pedido, depois dos inserts
+    public void claim(CouponSnapshot coupon, String userKey) {
+        if (coupon.maxRedemptions() != null) {
+            if (!claimStripe(coupon.id())) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, LIMIT_REACHED);
+            }
+            afterCommit(() -> {
+                dirty.add(coupon.id());
+                couponLifecycle.redeemed(coupon.id());
+            });
+        }
+
+        Integer maxPerUser = coupon.maxRedemptionsPerUser();
+        if (maxPerUser == null) {
+            return;
+        }
+        if (userKey == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Coupon requires an authenticated user");
+        }
+        if (userRedemptionRepository.increment(coupon.id(), userKey, maxPerUser) > 0) {
+            return;
+        }
+        if (userRedemptionRepository.existsByCouponIdAndUserKey(coupon.id(), userKey)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, LIMIT_REACHED);
+        }
+
+        // Primeiro resgate deste usuário: a unique (coupon_id, user_key) barra um pedido simultâneo
+        CouponUserRedemption first = new CouponUserRedemption();
+        first.setCoupon(couponRepository.getReferenceById(coupon.id()));
+        first.setUserKey(userKey);
+        first.setRedemptionCount(1);
+        try {
+            userRedemptionRepository.saveAndFlush(first);
+        } catch (DataIntegrityViolationException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Concurrent redemption of this coupon, please retry");
+        }
+    }
+
+    // Uma fatia sorteada; cheia, tenta as que ainda têm saldo
+    private boolean claimStripe(Long couponId) {
+        if (stripeRepository.claim(couponId, ThreadLocalRandom.current().nextInt(STRIPES)) > 0) {
+            return true;
+        }
+        List<Integer> withRoom = stripeRepository.findStripesWithRoom(couponId);
+        for (int stripe : withRoom) {
+            if (stripeRepository.claim(couponId, stripe) > 0) {
+                return true;
+            }
+        }
+        // Cupom gravado fora do CouponService e ainda sem fatias: a linha do cupom decide
+        return withRoom.isEmpty() && !stripeRepository.existsByCouponId(couponId)
+                && couponRepository.incrementRedemptions(couponId) > 0;
+    }
+
+    private int redemptions(Long couponId) {
+        Integer striped = stripeRepository.sumUsed(couponId);
+        return striped != null ? striped : couponRepository.findRedemptionCount(couponId);
+    }
+
+    // Na transação que grava o cupom; as fatias partem do redemptionCount atual
+    public void createStripes(Coupon coupon) {
+        int used = coupon.getRedemptionCount() != null ? coupon.getRedemptionCount() : 0;
+        List<CouponRedemptionStripe> stripes = new ArrayList<>(STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            CouponRedemptionStripe stripe = new CouponRedemptionStripe();
+            stripe.setCoupon(coupon);
+            stripe.setStripe(i);
+            stripe.setUsed(i == 0 ? used : 0);
+            stripes.add(stripe);
+        }
+        split(stripes, coupon.getMaxRedemptions());
+        stripeRepository.saveAll(stripes);
+    }
+
+    // Cupons com limite anteriores às fatias: divididos na subida, um por transação
+    @Override
+    public void couponsLoaded() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        for (Long couponId : stripeRepository.findLimitedCouponsWithoutStripes()) {
+            try {
+                tx.executeWithoutResult(status -> {
+                    Coupon coupon = couponRepository.lockById(couponId);
+                    if (!stripeRepository.existsByCouponId(couponId)) {
+                        createStripes(coupon);
+                        stripeRepository.flush();
+                    }
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Outra instância dividiu primeiro
+            }
+        }
+    }
+
+    // Saldo restante dividido por igual; cada fatia mantém o que já usou
+    private static void split(List<CouponRedemptionStripe> stripes, Integer max) {
+        int used = stripes.stream().mapToInt(CouponRedemptionStripe::getUsed).sum();
+        int left = Math.max(0, (max != null ? max : 0) - used);
+        for (int i = 0; i < stripes.size(); i++) {
+            CouponRedemptionStripe stripe = stripes.get(i);
+            stripe.setQuota(stripe.getUsed() + left / stripes.size() + (i < left % stripes.size() ? 1 : 0));
+        }
+    }
+
+    /**
+     * Periodic check: copies the stripe sums into coupons.redemption_count
+     * and re-splits the quotas of coupons whose cap was changed, for the
+     * coupons marked since the last run. Only this job writes the coupon row
+     * for redemptions.
+     */
+    @Scheduled(fixedDelayString = "${pricewise.coupons.redemptions.reconcile-interval:5s}")
+    public void reconcile() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        // Retirados antes de ler as fatias: uma marca nova entra na próxima rodada
+        List<Long> pending = new ArrayList<>(dirty);
+        dirty.removeAll(pending);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        for (int from = 0; from < pending.size(); from += RECONCILE_BATCH_SIZE) {
+            List<Long> batch = pending.subList(from, Math.min(from + RECONCILE_BATCH_SIZE, pending.size()));
+            try {
+                tx.executeWithoutResult(status -> {
+                    for (Long couponId : stripeRepository.findCouponsWithStaleQuotas(batch)) {
+                        List<CouponRedemptionStripe> stripes = stripeRepository.lockByCouponId(couponId);
+                        split(stripes, stripes.get(0).getCoupon().getMaxRedemptions());
+                        reserved.remove(couponId);
+                    }
+                    stripeRepository.reconcileCounts(batch);
+                });
+            } catch (RuntimeException e) {
+                dirty.addAll(pending.subList(from, pending.size()));
+                throw e;
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // Também chamado para cada cupom na carga inicial, o que dá a primeira rodada completa
+    @Override
+    public void couponSaved(Coupon coupon) {
+        if (coupon.getMaxRedemptions() != null) {
+            dirty.add(coupon.getId());
+        }
+    }
+
+    @Override
+    public void couponRemoved(Long couponId) {
+        reserved.remove(couponId);
+        dirty.remove(couponId);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.price_wise_fullstack.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel (Varghese &amp; Lauck): four levels of 64 slots,
+ * each level 64 times coarser than the one below. A timer sits in the level
+ * given by the highest tick bit group in which its deadline differs from the
+ * current tick, and is cascaded one level down whenever the wheel enters its
+ * slot, so scheduling is O(1) and each timer is moved at most once per level.
+ * Deadlines beyond the top level wait in an overflow list that is re-placed
+ * when the top level wraps. Not thread-safe; callers synchronize.
+ */
+final class HierarchicalTimingWheel<T> {
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+
+    private record Timer<T>(T item, long deadlineTick) {}
+
+    private final long tickMillis;
+    private final List<List<Timer<T>>> slots = new ArrayList<>(LEVELS * WHEEL_SIZE);
+    private List<Timer<T>> overflow = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    HierarchicalTimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+        for (int i = 0; i < LEVELS * WHEEL_SIZE; i++) {
+            slots.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Schedules {@code item} for the first tick at or after {@code deadlineMillis}.
+     * Returns false, without scheduling, when that tick has already been reached.
+     */
+    boolean schedule(T item, long deadlineMillis) {
+        long deadlineTick = Math.ceilDiv(deadlineMillis, tickMillis);
+        if (deadlineTick <= currentTick) {
+            return false;
+        }
+        place(new Timer<>(item, deadlineTick));
+        size++;
+        return true;
+    }
+
+    /**
+     * Advances the wheel up to {@code nowMillis} and returns the items whose
+     * deadline was reached, in deadline order.
+     */
+    List<T> advance(long nowMillis) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        List<T> due = new ArrayList<>();
+        while (currentTick < targetTick) {
+            if (size == 0) {
+                currentTick = targetTick;
+                break;
+            }
+            currentTick++;
+            cascade();
+            List<Timer<T>> slot = slots.get((int) (currentTick & WHEEL_MASK));
+            for (Timer<T> timer : slot) {
+                due.add(timer.item());
+            }
+            size -= slot.size();
+            slot.clear();
+        }
+        return due;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long currentMillis() {
+        return currentTick * tickMillis;
+    }
+
+    // Ao entrar num novo slot de um nível, redistribui os timers dele nos níveis de baixo
+    private void cascade() {
+        if ((currentTick & ((1L << (WHEEL_BITS * LEVELS)) - 1)) == 0 && !overflow.isEmpty()) {
+            List<Timer<T>> pending = overflow;
+            overflow = new ArrayList<>();
+            pending.forEach(this::place);
+        }
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) != 0) {
+                continue;
+            }
+            int index = (int) ((currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+            List<Timer<T>> slot = slots.get(level * WHEEL_SIZE + index);
+            if (slot.isEmpty()) {
+                continue;
+            }
+            List<Timer<T>> moved = new ArrayList<>(slot);
+            slot.clear();
+            moved.forEach(this::place);
+        }
+    }
+
+    private void place(Timer<T> timer) {
+        long diff = timer.deadlineTick() ^ currentTick;
+        int level = diff == 0 ? 0 : (63 - Long.numberOfLeadingZeros(diff)) / WHEEL_BITS;
+        if (level >= LEVELS) {
+            overflow.add(timer);
+            return;
+        }
+        int index = (int) ((timer.deadlineTick() >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+        slots.get(level * WHEEL_SIZE + index).add(timer);
+    }
+}
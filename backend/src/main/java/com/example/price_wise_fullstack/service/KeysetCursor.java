@@ -0,0 +1,113 @@
+package com.example.price_wise_fullstack.service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+
+/**
+ * Opaque position of the last row of a keyset page: the value of the sort
+ * field plus the id used as tie-breaker.
+ */
+public class KeysetCursor {
+    private final String sortBy;
+    private final Sort.Direction direction;
+    private final Long id;
+    private final String value;
+
+    public KeysetCursor(String sortBy, Sort.Direction direction, Long id, Object value) {
+        this.sortBy = sortBy;
+        this.direction = direction;
+        this.id = id;
+        this.value = value instanceof BigDecimal decimal ? decimal.toPlainString() : String.valueOf(value);
+    }
+
+    public String encode() {
+        String raw = sortBy + "\n" + direction.name() + "\n" + id + "\n" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token, String expectedSortBy, Sort.Direction expectedDirection) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\n", 4);
+            KeysetCursor cursor = new KeysetCursor(parts[0], Sort.Direction.valueOf(parts[1]), Long.valueOf(parts[2]), parts[3]);
+            if (!cursor.sortBy.equals(expectedSortBy) || cursor.direction != expectedDirection) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor does not match the requested sort");
+            }
+            return cursor;
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    public static Sort sort(String sortBy, Sort.Direction direction) {
+        Sort sort = Sort.by(direction, sortBy);
+        return "id".equals(sortBy) ? sort : sort.and(Sort.by(direction, "id"));
+    }
+
+    /**
+     * Seek predicate: rows strictly after this cursor in (sortBy, id) order.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public <T> Specification<T> seek(Class<? extends Comparable> valueType) {
+        boolean asc = direction.isAscending();
+        Comparable typedValue;
+        try {
+            typedValue = parse(valueType);
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+        return (root, query, cb) -> {
+            Expression<Long> idPath = root.get("id");
+            Predicate afterId = asc ? cb.greaterThan(idPath, id) : cb.lessThan(idPath, id);
+            if ("id".equals(sortBy)) {
+                return afterId;
+            }
+            Expression field = root.get(sortBy);
+            Predicate beyond = asc ? cb.greaterThan(field, typedValue) : cb.lessThan(field, typedValue);
+            return cb.or(beyond, cb.and(cb.equal(field, typedValue), afterId));
+        };
+    }
+
+    /**
+     * In-memory counterpart of {@link #seek}: whether a row with this sort
+     * value and id comes strictly after the cursor. Null values sort first.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public boolean precedes(Comparable rowValue, Long rowId, Class<? extends Comparable> valueType) {
+        int c;
+        if ("id".equals(sortBy)) {
+            c = 0;
+        } else {
+            Comparable typedValue;
+            try {
+                typedValue = parse(valueType);
+            } catch (RuntimeException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+            c = rowValue == null ? -1 : rowValue.compareTo(typedValue);
+        }
+        if (c == 0) {
+            c = rowId.compareTo(id);
+        }
+        return direction.isAscending() ? c > 0 : c < 0;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private Comparable parse(Class<? extends Comparable> type) {
+        if (type == Long.class) return Long.valueOf(value);
+        if (type == Integer.class) return Integer.valueOf(value);
+        if (type == BigDecimal.class) return new BigDecimal(value);
+        if (type == LocalDateTime.class) return LocalDateTime.parse(value);
+        return value;
+    }
+}
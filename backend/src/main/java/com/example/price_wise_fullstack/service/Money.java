@@ -0,0 +1,77 @@
+package com.example.price_wise_fullstack.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money arithmetic on long cents. Pricing works on primitive longs end to
+ * end and converts to BigDecimal only when it reads an entity or fills a
+ * DTO. Every operation that can lose a fraction of a cent takes an explicit
+ * {@link RoundingMode}; overflow throws instead of wrapping.
+ * <p>
+ * Percentages are carried as basis points (1/100 of a percent), so a 12.5%
+ * rate is 1250 and applies exactly.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    // Percentuais e descontos arredondam meio centavo para cima
+    public static final RoundingMode ROUNDING = RoundingMode.HALF_UP;
+
+    private static final long BASIS_POINTS = 10_000;
+
+    private Money() {
+    }
+
+    public static long toCents(BigDecimal amount) {
+        return toCents(amount, ROUNDING);
+    }
+
+    public static long toCents(BigDecimal amount, RoundingMode rounding) {
+        return amount.movePointRight(SCALE).setScale(0, rounding).longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    public static long toBasisPoints(BigDecimal percent) {
+        return percent.movePointRight(2).setScale(0, ROUNDING).longValueExact();
+    }
+
+    public static long times(long cents, int quantity) {
+        return Math.multiplyExact(cents, quantity);
+    }
+
+    public static long percentOf(long cents, long basisPoints) {
+        return percentOf(cents, basisPoints, ROUNDING);
+    }
+
+    public static long percentOf(long cents, long basisPoints, RoundingMode rounding) {
+        return divide(Math.multiplyExact(cents, basisPoints), BASIS_POINTS, rounding);
+    }
+
+    // Divisão inteira com o mesmo critério de BigDecimal.setScale(0, rounding)
+    static long divide(long dividend, long divisor, RoundingMode rounding) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        int sign = (dividend < 0) == (divisor < 0) ? 1 : -1;
+        long twiceRemainder = Math.abs(remainder) * 2;
+        long absDivisor = Math.abs(divisor);
+        boolean awayFromZero = switch (rounding) {
+            case DOWN -> false;
+            case UP -> true;
+            case FLOOR -> sign < 0;
+            case CEILING -> sign > 0;
+            case HALF_UP -> twiceRemainder >= absDivisor;
+            case HALF_DOWN -> twiceRemainder > absDivisor;
+            case HALF_EVEN -> twiceRemainder > absDivisor || (twiceRemainder == absDivisor && (quotient & 1) != 0);
+            case UNNECESSARY -> throw new ArithmeticException("Rounding necessary");
+        };
+        return awayFromZero ? quotient + sign : quotient;
+    }
+}
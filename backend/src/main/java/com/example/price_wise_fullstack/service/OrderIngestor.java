@@ -0,0 +1,210 @@
+package com.example.price_wise_fullstack.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.price_wise_fullstack.dto.OrderRequestDTO;
+import com.example.price_wise_fullstack.dto.OrderSummaryDTO;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Group commit for order placement. Orders are priced on the caller's
+ * thread, in a read-only transaction that returns its connection before
+ * the order is put on a bounded queue; one writer thread takes up to
+ * {@code max-batch} of them, waiting at most {@code max-wait} after the
+ * first, and saves them in a single transaction with batched inserts. Each
+ * caller gets its own summary or its own error: when a batch fails, its
+ * orders are written again one per transaction. A full queue is refused
+ * with 503 instead of piling up requests.
+ *
+ * Orders that claim a coupon (one-shot or usage-limited) take the regular
+ * per-order transaction, since the claim locks the coupon row.
+ */
+@Component
+@ConditionalOnProperty(name = "pricewise.orders.ingest.enabled", havingValue = "true")
+@Slf4j
+public class OrderIngestor {
+
+    private record Pending(OrderService.PricedOrder order, CompletableFuture<OrderSummaryDTO> result, long enqueuedAt) {}
+
+    private final BlockingQueue<Pending> queue;
+    private final int maxBatch;
+    private final long maxWaitNanos;
+
+    private final DistributionSummary batchSize;
+    private final Timer queueWait;
+    private final Counter rejected;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    @Autowired
+    private OrderService orderService;
+
+    public OrderIngestor(
+        @Value("${pricewise.orders.ingest.capacity:10000}") int capacity,
+        @Value("${pricewise.orders.ingest.max-batch:200}") int maxBatch,
+        @Value("${pricewise.orders.ingest.max-wait:5ms}") Duration maxWait,
+        MeterRegistry meterRegistry
+    ) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatch = maxBatch;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.batchSize = DistributionSummary.builder("orders.ingest.batch.size")
+                .description("Orders committed per transaction")
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("orders.ingest.queue.wait")
+                .description("Time an order waited in the queue before its batch started")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("orders.ingest.rejected")
+                .description("Orders refused because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("orders.ingest.queue.size", queue, BlockingQueue::size)
+                .description("Orders waiting for the writer")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        writer = new Thread(this::run, "order-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Bloqueia a thread da requisição. Não segura conexão do pool enquanto espera: prepare() devolve a
+    // sua ao terminar e spring.jpa.open-in-view=false impede que a requisição mantenha outra aberta
+    public OrderSummaryDTO place(OrderRequestDTO dto, String userKey) {
+        try {
+            return submit(dto, userKey).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    public CompletableFuture<OrderSummaryDTO> submit(OrderRequestDTO dto, String userKey) {
+        OrderService.PricedOrder priced = orderService.prepare(dto);
+        if (priced.claimsCoupon()) {
+            return CompletableFuture.completedFuture(orderService.save(priced, userKey));
+        }
+        OrderService.requirePayable(priced);
+
+        CompletableFuture<OrderSummaryDTO> result = new CompletableFuture<>();
+        if ((writer != null && !running) || !queue.offer(new Pending(priced, result, System.nanoTime()))) {
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Order queue is full, try again shortly");
+        }
+        return result;
+    }
+
+    private void run() {
+        // Depois da parada ainda esvazia a fila, para nenhum pedido aceito ficar sem resposta
+        while (running || !queue.isEmpty()) {
+            try {
+                writeBatch(TimeUnit.MILLISECONDS.toNanos(100));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Order writer failed", e);
+            }
+        }
+    }
+
+    /**
+     * Waits up to {@code pollNanos} for an order, gathers the batch that
+     * follows it and writes it. Returns the number of orders written.
+     */
+    int writeBatch(long pollNanos) throws InterruptedException {
+        Pending first = queue.poll(pollNanos, TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return 0;
+        }
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        batch.add(first);
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (batch.size() < maxBatch) {
+            if (queue.drainTo(batch, maxBatch - batch.size()) > 0) {
+                continue;
+            }
+            long left = deadline - System.nanoTime();
+            Pending next = left > 0 ? queue.poll(left, TimeUnit.NANOSECONDS) : null;
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        write(batch);
+        return batch.size();
+    }
+
+    private void write(List<Pending> batch) {
+        long now = System.nanoTime();
+        for (Pending pending : batch) {
+            queueWait.record(now - pending.enqueuedAt(), TimeUnit.NANOSECONDS);
+        }
+        batchSize.record(batch.size());
+
+        List<OrderSummaryDTO> saved;
+        try {
+            saved = orderService.saveBatch(batch.stream().map(Pending::order).toList());
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result().completeExceptionally(translate(e));
+                return;
+            }
+            // Um pedido inválido não derruba os outros: cada um vai na sua transação
+            log.warn("Order batch of {} failed, writing its orders one by one", batch.size(), e);
+            batch.forEach(this::writeAlone);
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result().complete(saved.get(i));
+        }
+    }
+
+    private void writeAlone(Pending pending) {
+        try {
+            pending.result().complete(orderService.saveBatch(List.of(pending.order())).get(0));
+        } catch (RuntimeException e) {
+            pending.result().completeExceptionally(translate(e));
+        }
+    }
+
+    private static RuntimeException translate(RuntimeException e) {
+        if (e instanceof DataIntegrityViolationException) {
+            return new ResponseStatusException(HttpStatus.CONFLICT, "A product in the order is no longer available");
+        }
+        return e;
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+}
@@ -1,26 +1,41 @@
 package com.example.price_wise_fullstack.service;
 
+import com.example.price_wise_fullstack.dto.CursorPageResponseDTO;
 import com.example.price_wise_fullstack.dto.OrderRequestDTO;
+import com.example.price_wise_fullstack.dto.OrderStatsDTO;
 import com.example.price_wise_fullstack.dto.OrderSummaryDTO;
-import com.example.price_wise_fullstack.model.Coupon;
+import com.example.price_wise_fullstack.model.CouponRedemption;
 import com.example.price_wise_fullstack.model.Order;
 import com.example.price_wise_fullstack.model.OrderItem;
 import com.example.price_wise_fullstack.model.Product;
+import com.example.price_wise_fullstack.repository.CouponRedemptionRepository;
 import com.example.price_wise_fullstack.repository.CouponRepository;
 import com.example.price_wise_fullstack.repository.OrderRepository;
 import com.example.price_wise_fullstack.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class OrderService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    // Teto da listagem sem cursor, mantida só para clientes antigos
+    static final int UNPAGED_LIMIT = 1000;
+
     @Autowired
     private OrderRepository orderRepository;
 
@@ -30,7 +45,180 @@ public class OrderService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private CouponRegistry couponRegistry;
+
+    @Autowired
+    private CouponLifecycle couponLifecycle;
+
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    @Autowired
+    private CouponRedemptionRepository redemptionRepository;
+
+    @Autowired
+    private CouponUsageLimiter usageLimiter;
+
+    @Autowired
+    private PriceQuoteSigner quoteSigner;
+
+    // O próprio bean pelo proxy, para prepare e save abrirem cada um a sua transação
+    @Autowired
+    @Lazy
+    private OrderService self;
+
     public OrderSummaryDTO saveOrder(OrderRequestDTO dto) {
+        return saveOrder(dto, null);
+    }
+
+    record PricedItem(Product product, String name, long unitCents, int quantity) {}
+
+    record PricedOrder(
+        List<PricedItem> items,
+        CouponSnapshot coupon,
+        long subtotal,
+        long discount,
+        long total,
+        List<String> promotions,
+        boolean quoted
+    ) {
+        // Cupons com limite de uso precisam de lock/contador por pedido e não entram em lote
+        boolean claimsCoupon() {
+            return coupon != null && (coupon.oneShot() || coupon.isUsageLimited());
+        }
+    }
+
+    // userKey identifica o comprador para cupons com limite por usuário. Sem transação aqui: como no
+    // OrderIngestor, o preço sai de uma transação só de leitura e a gravação abre a sua depois
+    public OrderSummaryDTO saveOrder(OrderRequestDTO dto, String userKey) {
+        return self.save(self.prepare(dto), userKey);
+    }
+
+    // Preço do pedido, sem escrita: do catálogo ou da cotação assinada, numa transação curta só de leitura
+    @Transactional(readOnly = true)
+    PricedOrder prepare(OrderRequestDTO dto) {
+        return dto.getQuoteToken() != null && !dto.getQuoteToken().isBlank()
+                ? fromQuote(dto)
+                : price(dto);
+    }
+
+    @Transactional
+    OrderSummaryDTO save(PricedOrder priced, String userKey) {
+        CouponSnapshot coupon = priced.coupon();
+
+        if (coupon != null) {
+            // Check if coupon is one-shot and already used (lookup by the unique coupon_id index)
+            if (coupon.oneShot() && redemptionRepository.existsByCouponId(coupon.id())) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "This coupon has already been used");
+            }
+
+            usageLimiter.reserve(coupon);
+        }
+
+        requirePayable(priced);
+
+        Order saved = orderRepository.save(toOrder(priced));
+
+        // Produtos cotados não são relidos: um produto removido depois da cotação só aparece no INSERT
+        if (priced.quoted()) {
+            try {
+                orderRepository.flush();
+            } catch (DataIntegrityViolationException e) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "A quoted product is no longer available");
+            }
+        }
+
+        // Claim the one-shot coupon in the same transaction; the unique constraint rejects a concurrent order
+        if (coupon != null && coupon.oneShot()) {
+            CouponRedemption redemption = new CouponRedemption();
+            redemption.setCoupon(saved.getCoupon());
+            redemption.setOrder(saved);
+            try {
+                redemptionRepository.saveAndFlush(redemption);
+            } catch (DataIntegrityViolationException e) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "This coupon has already been used");
+            }
+        }
+
+        // Por último, para o lock na linha do cupom durar só até o commit
+        if (coupon != null && coupon.isUsageLimited()) {
+            usageLimiter.claim(coupon, userKey);
+        }
+
+        return summarize(saved, priced);
+    }
+
+    /**
+     * Writes already priced orders in one transaction: the inserts of all
+     * orders and items go out in JDBC batches, and the flush surfaces a
+     * constraint violation (e.g. a quoted product deleted since) before the
+     * summaries are returned. Orders that claim a coupon are not accepted.
+     */
+    @Transactional
+    List<OrderSummaryDTO> saveBatch(List<PricedOrder> batch) {
+        List<Order> orders = new ArrayList<>(batch.size());
+        for (PricedOrder priced : batch) {
+            if (priced.claimsCoupon()) {
+                throw new IllegalArgumentException("Orders that claim a coupon must be saved one by one");
+            }
+            orders.add(toOrder(priced));
+        }
+        orderRepository.saveAll(orders);
+        orderRepository.flush();
+
+        List<OrderSummaryDTO> summaries = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            summaries.add(summarize(orders.get(i), batch.get(i)));
+        }
+        return summaries;
+    }
+
+    static void requirePayable(PricedOrder priced) {
+        if (priced.total() < 1) {
+            throw new ResponseStatusException(
+                HttpStatus.UNPROCESSABLE_ENTITY,
+                "Total amount below R$ 0.01 is not allowed"
+            );
+        }
+    }
+
+    private Order toOrder(PricedOrder priced) {
+        CouponSnapshot coupon = priced.coupon();
+        Order order = new Order();
+        // Referência sem SELECT: o pedido só precisa do id do cupom
+        order.setCoupon(coupon != null ? couponRepository.getReferenceById(coupon.id()) : null);
+        order.setTotalOriginal(Money.toDecimal(priced.subtotal()));
+        order.setDiscountApplied(Money.toDecimal(priced.discount()));
+        order.setTotalFinal(Money.toDecimal(priced.total()));
+
+        // Create order items with quantities
+        for (PricedItem pricedItem : priced.items()) {
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProduct(pricedItem.product());
+            item.setPrice(Money.toDecimal(pricedItem.unitCents()));
+            item.setQuantity(pricedItem.quantity());
+            order.getItems().add(item);
+        }
+        return order;
+    }
+
+    private static OrderSummaryDTO summarize(Order saved, PricedOrder priced) {
+        OrderSummaryDTO summary = new OrderSummaryDTO();
+        summary.setOrderId(saved.getId());
+        summary.setProductNames(priced.items().stream().map(PricedItem::name).toList());
+        summary.setTotalOriginal(saved.getTotalOriginal());
+        summary.setDiscountApplied(saved.getDiscountApplied());
+        summary.setTotalFinal(saved.getTotalFinal());
+        summary.setCouponCode(priced.coupon() != null ? priced.coupon().code() : null);
+        summary.setAppliedPromotions(priced.promotions());
+        summary.setCreatedAt(saved.getCreatedAt());
+        return summary;
+    }
+
+    // Reprices from the catalog and the current coupon state
+    private PricedOrder price(OrderRequestDTO dto) {
         if (dto.getItems() == null || dto.getItems().isEmpty()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Order must have at least one item");
         }
@@ -39,120 +227,146 @@ public class OrderService {
         List<Long> productIds = dto.getItems().stream()
                 .map(OrderRequestDTO.OrderItemDTO::getProductId)
                 .toList();
-        
+
         List<Product> products = productRepository.findAllById(productIds);
         if (products.size() != productIds.size()) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "One or more products not found");
         }
 
         // Handle optional coupon
-        Coupon coupon = null;
+        CouponSnapshot coupon = null;
         if (dto.getCouponCode() != null && !dto.getCouponCode().trim().isEmpty()) {
-            coupon = couponRepository.findByCodeIgnoreCase(dto.getCouponCode().trim().toLowerCase())
+            coupon = couponRegistry.find(dto.getCouponCode())
                     .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Coupon not found"));
 
-            // Validate using date only (ignoring time)
-            java.time.LocalDate today = java.time.LocalDate.now();
-            java.time.LocalDate validFromDate = coupon.getValidFrom().toLocalDate();
-            java.time.LocalDate validUntilDate = coupon.getValidUntil().toLocalDate();
-            
-            if (coupon.getDeletedAt() != null || today.isBefore(validFromDate) || today.isAfter(validUntilDate)) {
+            if (!couponLifecycle.isActive(coupon)) {
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Coupon expired or invalid");
             }
-            
-            // Check if coupon is one-shot and already used
-            if (coupon.getOneShot() != null && coupon.getOneShot()) {
-                final Long couponId = coupon.getId();
-                long usageCount = orderRepository.findAll().stream()
-                        .filter(o -> o.getCoupon() != null && o.getCoupon().getId().equals(couponId))
-                        .count();
-                
-                if (usageCount > 0) {
-                    throw new ResponseStatusException(HttpStatus.CONFLICT, "This coupon has already been used");
-                }
-            }
         }
 
         // Calculate total with quantities
-        BigDecimal totalOriginal = BigDecimal.ZERO;
+        Map<Long, Product> byId = new HashMap<>();
+        products.forEach(p -> byId.put(p.getId(), p));
+        List<PricingLine> lines = new ArrayList<>(dto.getItems().size());
+        List<PricedItem> items = new ArrayList<>(dto.getItems().size());
         for (OrderRequestDTO.OrderItemDTO itemDto : dto.getItems()) {
-            Product product = products.stream()
-                    .filter(p -> p.getId().equals(itemDto.getProductId()))
-                    .findFirst()
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
-            
-            BigDecimal itemTotal = product.getPrice().multiply(BigDecimal.valueOf(itemDto.getQuantity()));
-            totalOriginal = totalOriginal.add(itemTotal);
+            Product product = byId.get(itemDto.getProductId());
+            PricingLine line = PricingLine.of(product, itemDto.getQuantity());
+            lines.add(line);
+            items.add(new PricedItem(product, product.getName(), line.unitCents(), line.quantity()));
         }
 
-        // Apply discount if coupon exists
-        BigDecimal discount = BigDecimal.ZERO;
-        if (coupon != null) {
-            discount = coupon.getType().equals("percent")
-                    ? totalOriginal.multiply(coupon.getDiscountValue()).divide(BigDecimal.valueOf(100))
-                    : coupon.getDiscountValue();
+        // Promotions and coupon priced together
+        PricingResult price = pricingEngine.price(lines, coupon);
+        return new PricedOrder(items, coupon, price.subtotal(), price.discount(), price.total(),
+                price.promotionNames(), false);
+    }
+
+    // Honours the prices signed at checkout: no product reads and no repricing
+    private PricedOrder fromQuote(OrderRequestDTO dto) {
+        PriceQuote quote = quoteSigner.verify(dto.getQuoteToken());
+
+        if (dto.getItems() != null && !dto.getItems().isEmpty() && !sameItems(dto.getItems(), quote.lines())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Order items do not match the quote");
+        }
+        if (dto.getCouponCode() != null && !dto.getCouponCode().isBlank()
+                && !CouponRegistry.normalize(dto.getCouponCode()).equals(quote.couponCode())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Coupon does not match the quote");
         }
 
-        BigDecimal totalFinal = totalOriginal.subtract(discount).max(BigDecimal.ZERO);
+        // O cupom cotado vale até a cotação expirar; só os limites de uso são conferidos de novo
+        CouponSnapshot coupon = null;
+        if (quote.couponId() != null) {
+            coupon = couponRegistry.find(quote.couponCode())
+                    .filter(c -> c.id().equals(quote.couponId()))
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT, "Quoted coupon is no longer available"));
+        }
 
-        if (totalFinal.compareTo(new BigDecimal("0.01")) < 0) {
-            throw new ResponseStatusException(
-                HttpStatus.UNPROCESSABLE_ENTITY,
-                "Total amount below R$ 0.01 is not allowed"
-            );
+        List<PricedItem> items = new ArrayList<>(quote.lines().size());
+        for (PriceQuote.Line line : quote.lines()) {
+            items.add(new PricedItem(productRepository.getReferenceById(line.productId()), line.name(),
+                    line.unitCents(), line.quantity()));
         }
+        return new PricedOrder(items, coupon, quote.subtotal(), quote.discount(), quote.total(),
+                quote.promotions(), true);
+    }
 
-        // Create order
-        Order order = new Order();
-        order.setCoupon(coupon);
-        order.setTotalOriginal(totalOriginal);
-        order.setDiscountApplied(discount);
-        order.setTotalFinal(totalFinal);
+    private static boolean sameItems(List<OrderRequestDTO.OrderItemDTO> requested, List<PriceQuote.Line> quoted) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (PriceQuote.Line line : quoted) {
+            quantities.merge(line.productId(), line.quantity(), Integer::sum);
+        }
+        for (OrderRequestDTO.OrderItemDTO item : requested) {
+            if (item.getProductId() == null || item.getQuantity() == null
+                    || quantities.merge(item.getProductId(), -item.getQuantity(), Integer::sum) < 0) {
+                return false;
+            }
+        }
+        return quantities.values().stream().allMatch(q -> q == 0);
+    }
 
-        // Create order items with quantities
-        for (OrderRequestDTO.OrderItemDTO itemDto : dto.getItems()) {
-            Product product = products.stream()
-                    .filter(p -> p.getId().equals(itemDto.getProductId()))
-                    .findFirst()
-                    .orElseThrow();
-            
-            OrderItem item = new OrderItem();
-            item.setOrder(order);
-            item.setProduct(product);
-            item.setPrice(product.getPrice());
-            item.setQuantity(itemDto.getQuantity());
-            order.getItems().add(item);
+    /**
+     * Deprecated unpaged listing: the newest {@link #UNPAGED_LIMIT} orders in
+     * id order, in two statements. Clients should page with
+     * {@link #listKeyset} and read the totals from {@link #stats}.
+     */
+    @Transactional(readOnly = true)
+    public List<OrderSummaryDTO> listAllOrders() {
+        List<OrderSummaryDTO> orders = new ArrayList<>(
+                orderRepository.findProjected(null, Sort.by(Sort.Direction.DESC, "id"), UNPAGED_LIMIT));
+        Collections.reverse(orders);
+        List<Long> ids = orders.stream().map(OrderSummaryDTO::getOrderId).toList();
+        return withProductNames(orders, ids.isEmpty() ? List.of() : orderRepository.findProductNames(ids));
+    }
+
+    // Contagem e soma num único agregado, sem carregar pedidos
+    @Transactional(readOnly = true)
+    public OrderStatsDTO stats() {
+        return orderRepository.findStats();
+    }
+
+    /**
+     * Keyset page of orders on (createdAt, id), newest first by default. Each
+     * page costs two statements whatever its size: the order rows with their
+     * coupon code, then the product names of just those orders.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponseDTO<OrderSummaryDTO> listKeyset(int limit, String sortOrder, String cursor, boolean includeTotal) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + MAX_PAGE_SIZE);
         }
+        Sort.Direction direction = Sort.Direction.fromString(sortOrder != null ? sortOrder : "desc");
 
-        Order saved = orderRepository.save(order);
+        Specification<Order> spec = null;
+        if (cursor != null && !cursor.isBlank()) {
+            spec = KeysetCursor.decode(cursor, "createdAt", direction).seek(LocalDateTime.class);
+        }
 
-        OrderSummaryDTO summary = new OrderSummaryDTO();
-        summary.setOrderId(saved.getId());
-        summary.setProductNames(products.stream().map(Product::getName).toList());
-        summary.setTotalOriginal(totalOriginal);
-        summary.setDiscountApplied(discount);
-        summary.setTotalFinal(totalFinal);
-        summary.setCouponCode(coupon != null ? coupon.getCode() : null);
-        summary.setCreatedAt(saved.getCreatedAt());
+        // Uma linha extra indica se existe próxima página
+        List<OrderSummaryDTO> rows = orderRepository.findProjected(spec, KeysetCursor.sort("createdAt", direction), limit + 1);
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            OrderSummaryDTO last = rows.get(limit - 1);
+            nextCursor = new KeysetCursor("createdAt", direction, last.getOrderId(), last.getCreatedAt()).encode();
+        }
 
-        return summary;
+        List<Long> ids = rows.stream().map(OrderSummaryDTO::getOrderId).toList();
+        rows = withProductNames(rows, ids.isEmpty() ? List.of() : orderRepository.findProductNames(ids));
+
+        Long totalItems = includeTotal ? orderRepository.count() : null;
+        return new CursorPageResponseDTO<>(rows, limit, nextCursor, totalItems);
     }
 
-    public List<OrderSummaryDTO> listAllOrders() {
-        List<Order> orders = orderRepository.findAll();
-
-        return orders.stream().map(order -> {
-            OrderSummaryDTO dto = new OrderSummaryDTO();
-            dto.setOrderId(order.getId());
-            dto.setCouponCode(order.getCoupon() != null ? order.getCoupon().getCode() : null);
-            dto.setCreatedAt(order.getCreatedAt());
-            dto.setTotalOriginal(order.getTotalOriginal());
-            dto.setDiscountApplied(order.getDiscountApplied());
-            dto.setTotalFinal(order.getTotalFinal());
-            dto.setProductNames(order.getItems().stream()
-                .map(item -> item.getProduct().getName()).toList());
-            return dto;
-        }).toList();
+    private List<OrderSummaryDTO> withProductNames(List<OrderSummaryDTO> orders, List<OrderRepository.ProductNameRow> names) {
+        Map<Long, List<String>> byOrder = new HashMap<>();
+        for (OrderRepository.ProductNameRow row : names) {
+            byOrder.computeIfAbsent(row.getOrderId(), id -> new ArrayList<>()).add(row.getProductName());
+        }
+        for (OrderSummaryDTO order : orders) {
+            order.setProductNames(byOrder.getOrDefault(order.getOrderId(), List.of()));
+        }
+        return orders;
     }
 }
 
@@ -0,0 +1,21 @@
+package com.example.price_wise_fullstack.service;
+
+import java.util.List;
+
+/**
+ * Prices handed out by checkout and honoured by order placement until
+ * {@code expiresAt} (epoch millis). Amounts are in cents.
+ */
+public record PriceQuote(
+    long expiresAt,
+    Long couponId,
+    String couponCode,
+    long subtotal,
+    long discount,
+    long total,
+    List<String> promotions,
+    List<Line> lines
+) {
+
+    public record Line(Long productId, String name, long unitCents, int quantity) {}
+}
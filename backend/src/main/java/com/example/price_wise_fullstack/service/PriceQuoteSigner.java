@@ -0,0 +1,157 @@
+package com.example.price_wise_fullstack.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Serializes a {@link PriceQuote} into a compact binary payload and signs it
+ * with HMAC-SHA256: {@code base64url(payload).base64url(mac)}. The token is
+ * not encrypted; it only proves the server issued these prices and when
+ * they stop being valid.
+ */
+@Component
+public class PriceQuoteSigner {
+
+    private static final byte FORMAT = 1;
+    private static final int MIN_SECRET_BYTES = 32;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+
+    public PriceQuoteSigner(
+        @Value("${pricewise.quotes.secret}") String secret,
+        @Value("${pricewise.quotes.ttl:5m}") Duration ttl
+    ) {
+        byte[] bytes = secret.getBytes(StandardCharsets.UTF_8);
+        // Chave própria das cotações: curta demais, a aplicação não sobe
+        if (bytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("pricewise.quotes.secret must be at least " + MIN_SECRET_BYTES + " bytes");
+        }
+        this.key = new SecretKeySpec(bytes, "HmacSHA256");
+        this.ttl = ttl;
+    }
+
+    public long expiresAt(long nowMillis) {
+        return nowMillis + ttl.toMillis();
+    }
+
+    public String sign(PriceQuote quote) {
+        byte[] payload = write(quote);
+        return ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(mac(payload));
+    }
+
+    public PriceQuote verify(String token) {
+        int dot = token.indexOf('.');
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = DECODER.decode(token.substring(0, Math.max(dot, 0)));
+            signature = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            throw invalid();
+        }
+        if (dot <= 0 || !MessageDigest.isEqual(mac(payload), signature)) {
+            throw invalid();
+        }
+        PriceQuote quote;
+        try {
+            quote = read(payload);
+        } catch (IOException e) {
+            throw invalid();
+        }
+        if (quote.expiresAt() < System.currentTimeMillis()) {
+            throw new ResponseStatusException(HttpStatus.GONE, "Quote has expired, check out again");
+        }
+        return quote;
+    }
+
+    private static ResponseStatusException invalid() {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid quote");
+    }
+
+    private byte[] mac(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+
+    private static byte[] write(PriceQuote quote) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + 32 * quote.lines().size());
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT);
+            out.writeLong(quote.expiresAt());
+            out.writeLong(quote.couponId() != null ? quote.couponId() : -1);
+            out.writeUTF(quote.couponCode() != null ? quote.couponCode() : "");
+            out.writeLong(quote.subtotal());
+            out.writeLong(quote.discount());
+            out.writeLong(quote.total());
+            out.writeShort(quote.promotions().size());
+            for (String promotion : quote.promotions()) {
+                out.writeUTF(promotion);
+            }
+            out.writeInt(quote.lines().size());
+            for (PriceQuote.Line line : quote.lines()) {
+                out.writeLong(line.productId());
+                out.writeUTF(line.name());
+                out.writeLong(line.unitCents());
+                out.writeInt(line.quantity());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static PriceQuote read(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        if (in.readByte() != FORMAT) {
+            throw new IOException("Unknown quote format");
+        }
+        long expiresAt = in.readLong();
+        long couponId = in.readLong();
+        String couponCode = in.readUTF();
+        long subtotal = in.readLong();
+        long discount = in.readLong();
+        long total = in.readLong();
+        int promotionCount = in.readUnsignedShort();
+        List<String> promotions = new ArrayList<>(promotionCount);
+        for (int i = 0; i < promotionCount; i++) {
+            promotions.add(in.readUTF());
+        }
+        int lineCount = in.readInt();
+        if (lineCount < 0 || lineCount > payload.length) {
+            throw new IOException("Corrupt quote");
+        }
+        List<PriceQuote.Line> lines = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            lines.add(new PriceQuote.Line(in.readLong(), in.readUTF(), in.readLong(), in.readInt()));
+        }
+        return new PriceQuote(expiresAt, couponId >= 0 ? couponId : null, couponCode.isEmpty() ? null : couponCode,
+                subtotal, discount, total, promotions, lines);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.price_wise_fullstack.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.price_wise_fullstack.repository.PromotionRuleRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Single entry point for cart, coupon and order pricing. The active
+ * promotion rules are compiled into a {@link PricingPlan} on first use and
+ * again after any rule write; pricing itself never reads the rules table.
+ */
+@Component
+@Slf4j
+public class PricingEngine {
+
+    private volatile PricingPlan plan;
+    // Uma compilação iniciada antes de uma escrita não pode publicar o plano antigo
+    private long generation;
+
+    @Autowired
+    private ObjectProvider<PromotionRuleRepository> ruleRepository;
+
+    public PricingResult price(List<PricingLine> lines, CouponSnapshot coupon) {
+        return plan().evaluate(lines, coupon != null ? PricingRule.of(coupon) : null);
+    }
+
+    // Chamado na escrita e de novo ao fim da transação, para valer tanto o commit quanto o rollback
+    public void invalidate() {
+        discard();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    discard();
+                }
+            });
+        }
+    }
+
+    private synchronized void discard() {
+        generation++;
+        plan = null;
+    }
+
+    PricingPlan plan() {
+        PricingPlan current = plan;
+        if (current != null) {
+            return current;
+        }
+        long startedAt;
+        synchronized (this) {
+            if (plan != null) {
+                return plan;
+            }
+            startedAt = generation;
+        }
+        List<PricingRule> rules = ruleRepository.getObject().findByActiveTrue().stream().map(PricingRule::of).toList();
+        PricingPlan compiled = PricingPlan.compile(rules);
+        synchronized (this) {
+            if (generation == startedAt) {
+                plan = compiled;
+                log.debug("Pricing plan compiled with {} rules", compiled.ruleCount());
+            }
+        }
+        return compiled;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.price_wise_fullstack.service;
+
+import com.example.price_wise_fullstack.model.Product;
+
+/**
+ * One cart or order line as seen by {@link PricingEngine}, in cents.
+ */
+public record PricingLine(Long productId, long unitCents, int quantity) {
+
+    public static PricingLine of(Product product, int quantity) {
+        return new PricingLine(product.getId(), Money.toCents(product.getPrice()), quantity);
+    }
+
+    public long amount() {
+        return Money.times(unitCents, quantity);
+    }
+}
@@ -0,0 +1,321 @@
+package com.example.price_wise_fullstack.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Promotion rules compiled into bitmasks. Every distinct condition across
+ * all rules becomes one predicate bit, and every rule becomes the mask of
+ * the bits it requires. Pricing a cart evaluates each distinct predicate
+ * once, in bulk, and then a rule is eligible when its mask is contained in
+ * the cart's mask:
+ * <ul>
+ * <li>min cart value: the thresholds are sorted, so one binary search picks
+ * a precomputed prefix mask;</li>
+ * <li>product sets: a product id maps to the sets that contain it, which
+ * also gives the quantity and amount per set in the same pass;</li>
+ * <li>quantity thresholds: one comparison per distinct (set, minimum).</li>
+ * </ul>
+ * Rules are kept in evaluation order: higher priority first, then id.
+ * Stackable discounts add up. A non-stackable rule only applies when
+ * nothing applied before it, and it closes the list. The total discount
+ * never exceeds the subtotal. The coupon, if any, is evaluated last and
+ * always stacks. All amounts are long cents, see {@link Money}.
+ */
+final class PricingPlan {
+
+    static final PricingPlan EMPTY = compile(List.of());
+
+    private final PricingRule[] rules;
+    private final long[][] required;
+    private final int[] scopeSet;
+    private final int words;
+
+    private final long[] thresholds;
+    private final long[][] thresholdPrefix;
+
+    private final Map<Long, int[]> setsByProduct;
+    private final int[] setAnyBit;
+
+    private final int[] quantitySet;
+    private final int[] quantityMin;
+    private final int[] quantityBit;
+
+    private PricingPlan(List<PricingRule> sorted) {
+        int bits = 0;
+
+        // Valor mínimo do carrinho: um bit por limite distinto
+        TreeSet<Long> distinctThresholds = new TreeSet<>();
+        sorted.stream().map(PricingRule::minCartValue).filter(v -> v != null).forEach(distinctThresholds::add);
+        this.thresholds = distinctThresholds.stream().mapToLong(Long::longValue).toArray();
+        int thresholdBase = bits;
+        bits += thresholds.length;
+
+        // Conjuntos de produtos: um bit "algum item do conjunto" por conjunto distinto
+        Map<Set<Long>, Integer> setIndex = new LinkedHashMap<>();
+        for (PricingRule rule : sorted) {
+            if (rule.scoped()) {
+                setIndex.putIfAbsent(rule.productIds(), setIndex.size());
+            }
+        }
+        this.setAnyBit = new int[setIndex.size()];
+        for (int s = 0; s < setAnyBit.length; s++) {
+            setAnyBit[s] = bits++;
+        }
+        Map<Long, List<Integer>> membership = new HashMap<>();
+        setIndex.forEach((set, s) -> set.forEach(id -> membership.computeIfAbsent(id, k -> new ArrayList<>()).add(s)));
+        this.setsByProduct = new HashMap<>();
+        membership.forEach((id, sets) -> setsByProduct.put(id, sets.stream().mapToInt(Integer::intValue).toArray()));
+
+        // Quantidade mínima: um bit por par distinto (conjunto, mínimo); -1 = carrinho inteiro
+        Map<List<Integer>, Integer> quantityIndex = new LinkedHashMap<>();
+        for (PricingRule rule : sorted) {
+            if (rule.minQuantity() != null) {
+                int s = rule.scoped() ? setIndex.get(rule.productIds()) : -1;
+                quantityIndex.putIfAbsent(List.of(s, rule.minQuantity()), quantityIndex.size());
+            }
+        }
+        this.quantitySet = new int[quantityIndex.size()];
+        this.quantityMin = new int[quantityIndex.size()];
+        this.quantityBit = new int[quantityIndex.size()];
+        quantityIndex.forEach((key, q) -> {
+            quantitySet[q] = key.get(0);
+            quantityMin[q] = key.get(1);
+        });
+        for (int q = 0; q < quantityBit.length; q++) {
+            quantityBit[q] = bits++;
+        }
+
+        this.words = Math.max(1, (bits + 63) >>> 6);
+
+        this.thresholdPrefix = new long[thresholds.length][];
+        long[] prefix = new long[words];
+        for (int t = 0; t < thresholds.length; t++) {
+            prefix = prefix.clone();
+            set(prefix, thresholdBase + t);
+            thresholdPrefix[t] = prefix;
+        }
+
+        this.rules = sorted.toArray(PricingRule[]::new);
+        this.required = new long[rules.length][];
+        this.scopeSet = new int[rules.length];
+        for (int r = 0; r < rules.length; r++) {
+            PricingRule rule = rules[r];
+            long[] mask = new long[words];
+            if (rule.minCartValue() != null) {
+                set(mask, thresholdBase + Arrays.binarySearch(thresholds, rule.minCartValue()));
+            }
+            scopeSet[r] = rule.scoped() ? setIndex.get(rule.productIds()) : -1;
+            if (rule.scoped()) {
+                set(mask, setAnyBit[scopeSet[r]]);
+            }
+            if (rule.minQuantity() != null) {
+                set(mask, quantityBit[quantityIndex.get(List.of(scopeSet[r], rule.minQuantity()))]);
+            }
+            required[r] = mask;
+        }
+    }
+
+    static PricingPlan compile(List<PricingRule> rules) {
+        List<PricingRule> sorted = new ArrayList<>(rules);
+        sorted.sort(Comparator.comparingInt(PricingRule::priority).reversed()
+                .thenComparing(PricingRule::id, Comparator.nullsLast(Comparator.naturalOrder())));
+        return new PricingPlan(sorted);
+    }
+
+    int ruleCount() {
+        return rules.length;
+    }
+
+    /**
+     * Running sums of a cart under this plan: subtotal, quantity and the
+     * quantity and amount per product set. A line change updates it in time
+     * proportional to the sets holding that product, so a cart that keeps
+     * its tally is priced without walking its lines (except for buy-X-get-Y,
+     * which needs the unit prices).
+     */
+    final class Tally {
+        private long subtotal;
+        private int quantity;
+        private final int[] setQuantity = new int[setAnyBit.length];
+        private final long[] setAmount = new long[setAnyBit.length];
+
+        void add(Long productId, long unitCents, int quantityDelta) {
+            long amount = Money.times(unitCents, quantityDelta);
+            subtotal = Math.addExact(subtotal, amount);
+            quantity += quantityDelta;
+            int[] sets = setsByProduct.get(productId);
+            if (sets != null) {
+                for (int s : sets) {
+                    setQuantity[s] += quantityDelta;
+                    setAmount[s] += amount;
+                }
+            }
+        }
+
+        long subtotal() {
+            return subtotal;
+        }
+
+        boolean compiledBy(PricingPlan plan) {
+            return PricingPlan.this == plan;
+        }
+    }
+
+    Tally tally(Collection<PricingLine> lines) {
+        Tally tally = new Tally();
+        for (PricingLine line : lines) {
+            tally.add(line.productId(), line.unitCents(), line.quantity());
+        }
+        return tally;
+    }
+
+    PricingResult evaluate(List<PricingLine> lines, PricingRule coupon) {
+        return evaluate(tally(lines), lines, coupon);
+    }
+
+    @SuppressWarnings("unchecked")
+    PricingResult evaluate(Tally tally, Collection<PricingLine> lines, PricingRule coupon) {
+        long subtotal = tally.subtotal;
+        int[] setQuantity = tally.setQuantity;
+        long[] setAmount = tally.setAmount;
+        long[] mask = new long[words];
+
+        for (int s = 0; s < setAnyBit.length; s++) {
+            if (setQuantity[s] > 0) {
+                set(mask, setAnyBit[s]);
+            }
+        }
+
+        int passed = countAtMost(subtotal);
+        if (passed > 0) {
+            long[] prefix = thresholdPrefix[passed - 1];
+            for (int w = 0; w < words; w++) {
+                mask[w] |= prefix[w];
+            }
+        }
+        for (int q = 0; q < quantityBit.length; q++) {
+            int quantity = quantitySet[q] < 0 ? tally.quantity : setQuantity[quantitySet[q]];
+            if (quantity >= quantityMin[q]) {
+                set(mask, quantityBit[q]);
+            }
+        }
+
+        List<PricingResult.AppliedDiscount> applied = new ArrayList<>();
+        // Itens de cada escopo ordenados por preço, montados só se algum leve-pague precisar
+        List<PricingLine>[] cheapestFirst = new List[setAnyBit.length + 1];
+        long remaining = subtotal;
+        for (int r = 0; r < rules.length && remaining > 0; r++) {
+            PricingRule rule = rules[r];
+            if (!contains(mask, required[r]) || (!rule.stackable() && !applied.isEmpty())) {
+                continue;
+            }
+            long scopeAmount = scopeSet[r] < 0 ? subtotal : setAmount[scopeSet[r]];
+            long amount = Math.min(actionAmount(rule, lines, scopeSet[r], scopeAmount, cheapestFirst), remaining);
+            if (amount <= 0) {
+                continue;
+            }
+            applied.add(new PricingResult.AppliedDiscount(rule.id(), rule.name(), false, amount));
+            remaining -= amount;
+            if (!rule.stackable()) {
+                break;
+            }
+        }
+
+        if (coupon != null) {
+            long amount = Math.min(actionAmount(coupon, lines, -1, subtotal, cheapestFirst), remaining);
+            applied.add(new PricingResult.AppliedDiscount(null, coupon.name(), true, amount));
+            remaining -= amount;
+        }
+
+        return new PricingResult(subtotal, subtotal - remaining, remaining, applied);
+    }
+
+    private int countAtMost(long subtotal) {
+        int low = 0;
+        int high = thresholds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (thresholds[mid] <= subtotal) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long actionAmount(PricingRule rule, Collection<PricingLine> lines, int scope,
+                                     long scopeAmount, List<PricingLine>[] cheapestFirst) {
+        return switch (rule.action()) {
+            case PricingRule.PERCENT -> Money.percentOf(scopeAmount, rule.value());
+            case PricingRule.FIXED -> Math.min(rule.value(), scopeAmount);
+            case PricingRule.BUY_X_GET_Y -> freeUnitsAmount(rule, cheapestFirst(rule, lines, scope, cheapestFirst));
+            default -> throw new IllegalStateException("Unknown pricing action " + rule.action());
+        };
+    }
+
+    // O carrinho é ordenado por preço uma vez; cada escopo filtra essa ordem
+    private static List<PricingLine> cheapestFirst(PricingRule rule, Collection<PricingLine> lines, int scope,
+                                                   List<PricingLine>[] cache) {
+        if (cache[0] == null) {
+            List<PricingLine> sorted = new ArrayList<>(lines);
+            sorted.sort(Comparator.comparingLong(PricingLine::unitCents));
+            cache[0] = sorted;
+        }
+        int slot = scope + 1;
+        if (cache[slot] == null) {
+            List<PricingLine> inScope = new ArrayList<>();
+            for (PricingLine line : cache[0]) {
+                if (rule.productIds().contains(line.productId())) {
+                    inScope.add(line);
+                }
+            }
+            cache[slot] = inScope;
+        }
+        return cache[slot];
+    }
+
+    // A cada buy + get unidades do escopo, as get mais baratas saem de graça
+    private static long freeUnitsAmount(PricingRule rule, List<PricingLine> scope) {
+        int units = 0;
+        for (PricingLine line : scope) {
+            units += line.quantity();
+        }
+        int free = units / (rule.buyQuantity() + rule.getQuantity()) * rule.getQuantity();
+        if (free == 0) {
+            return 0;
+        }
+        long amount = 0;
+        for (PricingLine line : scope) {
+            int take = Math.min(free, line.quantity());
+            amount = Math.addExact(amount, Money.times(line.unitCents(), take));
+            free -= take;
+            if (free == 0) {
+                break;
+            }
+        }
+        return amount;
+    }
+
+    private static void set(long[] mask, int bit) {
+        mask[bit >>> 6] |= 1L << bit;
+    }
+
+    private static boolean contains(long[] mask, long[] required) {
+        for (int w = 0; w < required.length; w++) {
+            if ((required[w] & ~mask[w]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
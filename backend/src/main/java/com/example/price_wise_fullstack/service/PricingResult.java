@@ -0,0 +1,19 @@
+package com.example.price_wise_fullstack.service;
+
+import java.util.List;
+
+// Valores em centavos; converta com Money.toDecimal ao preencher DTOs e entidades
+public record PricingResult(
+    long subtotal,
+    long discount,
+    long total,
+    List<AppliedDiscount> applied
+) {
+
+    // ruleId é null para o cupom
+    public record AppliedDiscount(Long ruleId, String name, boolean coupon, long amount) {}
+
+    public List<String> promotionNames() {
+        return applied.stream().filter(a -> !a.coupon()).map(AppliedDiscount::name).toList();
+    }
+}
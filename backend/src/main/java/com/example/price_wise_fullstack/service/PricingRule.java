@@ -0,0 +1,69 @@
+package com.example.price_wise_fullstack.service;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+import com.example.price_wise_fullstack.model.PromotionRule;
+
+/**
+ * Immutable rule as compiled by {@link PricingPlan}. Conditions are
+ * combined with AND and a null condition always holds; when productIds is
+ * set the action only discounts the matching lines. A coupon is a rule
+ * without conditions that always stacks.
+ * <p>
+ * Amounts are in cents. The value is cents for a fixed discount and basis
+ * points for a percent one.
+ */
+public record PricingRule(
+    Long id,
+    String name,
+    int priority,
+    boolean stackable,
+    Long minCartValue,
+    Set<Long> productIds,
+    Integer minQuantity,
+    String action,
+    long value,
+    Integer buyQuantity,
+    Integer getQuantity
+) {
+
+    public static final String PERCENT = "percent";
+    public static final String FIXED = "fixed";
+    public static final String BUY_X_GET_Y = "buy_x_get_y";
+
+    public static PricingRule of(PromotionRule rule) {
+        Set<Long> products = rule.getProductIds() == null || rule.getProductIds().isEmpty()
+                ? null
+                : Set.copyOf(rule.getProductIds());
+        return new PricingRule(
+            rule.getId(),
+            rule.getName(),
+            rule.getPriority(),
+            Boolean.TRUE.equals(rule.getStackable()),
+            rule.getMinCartValue() != null ? Money.toCents(rule.getMinCartValue()) : null,
+            products,
+            rule.getMinQuantity(),
+            rule.getAction(),
+            value(rule.getAction(), rule.getDiscountValue()),
+            rule.getBuyQuantity(),
+            rule.getGetQuantity()
+        );
+    }
+
+    public static PricingRule of(CouponSnapshot coupon) {
+        return new PricingRule(null, coupon.code(), Integer.MIN_VALUE, true, null, null, null,
+                coupon.type(), value(coupon.type(), coupon.discountValue()), null, null);
+    }
+
+    private static long value(String action, BigDecimal value) {
+        if (value == null) {
+            return 0;
+        }
+        return PERCENT.equals(action) ? Money.toBasisPoints(value) : Money.toCents(value);
+    }
+
+    boolean scoped() {
+        return productIds != null;
+    }
+}
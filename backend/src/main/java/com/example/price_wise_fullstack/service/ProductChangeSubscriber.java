@@ -0,0 +1,20 @@
+package com.example.price_wise_fullstack.service;
+
+import com.example.price_wise_fullstack.model.Product;
+
+/**
+ * In-memory view of the catalog kept in sync by {@link ProductChangeTracker}.
+ */
+public interface ProductChangeSubscriber {
+
+    void productSaved(Product product);
+
+    void productRemoved(Long productId);
+
+    default void catalogLoaded() {
+    }
+
+    // Chamado depois do commit de uma transação que alterou produtos
+    default void changesCommitted() {
+    }
+}
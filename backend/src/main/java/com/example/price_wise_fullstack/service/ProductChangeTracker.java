@@ -0,0 +1,122 @@
+package com.example.price_wise_fullstack.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.price_wise_fullstack.model.Product;
+import com.example.price_wise_fullstack.repository.ProductRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fans product writes out to the in-memory subscribers. Hibernate reports a
+ * change when it flushes it; the tracker keeps the latest state of each
+ * product touched by the transaction and hands it to the subscribers only
+ * after the commit, so no other request sees an uncommitted product and a
+ * rollback has nothing to undo. Until then the writing transaction does not
+ * see its own changes in the in-memory views either.
+ */
+@Component
+@Slf4j
+public class ProductChangeTracker {
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    @Autowired
+    private List<ProductChangeSubscriber> subscribers;
+
+    @Autowired
+    private ObjectProvider<ProductRepository> productRepository;
+
+    @Autowired
+    private ObjectProvider<PlatformTransactionManager> transactionManager;
+
+    public void saved(Product product) {
+        pending(product.getId(), product);
+    }
+
+    public void removed(Long productId) {
+        pending(productId, null);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadCatalog() {
+        ProductRepository repository = productRepository.getObject();
+        TransactionTemplate tx = readOnlyTransaction();
+        long lastId = 0;
+        int loaded = 0;
+        List<Product> batch;
+        do {
+            final long afterId = lastId;
+            batch = tx.execute(status -> repository.findBy(
+                    (root, query, cb) -> cb.greaterThan(root.get("id"), afterId),
+                    q -> q.sortBy(Sort.by("id")).limit(LOAD_BATCH_SIZE).all()));
+            for (Product product : batch) {
+                subscribers.forEach(s -> s.productSaved(product));
+                lastId = product.getId();
+            }
+            loaded += batch.size();
+        } while (batch.size() == LOAD_BATCH_SIZE);
+
+        subscribers.forEach(ProductChangeSubscriber::catalogLoaded);
+        log.info("Catalog loaded into {} in-memory views ({} products)", subscribers.size(), loaded);
+    }
+
+    // Última versão de cada produto alterado na transação; null = removido
+    @SuppressWarnings("unchecked")
+    private void pending(Long productId, Product product) {
+        if (productId == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(productId, product);
+            return;
+        }
+        Map<Long, Product> changes = (Map<Long, Product>) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            Map<Long, Product> byId = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, byId);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    byId.forEach(ProductChangeTracker.this::apply);
+                    subscribers.forEach(ProductChangeSubscriber::changesCommitted);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ProductChangeTracker.this);
+                }
+            });
+            changes = byId;
+        }
+        changes.put(productId, product);
+    }
+
+    private void apply(Long productId, Product product) {
+        if (product == null) {
+            subscribers.forEach(s -> s.productRemoved(productId));
+        } else {
+            subscribers.forEach(s -> s.productSaved(product));
+        }
+    }
+
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager.getObject());
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        tx.setReadOnly(true);
+        return tx;
+    }
+}
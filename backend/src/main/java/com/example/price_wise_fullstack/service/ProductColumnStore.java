@@ -0,0 +1,340 @@
+package com.example.price_wise_fullstack.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.price_wise_fullstack.dto.PaginatedResponseDTO;
+import com.example.price_wise_fullstack.dto.ProductResponseDTO;
+import com.example.price_wise_fullstack.model.Product;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Read replica of the catalog in primitive column arrays, used by
+ * listFiltered for listings without a search term. Prices are kept in long
+ * cents, names are dictionary-encoded with codes assigned in sort order, and
+ * rows are stored in id order with name/price permutations presorted, so a
+ * page is a branch-free price scan plus a walk over one permutation.
+ *
+ * The columns are immutable. Writes land in a small delta of rows changed
+ * since the last build, which readers merge into the walk, so a change is
+ * visible at once. A scheduled rebuild folds the delta into new columns off
+ * the request path and swaps them in atomically. Readers never lock and
+ * never rebuild.
+ */
+@Component
+@ConditionalOnProperty(name = "pricewise.products.columnar.enabled", havingValue = "true")
+@Slf4j
+public class ProductColumnStore implements ProductChangeSubscriber {
+
+    private record Row(
+        long id,
+        String name,
+        String description,
+        long priceCents,
+        int stock,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+    ) {}
+
+    // Marca no delta um produto removido desde o último build
+    private static final Row REMOVED = new Row(-1, null, null, 0, 0, null, null);
+
+    private static final Map<String, Comparator<Row>> ROW_ORDER = Map.of(
+        "id", Comparator.comparingLong(Row::id),
+        "name", Comparator.comparing(Row::name).thenComparingLong(Row::id),
+        "price", Comparator.comparingLong(Row::priceCents).thenComparingLong(Row::id)
+    );
+
+    private static final class Snapshot {
+        final int size;
+        final long[] ids;
+        final long[] priceCents;
+        final int[] stock;
+        final int[] nameCodes;
+        final String[] nameDictionary;
+        final String[] descriptions;
+        final LocalDateTime[] createdAt;
+        final LocalDateTime[] updatedAt;
+        final int[] byName;
+        final int[] byPrice;
+
+        // rows em ordem de id: a própria posição é a ordem por id
+        Snapshot(Row[] rows) {
+            size = rows.length;
+            ids = new long[size];
+            priceCents = new long[size];
+            stock = new int[size];
+            nameCodes = new int[size];
+            descriptions = new String[size];
+            createdAt = new LocalDateTime[size];
+            updatedAt = new LocalDateTime[size];
+
+            nameDictionary = Arrays.stream(rows).map(Row::name).distinct().sorted().toArray(String[]::new);
+            Map<String, Integer> codes = new HashMap<>(nameDictionary.length * 2);
+            for (int i = 0; i < nameDictionary.length; i++) {
+                codes.put(nameDictionary[i], i);
+            }
+
+            for (int i = 0; i < size; i++) {
+                Row row = rows[i];
+                ids[i] = row.id();
+                priceCents[i] = row.priceCents();
+                stock[i] = row.stock();
+                nameCodes[i] = codes.get(row.name());
+                descriptions[i] = row.description();
+                createdAt[i] = row.createdAt();
+                updatedAt[i] = row.updatedAt();
+            }
+
+            long[] prices = Arrays.stream(priceCents).sorted().distinct().toArray();
+            int[] priceRanks = new int[size];
+            for (int i = 0; i < size; i++) {
+                priceRanks[i] = Arrays.binarySearch(prices, priceCents[i]);
+            }
+            byName = permutation(nameCodes);
+            byPrice = permutation(priceRanks);
+        }
+
+        // Ordena (rank, linha) empacotados num long: sem boxing, e o empate sai por id
+        private static int[] permutation(int[] ranks) {
+            long[] keys = new long[ranks.length];
+            for (int i = 0; i < ranks.length; i++) {
+                keys[i] = ((long) ranks[i] << 32) | i;
+            }
+            Arrays.sort(keys);
+            int[] order = new int[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                order[i] = (int) keys[i];
+            }
+            return order;
+        }
+
+        int indexOf(long id) {
+            return Arrays.binarySearch(ids, id);
+        }
+
+        // Mesma ordem de ROW_ORDER, entre uma linha da base e uma do delta
+        int compare(int row, Row other, String sortBy) {
+            int c = switch (sortBy) {
+                case "name" -> nameDictionary[nameCodes[row]].compareTo(other.name());
+                case "price" -> Long.compare(priceCents[row], other.priceCents());
+                default -> 0;
+            };
+            return c != 0 ? c : Long.compare(ids[row], other.id());
+        }
+
+        ProductResponseDTO toDTO(int row) {
+            ProductResponseDTO dto = new ProductResponseDTO();
+            dto.setId(ids[row]);
+            dto.setName(nameDictionary[nameCodes[row]]);
+            dto.setDescription(descriptions[row]);
+            dto.setPrice(Money.toDecimal(priceCents[row]));
+            dto.setStock(stock[row]);
+            dto.setCreatedAt(createdAt[row]);
+            dto.setUpdatedAt(updatedAt[row]);
+            return dto;
+        }
+    }
+
+    // Colunas e o delta que vale sobre elas, trocados juntos
+    private record View(Snapshot base, Map<Long, Row> delta) {}
+
+    private final Map<Long, Row> staging = new HashMap<>();
+    private volatile View view = new View(new Snapshot(new Row[0]), new ConcurrentHashMap<>());
+    private volatile boolean ready;
+
+    @Override
+    public synchronized void productSaved(Product product) {
+        Row row = new Row(
+            product.getId(),
+            product.getName(),
+            product.getDescription(),
+            Money.toCents(product.getPrice()),
+            product.getStock(),
+            product.getCreatedAt(),
+            product.getUpdatedAt()
+        );
+        staging.put(row.id(), row);
+        view.delta().put(row.id(), row);
+    }
+
+    @Override
+    public synchronized void productRemoved(Long productId) {
+        if (staging.remove(productId) != null) {
+            view.delta().put(productId, REMOVED);
+        }
+    }
+
+    @Override
+    public void catalogLoaded() {
+        // A carga inicial inteira está no delta: monta as colunas antes de atender
+        rebuild();
+        ready = true;
+    }
+
+    /**
+     * Folds the delta into new columns. The build runs outside the lock;
+     * changes made meanwhile stay in the delta of the new view.
+     */
+    @Scheduled(fixedDelayString = "${pricewise.products.columnar.rebuild-interval:1s}")
+    public void rebuild() {
+        Row[] rows;
+        Map<Long, Row> folded;
+        synchronized (this) {
+            if (view.delta().isEmpty()) {
+                return;
+            }
+            rows = staging.values().toArray(Row[]::new);
+            folded = new HashMap<>(view.delta());
+        }
+        long startedAt = System.nanoTime();
+        Arrays.sort(rows, ROW_ORDER.get("id"));
+        Snapshot built = new Snapshot(rows);
+
+        synchronized (this) {
+            // Só sai do delta o que a cópia já continha; mesma instância = nada mudou depois
+            Map<Long, Row> remaining = new ConcurrentHashMap<>();
+            view.delta().forEach((id, row) -> {
+                if (folded.get(id) != row) {
+                    remaining.put(id, row);
+                }
+            });
+            view = new View(built, remaining);
+        }
+        log.debug("Product columns rebuilt with {} rows in {} ms", built.size, (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    /**
+     * Page of products filtered by price range, or empty when this sort is
+     * not served by the replica (or it is still loading).
+     */
+    public Optional<PaginatedResponseDTO<ProductResponseDTO>> query(
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        int page,
+        int limit,
+        String sortBy,
+        Sort.Direction direction
+    ) {
+        Comparator<Row> rowOrder = ROW_ORDER.get(sortBy);
+        if (!ready || rowOrder == null) {
+            return Optional.empty();
+        }
+        View v = view;
+        Snapshot s = v.base();
+        int[] order = switch (sortBy) {
+            case "name" -> s.byName;
+            case "price" -> s.byPrice;
+            default -> null;
+        };
+
+        long lo = minPrice != null ? minPrice.movePointRight(2).setScale(0, RoundingMode.CEILING).longValue() : Long.MIN_VALUE;
+        long hi = maxPrice != null ? maxPrice.movePointRight(2).setScale(0, RoundingMode.FLOOR).longValue() : Long.MAX_VALUE;
+        boolean filtered = minPrice != null || maxPrice != null;
+
+        // Varredura sequencial sem desvios sobre a coluna de preços
+        boolean[] matches = null;
+        int total = s.size;
+        if (filtered) {
+            matches = new boolean[s.size];
+            long[] prices = s.priceCents;
+            total = 0;
+            for (int i = 0; i < prices.length; i++) {
+                boolean match = prices[i] >= lo & prices[i] <= hi;
+                matches[i] = match;
+                total += match ? 1 : 0;
+            }
+        }
+
+        // Linhas alteradas desde o build: escondidas na base e lidas do delta
+        boolean ascending = direction.isAscending();
+        BitSet hidden = new BitSet();
+        List<Row> changed = new ArrayList<>();
+        for (Map.Entry<Long, Row> entry : v.delta().entrySet()) {
+            int row = s.indexOf(entry.getKey());
+            if (row >= 0 && !hidden.get(row)) {
+                hidden.set(row);
+                total -= matches == null || matches[row] ? 1 : 0;
+            }
+            Row r = entry.getValue();
+            if (r != REMOVED && r.priceCents() >= lo && r.priceCents() <= hi) {
+                changed.add(r);
+                total++;
+            }
+        }
+        changed.sort(ascending ? rowOrder : rowOrder.reversed());
+
+        long offset = (long) (page - 1) * limit;
+        List<ProductResponseDTO> content = new ArrayList<>(Math.max(0, Math.min(limit, total)));
+        long seen = 0;
+        int i = 0;
+        int d = 0;
+        while (content.size() < limit && (i < s.size || d < changed.size())) {
+            int row = -1;
+            if (i < s.size) {
+                int position = ascending ? i : s.size - 1 - i;
+                row = order != null ? order[position] : position;
+                if ((matches != null && !matches[row]) || hidden.get(row)) {
+                    i++;
+                    continue;
+                }
+            }
+            Row next = d < changed.size() ? changed.get(d) : null;
+            boolean fromDelta = next != null
+                    && (row < 0 || (ascending ? s.compare(row, next, sortBy) > 0 : s.compare(row, next, sortBy) < 0));
+            if (fromDelta) {
+                d++;
+                if (seen++ >= offset) {
+                    content.add(toDTO(next));
+                }
+            } else {
+                i++;
+                if (seen++ >= offset) {
+                    content.add(s.toDTO(row));
+                }
+            }
+        }
+
+        Sort sort = Sort.by(direction, sortBy);
+        return Optional.of(new PaginatedResponseDTO<>(new PageImpl<>(content, PageRequest.of(page - 1, limit, sort), total)));
+    }
+
+    private static ProductResponseDTO toDTO(Row row) {
+        ProductResponseDTO dto = new ProductResponseDTO();
+        dto.setId(row.id());
+        dto.setName(row.name());
+        dto.setDescription(row.description());
+        dto.setPrice(Money.toDecimal(row.priceCents()));
+        dto.setStock(row.stock());
+        dto.setCreatedAt(row.createdAt());
+        dto.setUpdatedAt(row.updatedAt());
+        return dto;
+    }
+
+    synchronized int size() {
+        return staging.size();
+    }
+
+    // Linhas ainda não incorporadas às colunas
+    int pendingChanges() {
+        return view.delta().size();
+    }
+}
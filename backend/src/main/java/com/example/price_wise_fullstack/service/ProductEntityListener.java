@@ -0,0 +1,29 @@
+package com.example.price_wise_fullstack.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+
+import com.example.price_wise_fullstack.model.Product;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+// Instanciado pelo Hibernate; apenas repassa os eventos para o tracker singleton
+public class ProductEntityListener {
+
+    @Autowired
+    @Lazy
+    private ProductChangeTracker tracker;
+
+    @PostPersist
+    @PostUpdate
+    public void afterSave(Product product) {
+        tracker.saved(product);
+    }
+
+    @PostRemove
+    public void afterRemove(Product product) {
+        tracker.removed(product.getId());
+    }
+}
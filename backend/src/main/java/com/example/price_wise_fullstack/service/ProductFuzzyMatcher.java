@@ -0,0 +1,163 @@
+package com.example.price_wise_fullstack.service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Component;
+
+import com.example.price_wise_fullstack.model.Product;
+
+/**
+ * SymSpell-style deletion dictionary over the product-name vocabulary.
+ * Every term is registered under all strings obtained by deleting up to
+ * {@value #MAX_EDIT_DISTANCE} characters from its first
+ * {@value #PREFIX_LENGTH} characters, so a misspelled token is resolved with
+ * a handful of hash lookups instead of a scan over the vocabulary. Limiting
+ * the deletes to the prefix bounds memory to a constant number of keys per
+ * distinct term.
+ */
+@Component
+public class ProductFuzzyMatcher implements ProductChangeSubscriber {
+    static final int MAX_EDIT_DISTANCE = 2;
+    static final int PREFIX_LENGTH = 7;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> termCounts = new HashMap<>();
+    private final Map<String, Set<String>> deletes = new HashMap<>();
+    private final Map<Long, Set<String>> productTerms = new HashMap<>();
+
+    @Override
+    public void productSaved(Product product) {
+        Set<String> terms = new HashSet<>(ProductSearchIndex.tokenize(product.getName()));
+        lock.writeLock().lock();
+        try {
+            removeProduct(product.getId());
+            productTerms.put(product.getId(), terms);
+            for (String term : terms) {
+                if (termCounts.merge(term, 1, Integer::sum) == 1) {
+                    deleteVariants(term).forEach(key -> deletes.computeIfAbsent(key, k -> new HashSet<>()).add(term));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void productRemoved(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeProduct(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Vocabulary terms within the allowed edit distance of the token, mapped
+     * to that distance.
+     */
+    public Map<String, Integer> suggest(String token) {
+        int maxDistance = token.length() <= 4 ? 1 : MAX_EDIT_DISTANCE;
+        Map<String, Integer> matches = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            if (termCounts.containsKey(token)) {
+                matches.put(token, 0);
+            }
+            for (String key : deleteVariants(token)) {
+                Set<String> candidates = deletes.get(key);
+                if (candidates == null) {
+                    continue;
+                }
+                for (String candidate : candidates) {
+                    if (!matches.containsKey(candidate)) {
+                        int distance = distance(token, candidate, maxDistance);
+                        if (distance <= maxDistance) {
+                            matches.put(candidate, distance);
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return matches;
+    }
+
+    private void removeProduct(Long productId) {
+        Set<String> previous = productTerms.remove(productId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous) {
+            if (termCounts.merge(term, -1, Integer::sum) == 0) {
+                termCounts.remove(term);
+                for (String key : deleteVariants(term)) {
+                    Set<String> terms = deletes.get(key);
+                    terms.remove(term);
+                    if (terms.isEmpty()) {
+                        deletes.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Set<String> deleteVariants(String term) {
+        String prefix = term.length() > PREFIX_LENGTH ? term.substring(0, PREFIX_LENGTH) : term;
+        Set<String> variants = new HashSet<>();
+        variants.add(prefix);
+        collectDeletes(prefix, 1, variants);
+        return variants;
+    }
+
+    private static void collectDeletes(String word, int depth, Set<String> variants) {
+        if (depth > MAX_EDIT_DISTANCE || word.length() <= 1) {
+            return;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            String deleted = word.substring(0, i) + word.substring(i + 1);
+            if (variants.add(deleted)) {
+                collectDeletes(deleted, depth + 1, variants);
+            }
+        }
+    }
+
+    // Distância de Damerau-Levenshtein (optimal string alignment) com corte em max
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+}
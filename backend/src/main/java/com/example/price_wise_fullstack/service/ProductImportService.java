@@ -0,0 +1,243 @@
+package com.example.price_wise_fullstack.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.price_wise_fullstack.dto.ProductImportErrorDTO;
+import com.example.price_wise_fullstack.dto.ProductImportResultDTO;
+import com.example.price_wise_fullstack.dto.ProductRequestDTO;
+import com.example.price_wise_fullstack.mapper.ProductMapper;
+import com.example.price_wise_fullstack.model.Product;
+import com.example.price_wise_fullstack.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Bulk product import from a streamed JSON array or CSV file. Rows are
+ * validated one by one and written in chunks: each chunk checks name
+ * uniqueness with a single query and is inserted with JDBC batching in its
+ * own transaction. A rejected row is reported and skipped; it never aborts
+ * the rest of the import.
+ */
+@Service
+public class ProductImportService {
+    private static final int CHUNK_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private record ImportRow(long row, ProductRequestDTO product, String error) {}
+
+    private interface RowReader {
+        ImportRow next() throws IOException;
+    }
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    public ProductImportResultDTO importJson(InputStream in) throws IOException {
+        JsonParser parser = objectMapper.createParser(in);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Expected a JSON array of products");
+        }
+        long[] row = { 0 };
+        return run(() -> {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            row[0]++;
+            JsonNode node = parser.readValueAsTree();
+            try {
+                return new ImportRow(row[0], objectMapper.treeToValue(node, ProductRequestDTO.class), null);
+            } catch (JsonProcessingException e) {
+                ProductRequestDTO partial = new ProductRequestDTO();
+                partial.setName(node.path("name").asText(null));
+                return new ImportRow(row[0], partial, "Invalid value: " + e.getOriginalMessage());
+            }
+        });
+    }
+
+    public ProductImportResultDTO importCsv(InputStream in) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        List<String> header = csv.next();
+        if (header == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV header is missing");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.keySet().containsAll(List.of("name", "price", "stock"))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV header must contain name, price and stock");
+        }
+
+        long[] row = { 0 };
+        return run(() -> {
+            List<String> fields = csv.next();
+            if (fields == null) {
+                return null;
+            }
+            row[0]++;
+            ProductRequestDTO dto = new ProductRequestDTO();
+            dto.setName(column(fields, columns, "name"));
+            dto.setDescription(column(fields, columns, "description"));
+            try {
+                String price = column(fields, columns, "price");
+                String stock = column(fields, columns, "stock");
+                dto.setPrice(price != null ? new BigDecimal(price) : null);
+                dto.setStock(stock != null ? Integer.valueOf(stock) : null);
+            } catch (NumberFormatException e) {
+                return new ImportRow(row[0], dto, "Invalid number in price or stock");
+            }
+            return new ImportRow(row[0], dto, null);
+        });
+    }
+
+    private static String column(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private ProductImportResultDTO run(RowReader reader) throws IOException {
+        ProductImportResultDTO result = new ProductImportResultDTO();
+        List<ImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        ImportRow row;
+        while ((row = reader.next()) != null) {
+            String error = row.error() != null ? row.error() : validate(row.product());
+            if (error != null) {
+                reject(result, row, error);
+                continue;
+            }
+            row.product().setName(row.product().getName().trim());
+            chunk.add(row);
+            if (chunk.size() == CHUNK_SIZE) {
+                importChunk(chunk, result);
+                chunk.clear();
+            }
+        }
+        importChunk(chunk, result);
+        return result;
+    }
+
+    private String validate(ProductRequestDTO dto) {
+        Set<ConstraintViolation<ProductRequestDTO>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void importChunk(List<ImportRow> chunk, ProductImportResultDTO result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        // Duplicados dentro do próprio arquivo e contra a tabela, numa única consulta por lote
+        Map<String, ImportRow> byName = new LinkedHashMap<>();
+        for (ImportRow row : chunk) {
+            if (byName.putIfAbsent(normalize(row.product().getName()), row) != null) {
+                reject(result, row, "Nome de produto duplicado no arquivo");
+            }
+        }
+        Set<String> existing = new HashSet<>(productRepository.findExistingNames(byName.keySet()));
+        List<ImportRow> candidates = new ArrayList<>(byName.size());
+        byName.forEach((name, row) -> {
+            if (existing.contains(name)) {
+                reject(result, row, "Nome de produto já existente");
+            } else {
+                candidates.add(row);
+            }
+        });
+
+        try {
+            transaction().executeWithoutResult(status -> insert(candidates));
+            result.setImported(result.getImported() + candidates.size());
+        } catch (DataIntegrityViolationException e) {
+            // Alguém inseriu um nome concorrente: refaz linha a linha para isolar a culpada
+            for (ImportRow row : candidates) {
+                try {
+                    transaction().executeWithoutResult(status -> insert(List.of(row)));
+                    result.setImported(result.getImported() + 1);
+                } catch (DataIntegrityViolationException rowError) {
+                    reject(result, row, "Nome de produto já existente");
+                }
+            }
+        }
+    }
+
+    // Com ids de sequence o Hibernate agrupa os inserts em lotes de hibernate.jdbc.batch_size
+    private void insert(List<ImportRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<Product> products = rows.stream()
+                .map(row -> ProductMapper.toEntity(row.product()))
+                .toList();
+        productRepository.saveAllAndFlush(products);
+        entityManager.clear();
+    }
+
+    // Chamado fora de transação, cada lote (ou linha, no fallback) confirma sozinho
+    private TransactionTemplate transaction() {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase();
+    }
+
+    private static void reject(ProductImportResultDTO result, ImportRow row, String message) {
+        result.setRejected(result.getRejected() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            String name = row.product() != null ? row.product().getName() : null;
+            result.getErrors().add(new ProductImportErrorDTO(row.row(), name, message));
+        }
+    }
+}
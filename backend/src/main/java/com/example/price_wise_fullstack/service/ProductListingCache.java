@@ -0,0 +1,104 @@
+package com.example.price_wise_fullstack.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.price_wise_fullstack.dto.PaginatedResponseDTO;
+import com.example.price_wise_fullstack.dto.ProductResponseDTO;
+import com.example.price_wise_fullstack.model.Product;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded W-TinyLFU cache of listFiltered results. Concurrent misses for the
+ * same key wait for a single load, and any product write invalidates the
+ * whole cache. Hit, miss and eviction counts are published as
+ * {@code cache.*} metrics tagged {@code cache=products.listing}.
+ */
+@Component
+public class ProductListingCache implements ProductChangeSubscriber {
+
+    record ListingKey(
+        long generation,
+        String search,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        int page,
+        int limit,
+        String sortBy,
+        String sortOrder,
+        boolean fuzzy
+    ) {}
+
+    private final Cache<ListingKey, PaginatedResponseDTO<ProductResponseDTO>> cache;
+    // Cargas iniciadas antes de uma escrita ficam numa geração que ninguém mais lê
+    private final AtomicLong generation = new AtomicLong();
+
+    public ProductListingCache(
+        @Value("${pricewise.products.listing-cache.max-size:10000}") long maxSize,
+        @Value("${pricewise.products.listing-cache.ttl:60s}") Duration ttl,
+        MeterRegistry meterRegistry
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products.listing");
+    }
+
+    public PaginatedResponseDTO<ProductResponseDTO> get(
+        String search,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        int page,
+        int limit,
+        String sortBy,
+        String sortOrder,
+        boolean fuzzy,
+        Supplier<PaginatedResponseDTO<ProductResponseDTO>> loader
+    ) {
+        ListingKey key = new ListingKey(
+            generation.get(),
+            search != null && !search.isBlank() ? search.trim().toLowerCase(Locale.ROOT) : null,
+            minPrice != null ? minPrice.stripTrailingZeros() : null,
+            maxPrice != null ? maxPrice.stripTrailingZeros() : null,
+            page,
+            limit,
+            sortBy != null ? sortBy : "id",
+            sortOrder != null ? sortOrder.toLowerCase(Locale.ROOT) : "asc",
+            fuzzy
+        );
+        return cache.get(key, k -> loader.get());
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void productSaved(Product product) {
+        invalidateAll();
+    }
+
+    @Override
+    public void productRemoved(Long productId) {
+        invalidateAll();
+    }
+
+    // Leituras concorrentes podem ter cacheado o estado anterior ao commit
+    @Override
+    public void changesCommitted() {
+        invalidateAll();
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.price_wise_fullstack.service;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+
+import com.example.price_wise_fullstack.model.Product;
+
+/**
+ * Inverted index over product name and description with BM25 ranking.
+ * Every query token is matched anywhere inside the indexed terms, like the
+ * LIKE '%token%' it replaces, and all tokens must match (AND semantics).
+ * An exact term scores best, then a term starting with the token, then a
+ * term containing it. Infix matches go through a sorted map of the term
+ * suffixes, so they are a range scan like the prefix ones. Hits carry the
+ * sort fields of the product, so listings can be ordered and paged here.
+ */
+@Component
+public class ProductSearchIndex implements ProductChangeSubscriber {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int NAME_WEIGHT = 2; // termos do nome contam em dobro
+    private static final double PREFIX_MATCH_BOOST = 0.5; // completar um prefixo vale menos que o termo exato
+    private static final double INFIX_MATCH_BOOST = 0.25; // e o token no meio do termo, menos ainda
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{Alnum}]+");
+
+    public record SearchHit(Long productId, double score, BigDecimal price, String name, Integer stock, LocalDateTime createdAt) {}
+
+    private record IndexedDoc(Map<String, Integer> termFrequencies, int length, BigDecimal price,
+                              String name, Integer stock, LocalDateTime createdAt) {}
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    // Sufixos próprios de cada termo (a partir do 2º caractere) -> termos que os contêm
+    private final NavigableMap<String, Set<String>> suffixes = new TreeMap<>();
+    private final Map<Long, IndexedDoc> docs = new HashMap<>();
+    private long totalLength;
+    private volatile boolean ready;
+
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.splitAsStream(folded.toLowerCase(Locale.ROOT))
+                .filter(t -> !t.isEmpty())
+                .toList();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void catalogLoaded() {
+        ready = true;
+    }
+
+    @Override
+    public void productSaved(Product product) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        tokenize(product.getName()).forEach(t -> frequencies.merge(t, NAME_WEIGHT, Integer::sum));
+        tokenize(product.getDescription()).forEach(t -> frequencies.merge(t, 1, Integer::sum));
+        int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+
+        lock.writeLock().lock();
+        try {
+            unindex(product.getId());
+            frequencies.forEach((term, tf) -> postings.computeIfAbsent(term, this::newTerm).put(product.getId(), tf));
+            docs.put(product.getId(), new IndexedDoc(frequencies, length, product.getPrice(),
+                    product.getName(), product.getStock(), product.getCreatedAt()));
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void productRemoved(Long productId) {
+        lock.writeLock().lock();
+        try {
+            unindex(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked hits for a free-text query, best first.
+     */
+    public List<SearchHit> search(String query) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<Map<String, Double>> groups = new ArrayList<>();
+            for (String token : tokens) {
+                Map<String, Double> boosts = new HashMap<>();
+                suffixes.subMap(token, true, token + Character.MAX_VALUE, false).values()
+                        .forEach(terms -> terms.forEach(term -> boosts.put(term, INFIX_MATCH_BOOST)));
+                postings.subMap(token, true, token + Character.MAX_VALUE, false).keySet()
+                        .forEach(term -> boosts.put(term, term.equals(token) ? 1.0 : PREFIX_MATCH_BOOST));
+                groups.add(boosts);
+            }
+            return rank(groups);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked hits where each group maps the alternative exact terms for one
+     * query token to a score boost; a product must contain at least one term
+     * of every group.
+     */
+    public List<SearchHit> searchTerms(List<Map<String, Double>> termGroups) {
+        if (termGroups.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return rank(termGroups);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<SearchHit> rank(List<Map<String, Double>> termGroups) {
+        if (docs.isEmpty()) {
+            return List.of();
+        }
+        double avgLength = (double) totalLength / docs.size();
+
+        // Pontuação por grupo; começa pelo grupo mais seletivo para intersectar menos
+        List<Map<Long, Double>> groupScores = termGroups.stream()
+                .map(group -> scoreGroup(group, avgLength))
+                .sorted(Comparator.comparingInt(Map::size))
+                .toList();
+
+        Map<Long, Double> scores = new HashMap<>(groupScores.get(0));
+        for (int i = 1; i < groupScores.size() && !scores.isEmpty(); i++) {
+            Map<Long, Double> next = groupScores.get(i);
+            scores.keySet().retainAll(next.keySet());
+            scores.replaceAll((id, score) -> score + next.get(id));
+        }
+
+        return scores.entrySet().stream()
+                .map(e -> hit(e.getKey(), e.getValue()))
+                .sorted(Comparator.comparingDouble(SearchHit::score).reversed()
+                        .thenComparing(SearchHit::productId))
+                .collect(Collectors.toList());
+    }
+
+    private SearchHit hit(Long productId, double score) {
+        IndexedDoc doc = docs.get(productId);
+        return new SearchHit(productId, score, doc.price(), doc.name(), doc.stock(), doc.createdAt());
+    }
+
+    // Termo novo no vocabulário: registra os sufixos para a busca no meio do termo
+    private Map<Long, Integer> newTerm(String term) {
+        for (int i = 1; i < term.length(); i++) {
+            suffixes.computeIfAbsent(term.substring(i), k -> new HashSet<>()).add(term);
+        }
+        return new HashMap<>();
+    }
+
+    private Map<Long, Double> scoreGroup(Map<String, Double> termBoosts, double avgLength) {
+        Map<Long, Double> scores = new HashMap<>();
+        int n = docs.size();
+        for (Map.Entry<String, Double> term : termBoosts.entrySet()) {
+            Map<Long, Integer> posting = postings.get(term.getKey());
+            if (posting == null) {
+                continue;
+            }
+            double idf = Math.log(1 + (n - posting.size() + 0.5) / (posting.size() + 0.5));
+            posting.forEach((id, tf) -> {
+                double norm = K1 * (1 - B + B * docs.get(id).length() / avgLength);
+                double score = term.getValue() * idf * tf * (K1 + 1) / (tf + norm);
+                scores.merge(id, score, Math::max);
+            });
+        }
+        return scores;
+    }
+
+    private void unindex(Long productId) {
+        IndexedDoc previous = docs.remove(productId);
+        if (previous == null) {
+            return;
+        }
+        totalLength -= previous.length();
+        previous.termFrequencies().keySet().forEach(term -> {
+            Map<Long, Integer> posting = postings.get(term);
+            posting.remove(productId);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+                for (int i = 1; i < term.length(); i++) {
+                    String suffix = term.substring(i);
+                    Set<String> terms = suffixes.get(suffix);
+                    terms.remove(term);
+                    if (terms.isEmpty()) {
+                        suffixes.remove(suffix);
+                    }
+                }
+            }
+        });
+    }
+}
@@ -1,30 +1,97 @@
 package com.example.price_wise_fullstack.service;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 
 import org.springframework.data.domain.*;
 
+import com.example.price_wise_fullstack.dto.CursorPageResponseDTO;
 import com.example.price_wise_fullstack.dto.ProductRequestDTO;
 import com.example.price_wise_fullstack.dto.ProductResponseDTO;
+import com.example.price_wise_fullstack.dto.ProductSuggestionDTO;
 import com.example.price_wise_fullstack.mapper.ProductMapper;
 import com.example.price_wise_fullstack.model.Product;
 import com.example.price_wise_fullstack.repository.ProductRepository;
 import com.example.price_wise_fullstack.dto.PaginatedResponseDTO;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
 @Service
 public class ProductService {
+    // Campos aceitos na paginação por cursor: tipo do valor e como extraí-lo da última linha
+    private static final Map<String, Class<? extends Comparable<?>>> KEYSET_FIELD_TYPES = Map.of(
+        "id", Long.class,
+        "name", String.class,
+        "price", BigDecimal.class,
+        "stock", Integer.class,
+        "createdAt", LocalDateTime.class
+    );
+    private static final Map<String, Function<ProductResponseDTO, Object>> KEYSET_FIELD_VALUES = Map.of(
+        "id", ProductResponseDTO::getId,
+        "name", ProductResponseDTO::getName,
+        "price", ProductResponseDTO::getPrice,
+        "stock", ProductResponseDTO::getStock,
+        "createdAt", ProductResponseDTO::getCreatedAt
+    );
+
+    // Campos de ordenação que o índice de busca guarda em cada resultado
+    @SuppressWarnings("rawtypes")
+    private static final Map<String, Function<ProductSearchIndex.SearchHit, Comparable>> HIT_SORT_VALUES = Map.of(
+        "id", ProductSearchIndex.SearchHit::productId,
+        "name", ProductSearchIndex.SearchHit::name,
+        "price", ProductSearchIndex.SearchHit::price,
+        "stock", ProductSearchIndex.SearchHit::stock,
+        "createdAt", ProductSearchIndex.SearchHit::createdAt
+    );
+    private static final String RELEVANCE = "relevance";
+    private static final double[] FUZZY_BOOSTS = { 1.0, 0.6, 0.35 }; // por distância de edição
+
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductFuzzyMatcher fuzzyMatcher;
+
+    @Autowired
+    private ProductSuggestionIndex suggestionIndex;
+
+    @Autowired
+    private ProductListingCache listingCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Presente só com pricewise.products.columnar.enabled=true
+    @Autowired(required = false)
+    private ProductColumnStore columnStore;
+
     public ProductResponseDTO createProduct(ProductRequestDTO dto) {
         String normalizedName = dto.getName().trim().toLowerCase();
         if (productRepository.existsByNameIgnoreCase(normalizedName)) {
@@ -38,10 +105,58 @@ public class ProductService {
     }
 
     public List<ProductResponseDTO> listAll() {
-        return productRepository.findAll()
-                .stream()
-                .map(ProductMapper::toDTO)
-                .toList();
+        return productRepository.findAllProjected();
+    }
+
+    // Escreve o catálogo linha a linha direto na saída; a memória não cresce com o tamanho do catálogo
+    @Transactional(readOnly = true)
+    public void exportCatalog(String format, OutputStream out) throws IOException {
+        boolean csv = "csv".equals(format);
+        ObjectWriter json = objectMapper.writerFor(ProductResponseDTO.class);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+
+        if (csv) {
+            writer.write("id,name,description,price,stock,createdAt,updatedAt\n");
+        }
+        try (Stream<ProductResponseDTO> rows = productRepository.streamAllProjected()) {
+            for (ProductResponseDTO row : (Iterable<ProductResponseDTO>) rows::iterator) {
+                if (csv) {
+                    writeCsvRow(writer, row);
+                } else {
+                    writer.write(json.writeValueAsString(row));
+                    writer.write('\n');
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private static void writeCsvRow(Writer writer, ProductResponseDTO row) throws IOException {
+        Object[] values = { row.getId(), row.getName(), row.getDescription(), row.getPrice().toPlainString(),
+                row.getStock(), row.getCreatedAt(), row.getUpdatedAt() };
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(csvField(values[i].toString()));
+            }
+        }
+        writer.write('\n');
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    public List<ProductSuggestionDTO> suggest(String prefix, int limit) {
+        if (limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be at least 1");
+        }
+        return suggestionIndex.suggest(prefix, limit);
     }
 
     public PaginatedResponseDTO<ProductResponseDTO> listFiltered(
@@ -52,6 +167,19 @@ public class ProductService {
         int limit,
         String sortBy,
         String sortOrder
+    ) {
+        return listFiltered(search, minPrice, maxPrice, page, limit, sortBy, sortOrder, false);
+    }
+
+    public PaginatedResponseDTO<ProductResponseDTO> listFiltered(
+        String search,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        int page,
+        int limit,
+        String sortBy,
+        String sortOrder,
+        boolean fuzzy
     ) {
         if (page < 1) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page index must not be less than 1");
@@ -59,17 +187,199 @@ public class ProductService {
         if (limit < 1) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be at least 1");
         }
-        
+
         String validSortOrder = sortOrder != null ? sortOrder : "asc";
+        Sort.Direction direction = Sort.Direction.fromString(validSortOrder);
+
+        return listingCache.get(search, minPrice, maxPrice, page, limit, sortBy, validSortOrder, fuzzy,
+                () -> loadFiltered(search, minPrice, maxPrice, page, limit, sortBy, direction, fuzzy));
+    }
+
+    private PaginatedResponseDTO<ProductResponseDTO> loadFiltered(
+        String search,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        int page,
+        int limit,
+        String sortBy,
+        Sort.Direction direction,
+        boolean fuzzy
+    ) {
         String validSortBy = sortBy != null ? sortBy : "id";
-        Sort sort = Sort.by(Sort.Direction.fromString(validSortOrder), validSortBy);
+        boolean hasSearch = search != null && !search.isBlank();
+
+        if (RELEVANCE.equals(validSortBy)) {
+            if (hasSearch && searchIndex.isReady()) {
+                return pageOfHits(indexedHits(search, fuzzy, minPrice, maxPrice), page, limit);
+            }
+            validSortBy = "id";
+        }
+
+        if (hasSearch && searchIndex.isReady() && HIT_SORT_VALUES.containsKey(validSortBy)) {
+            List<ProductSearchIndex.SearchHit> hits = new ArrayList<>(indexedHits(search, fuzzy, minPrice, maxPrice));
+            hits.sort(hitOrder(validSortBy, direction));
+            return pageOfHits(hits, page, limit);
+        }
+
+        if (!hasSearch && columnStore != null) {
+            var columnar = columnStore.query(minPrice, maxPrice, page, limit, validSortBy, direction);
+            if (columnar.isPresent()) {
+                return columnar.get();
+            }
+        }
+
+        Sort sort = Sort.by(direction, validSortBy);
         Pageable pageable = PageRequest.of(page - 1, limit, sort);
 
         Specification<Product> spec = ProductSpecification.filterBy(search, minPrice, maxPrice);
-        Page<Product> resultPage = productRepository.findAll(spec, pageable);
+        return new PaginatedResponseDTO<>(productRepository.findProjected(spec, pageable));
+    }
+
+    public CursorPageResponseDTO<ProductResponseDTO> listKeyset(
+        String search,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        int limit,
+        String sortBy,
+        String sortOrder,
+        String cursor,
+        boolean includeTotal,
+        boolean fuzzy
+    ) {
+        if (limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be at least 1");
+        }
+
+        String validSortBy = sortBy != null ? sortBy : "id";
+        Class<? extends Comparable<?>> valueType = KEYSET_FIELD_TYPES.get(validSortBy);
+        if (valueType == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Sort field not supported for cursor pagination");
+        }
+        Sort.Direction direction = Sort.Direction.fromString(sortOrder != null ? sortOrder : "asc");
+
+        if (search != null && !search.isBlank() && searchIndex.isReady()) {
+            return keysetOfHits(search, fuzzy, minPrice, maxPrice, limit, validSortBy, direction, valueType, cursor, includeTotal);
+        }
+
+        Specification<Product> filter = ProductSpecification.filterBy(search, minPrice, maxPrice);
+        Specification<Product> spec = filter;
+        if (cursor != null && !cursor.isBlank()) {
+            spec = spec.and(KeysetCursor.decode(cursor, validSortBy, direction).seek(valueType));
+        }
+
+        // Busca uma linha extra para saber se existe próxima página sem precisar de count
+        Sort sort = KeysetCursor.sort(validSortBy, direction);
+        List<ProductResponseDTO> rows = productRepository.findProjected(spec, sort, limit + 1);
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            ProductResponseDTO last = rows.get(limit - 1);
+            Object lastValue = KEYSET_FIELD_VALUES.get(validSortBy).apply(last);
+            nextCursor = new KeysetCursor(validSortBy, direction, last.getId(), lastValue).encode();
+        }
+
+        Long totalItems = includeTotal ? productRepository.count(filter) : null;
+        return new CursorPageResponseDTO<>(rows, limit, nextCursor, totalItems);
+    }
+
+    // Resultados do índice na faixa de preço, do maior score BM25 para o menor
+    private List<ProductSearchIndex.SearchHit> indexedHits(String search, boolean fuzzy, BigDecimal minPrice, BigDecimal maxPrice) {
+        return searchHits(search, fuzzy).stream()
+                .filter(hit -> minPrice == null || hit.price().compareTo(minPrice) >= 0)
+                .filter(hit -> maxPrice == null || hit.price().compareTo(maxPrice) <= 0)
+                .toList();
+    }
+
+    // Mesma ordem do banco: pelo campo e, no empate, pelo id
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Comparator<ProductSearchIndex.SearchHit> hitOrder(String sortBy, Sort.Direction direction) {
+        Function<ProductSearchIndex.SearchHit, Comparable> value = HIT_SORT_VALUES.get(sortBy);
+        Comparator<Comparable> natural = Comparator.nullsFirst(Comparator.naturalOrder());
+        Comparator<ProductSearchIndex.SearchHit> byValue = (a, b) -> natural.compare(value.apply(a), value.apply(b));
+        Comparator<ProductSearchIndex.SearchHit> order = byValue.thenComparing(ProductSearchIndex.SearchHit::productId);
+        return direction.isAscending() ? order : order.reversed();
+    }
+
+    // Pagina os resultados já ordenados e só busca no banco os ids da página pedida
+    private PaginatedResponseDTO<ProductResponseDTO> pageOfHits(List<ProductSearchIndex.SearchHit> hits, int page, int limit) {
+        int from = (int) Math.min((long) (page - 1) * limit, hits.size());
+        int to = Math.min(from + limit, hits.size());
+        List<ProductResponseDTO> content = findInOrder(hits.subList(from, to));
 
-        Page<ProductResponseDTO> dtoPage = resultPage.map(ProductMapper::toDTO);
+        Page<ProductResponseDTO> dtoPage = new PageImpl<>(content, PageRequest.of(page - 1, limit), hits.size());
         return new PaginatedResponseDTO<>(dtoPage);
     }
 
+    // Página por cursor ordenada e recortada sobre os resultados do índice, sem lista de ids candidatos no banco
+    private CursorPageResponseDTO<ProductResponseDTO> keysetOfHits(
+        String search,
+        boolean fuzzy,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        int limit,
+        String sortBy,
+        Sort.Direction direction,
+        Class<? extends Comparable<?>> valueType,
+        String cursor,
+        boolean includeTotal
+    ) {
+        List<ProductSearchIndex.SearchHit> hits = new ArrayList<>(indexedHits(search, fuzzy, minPrice, maxPrice));
+        hits.sort(hitOrder(sortBy, direction));
+
+        // Busca binária pela primeira linha depois do cursor: a lista já está na ordem do cursor
+        int from = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            KeysetCursor position = KeysetCursor.decode(cursor, sortBy, direction);
+            int to = hits.size();
+            while (from < to) {
+                int mid = (from + to) >>> 1;
+                ProductSearchIndex.SearchHit hit = hits.get(mid);
+                if (position.precedes(HIT_SORT_VALUES.get(sortBy).apply(hit), hit.productId(), valueType)) {
+                    to = mid;
+                } else {
+                    from = mid + 1;
+                }
+            }
+        }
+        List<ProductSearchIndex.SearchHit> window = hits.subList(from, Math.min(from + limit + 1, hits.size()));
+        List<ProductResponseDTO> rows = findInOrder(window.subList(0, Math.min(limit, window.size())));
+
+        String nextCursor = null;
+        if (window.size() > limit && !rows.isEmpty()) {
+            ProductSearchIndex.SearchHit last = window.get(limit - 1);
+            nextCursor = new KeysetCursor(sortBy, direction, last.productId(), HIT_SORT_VALUES.get(sortBy).apply(last)).encode();
+        }
+
+        Long totalItems = includeTotal ? (long) hits.size() : null;
+        return new CursorPageResponseDTO<>(rows, limit, nextCursor, totalItems);
+    }
+
+    private List<ProductResponseDTO> findInOrder(List<ProductSearchIndex.SearchHit> hits) {
+        List<Long> ids = hits.stream().map(ProductSearchIndex.SearchHit::productId).toList();
+        Map<Long, ProductResponseDTO> products = productRepository
+                .findProjected(ProductSpecification.idIn(ids), Sort.unsorted(), ids.size()).stream()
+                .collect(Collectors.toMap(ProductResponseDTO::getId, Function.identity()));
+        return ids.stream()
+                .map(products::get)
+                .filter(p -> p != null)
+                .toList();
+    }
+
+    // No modo fuzzy cada token vira o conjunto de termos do vocabulário a até 2 edições
+    private List<ProductSearchIndex.SearchHit> searchHits(String search, boolean fuzzy) {
+        if (!fuzzy) {
+            return searchIndex.search(search);
+        }
+        List<Map<String, Double>> groups = ProductSearchIndex.tokenize(search).stream()
+                .map(token -> {
+                    Map<String, Double> boosts = new HashMap<>();
+                    boosts.put(token, 1.0);
+                    fuzzyMatcher.suggest(token).forEach((term, distance) -> boosts.merge(term, FUZZY_BOOSTS[distance], Math::max));
+                    return boosts;
+                })
+                .toList();
+        return searchIndex.searchTerms(groups);
+    }
+
 }
@@ -2,6 +2,7 @@ package com.example.price_wise_fullstack.service;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import jakarta.persistence.criteria.Predicate;
 
@@ -34,5 +35,8 @@ public class ProductSpecification {
             return cb.and(predicates.toArray(new Predicate[0]));
         };
     }
-}
 
+    public static Specification<Product> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> ids.isEmpty() ? cb.disjunction() : root.get("id").in(ids);
+    }
+}
@@ -0,0 +1,337 @@
+package com.example.price_wise_fullstack.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+import org.springframework.stereotype.Component;
+
+import com.example.price_wise_fullstack.dto.ProductSuggestionDTO;
+import com.example.price_wise_fullstack.model.Product;
+
+/**
+ * Typeahead index over product names: a radix tree where each edge holds the
+ * whole run of characters up to the next branch, so a name adds at most one
+ * split and one leaf per word instead of a node per character. Each name is
+ * inserted from the start of every word, and every node caches the top
+ * {@value #TOP_K} products below it by stock, so a lookup only walks the
+ * prefix. Nodes refer to products by int slots into a shared entry array,
+ * which keeps them to a few small primitive arrays.
+ */
+@Component
+public class ProductSuggestionIndex implements ProductChangeSubscriber {
+    public static final int TOP_K = 10;
+
+    private static final Comparator<Entry> BY_WEIGHT = Comparator.comparingInt(Entry::weight).reversed()
+            .thenComparingInt(e -> e.name().length())
+            .thenComparing(Entry::productId);
+
+    private static final int[] NO_SLOTS = new int[0];
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private record Entry(Long productId, String name, int weight) {}
+
+    private static final class Node {
+        // Trecho da chave entre o pai e este nó; keys guarda o primeiro caractere de cada filho.
+        // Os arrays de slots nunca são alterados no lugar, por isso nós diferentes podem compartilhá-los
+        private String label;
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private int[] terminals = NO_SLOTS;
+        private int[] top = NO_SLOTS;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        void addChild(Node child) {
+            int at = -Arrays.binarySearch(keys, child.label.charAt(0)) - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            newKeys[at] = child.label.charAt(0);
+            newChildren[at] = child;
+            System.arraycopy(keys, at, newKeys, at + 1, keys.length - at);
+            System.arraycopy(children, at, newChildren, at + 1, children.length - at);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        // O substituto começa pelo mesmo caractere, então a posição não muda
+        void replaceChild(Node child) {
+            children[Arrays.binarySearch(keys, child.label.charAt(0))] = child;
+        }
+
+        void removeChild(char c) {
+            int at = Arrays.binarySearch(keys, c);
+            if (keys.length == 1) {
+                keys = NO_KEYS;
+                children = NO_CHILDREN;
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            System.arraycopy(keys, at + 1, newKeys, at, keys.length - at - 1);
+            System.arraycopy(children, at + 1, newChildren, at, children.length - at - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        boolean isEmpty() {
+            return keys.length == 0 && terminals.length == 0;
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node("");
+    private final Map<Long, Integer> slotOf = new HashMap<>();
+    private Entry[] entries = new Entry[1024];
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int nextSlot;
+
+    @Override
+    public void productSaved(Product product) {
+        Entry entry = new Entry(product.getId(), product.getName(), product.getStock() != null ? product.getStock() : 0);
+        lock.writeLock().lock();
+        try {
+            remove(product.getId());
+            int slot = allocate(entry);
+            for (String key : keys(entry.name())) {
+                insert(key, slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void productRemoved(Long productId) {
+        lock.writeLock().lock();
+        try {
+            remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<ProductSuggestionDTO> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Node node = find(key);
+            if (node == null) {
+                return List.of();
+            }
+            int[] top = node.top;
+            int n = Math.min(Math.min(limit, TOP_K), top.length);
+            List<ProductSuggestionDTO> suggestions = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                Entry e = entries[top[i]];
+                suggestions.add(new ProductSuggestionDTO(e.productId(), e.name(), e.weight()));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Nó cujo caminho começa com a chave; a chave pode terminar no meio de uma aresta
+    private Node find(String key) {
+        Node node = root;
+        int at = 0;
+        while (at < key.length()) {
+            node = node.child(key.charAt(at));
+            if (node == null) {
+                return null;
+            }
+            int common = commonPrefix(node.label, key, at);
+            if (at + common == key.length()) {
+                return node;
+            }
+            if (common < node.label.length()) {
+                return null;
+            }
+            at += common;
+        }
+        return node;
+    }
+
+    private void insert(String key, int slot) {
+        Node node = root;
+        offer(node, slot);
+        int at = 0;
+        while (at < key.length()) {
+            Node child = node.child(key.charAt(at));
+            if (child == null) {
+                child = new Node(key.substring(at));
+                node.addChild(child);
+                at = key.length();
+            } else {
+                int common = commonPrefix(child.label, key, at);
+                if (common < child.label.length()) {
+                    // Quebra a aresta: o nó do meio herda o top-k de quem estava abaixo
+                    Node middle = new Node(child.label.substring(0, common));
+                    middle.top = child.top;
+                    child.label = child.label.substring(common);
+                    middle.addChild(child);
+                    node.replaceChild(middle);
+                    child = middle;
+                }
+                at += common;
+            }
+            node = child;
+            offer(node, slot);
+        }
+        // Folha de um produto só: terminais e top-k são o mesmo array
+        node.terminals = node.terminals.length == 0 && node.top.length == 1 ? node.top : append(node.terminals, slot);
+    }
+
+    private void remove(Long productId) {
+        Integer slot = slotOf.remove(productId);
+        if (slot == null) {
+            return;
+        }
+        for (String key : keys(entries[slot].name())) {
+            removeFromPath(key, slot);
+        }
+        entries[slot] = null;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    // Remove o produto do terminal, junta arestas que ficaram com um filho só e recalcula o top-k no caminho
+    private void removeFromPath(String key, int slot) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int at = 0;
+        while (at < key.length()) {
+            node = node.child(key.charAt(at));
+            if (node == null || !key.startsWith(node.label, at)) {
+                return;
+            }
+            path.add(node);
+            at += node.label.length();
+        }
+        node.terminals = without(node.terminals, slot);
+
+        for (int depth = path.size() - 1; depth >= 0; depth--) {
+            Node current = path.get(depth);
+            if (depth > 0 && current.isEmpty()) {
+                path.get(depth - 1).removeChild(current.label.charAt(0));
+                continue;
+            }
+            if (depth > 0 && current.terminals.length == 0 && current.children.length == 1) {
+                Node only = current.children[0];
+                only.label = current.label + only.label;
+                path.get(depth - 1).replaceChild(only);
+                continue;
+            }
+            recompute(current);
+        }
+    }
+
+    private int allocate(Entry entry) {
+        int slot = freeCount > 0 ? freeSlots[--freeCount] : nextSlot++;
+        if (slot == entries.length) {
+            entries = Arrays.copyOf(entries, entries.length * 2);
+        }
+        entries[slot] = entry;
+        slotOf.put(entry.productId(), slot);
+        return slot;
+    }
+
+    private int compare(int a, int b) {
+        return BY_WEIGHT.compare(entries[a], entries[b]);
+    }
+
+    private void offer(Node node, int slot) {
+        int[] top = node.top;
+        for (int s : top) {
+            if (s == slot) {
+                return;
+            }
+        }
+        if (top.length == TOP_K && compare(slot, top[TOP_K - 1]) > 0) {
+            return;
+        }
+        int at = 0;
+        while (at < top.length && compare(top[at], slot) < 0) {
+            at++;
+        }
+        int[] updated = new int[Math.min(top.length + 1, TOP_K)];
+        System.arraycopy(top, 0, updated, 0, at);
+        updated[at] = slot;
+        System.arraycopy(top, at, updated, at + 1, updated.length - at - 1);
+        node.top = updated;
+    }
+
+    private void recompute(Node node) {
+        IntStream candidates = Arrays.stream(node.terminals);
+        for (Node child : node.children) {
+            candidates = IntStream.concat(candidates, Arrays.stream(child.top));
+        }
+        int[] top = candidates.distinct().boxed()
+                .sorted(this::compare)
+                .limit(TOP_K)
+                .mapToInt(Integer::intValue)
+                .toArray();
+        node.top = top.length == 0 ? NO_SLOTS : top;
+    }
+
+    private static int commonPrefix(String label, String key, int from) {
+        int max = Math.min(label.length(), key.length() - from);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(from + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int[] append(int[] slots, int slot) {
+        int[] updated = Arrays.copyOf(slots, slots.length + 1);
+        updated[slots.length] = slot;
+        return updated;
+    }
+
+    private static int[] without(int[] slots, int slot) {
+        int[] updated = Arrays.stream(slots).filter(s -> s != slot).toArray();
+        return updated.length == 0 ? NO_SLOTS : updated;
+    }
+
+    // Chaves: o nome normalizado a partir do início de cada palavra
+    private static List<String> keys(String name) {
+        List<String> tokens = ProductSearchIndex.tokenize(name);
+        List<String> keys = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            keys.add(String.join(" ", tokens.subList(i, tokens.size())));
+        }
+        return keys.stream().distinct().toList();
+    }
+
+    private static String normalize(String text) {
+        String key = String.join(" ", ProductSearchIndex.tokenize(text));
+        // Mantém o espaço final para sugerir apenas a próxima palavra ("mouse " não casa "mousepad")
+        return text != null && !key.isEmpty() && text.endsWith(" ") ? key + " " : key;
+    }
+}
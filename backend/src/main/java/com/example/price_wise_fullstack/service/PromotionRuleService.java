@@ -0,0 +1,76 @@
+package com.example.price_wise_fullstack.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.price_wise_fullstack.dto.PromotionRuleRequestDTO;
+import com.example.price_wise_fullstack.dto.PromotionRuleResponseDTO;
+import com.example.price_wise_fullstack.mapper.PromotionRuleMapper;
+import com.example.price_wise_fullstack.model.PromotionRule;
+import com.example.price_wise_fullstack.repository.PromotionRuleRepository;
+
+@Service
+public class PromotionRuleService {
+
+    @Autowired
+    private PromotionRuleRepository ruleRepository;
+
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    @Transactional
+    public PromotionRuleResponseDTO create(PromotionRuleRequestDTO dto) {
+        validate(dto);
+        PromotionRule rule = new PromotionRule();
+        PromotionRuleMapper.copyToEntity(dto, rule);
+        PromotionRule saved = ruleRepository.save(rule);
+        pricingEngine.invalidate();
+        return PromotionRuleMapper.toDTO(saved);
+    }
+
+    @Transactional
+    public PromotionRuleResponseDTO update(Long id, PromotionRuleRequestDTO dto) {
+        validate(dto);
+        PromotionRule rule = ruleRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Promotion rule not found"));
+        PromotionRuleMapper.copyToEntity(dto, rule);
+        PromotionRule saved = ruleRepository.save(rule);
+        pricingEngine.invalidate();
+        return PromotionRuleMapper.toDTO(saved);
+    }
+
+    @Transactional
+    public void delete(Long id) {
+        if (!ruleRepository.existsById(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Promotion rule not found");
+        }
+        ruleRepository.deleteById(id);
+        pricingEngine.invalidate();
+    }
+
+    @Transactional(readOnly = true)
+    public List<PromotionRuleResponseDTO> listAll() {
+        return ruleRepository.findAllByOrderByPriorityDescIdAsc().stream().map(PromotionRuleMapper::toDTO).toList();
+    }
+
+    private void validate(PromotionRuleRequestDTO dto) {
+        if (PricingRule.BUY_X_GET_Y.equals(dto.getAction())) {
+            if (dto.getBuyQuantity() == null || dto.getGetQuantity() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "buyQuantity and getQuantity are required for buy_x_get_y");
+            }
+            return;
+        }
+        if (dto.getValue() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "value is required for percent and fixed rules");
+        }
+        if (PricingRule.PERCENT.equals(dto.getAction()) && dto.getValue().compareTo(BigDecimal.valueOf(100)) > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Percent value cannot exceed 100");
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.price_wise_fullstack.service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Scalable Bloom filter (Almeida et al.) over strings. When the current
+ * stage reaches its capacity a new stage is added, with twice the capacity
+ * and half the false-positive rate. The compound rate therefore stays below
+ * the configured one however many entries are added. Lookups are lock-free.
+ * Adds are serialized by the caller.
+ */
+final class ScalableBloomFilter {
+
+    private static final double LN2_SQUARED = Math.log(2) * Math.log(2);
+
+    private static final class Stage {
+        final AtomicLongArray words;
+        final long bits;
+        final int hashes;
+        final long capacity;
+        long count;
+
+        Stage(long capacity, double fpp) {
+            this.capacity = capacity;
+            long m = (long) Math.ceil(-capacity * Math.log(fpp) / LN2_SQUARED);
+            this.bits = Math.max(64, (m + 63) & ~63L);
+            this.hashes = Math.max(1, (int) Math.ceil(-Math.log(fpp) / Math.log(2)));
+            this.words = new AtomicLongArray((int) (bits >>> 6));
+        }
+
+        boolean mightContain(long h1, long h2) {
+            for (int i = 0; i < hashes; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void add(long h1, long h2) {
+            for (int i = 0; i < hashes; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+                long mask = 1L << bit;
+                words.getAndAccumulate((int) (bit >>> 6), mask, (w, m) -> w | m);
+            }
+            count++;
+        }
+    }
+
+    private final List<Stage> stages = new CopyOnWriteArrayList<>();
+    private final double firstStageFpp;
+    private long size;
+
+    ScalableBloomFilter(long initialCapacity, double fpp) {
+        if (initialCapacity <= 0 || fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("initialCapacity must be positive and fpp in (0, 1)");
+        }
+        // Razão 1/2 entre estágios: a soma das taxas converge para 2 * firstStageFpp = fpp
+        this.firstStageFpp = fpp / 2;
+        stages.add(new Stage(initialCapacity, firstStageFpp));
+    }
+
+    boolean mightContain(String value) {
+        long h1 = hash(value);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (Stage stage : stages) {
+            if (stage.mightContain(h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void add(String value) {
+        long h1 = hash(value);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        Stage last = stages.get(stages.size() - 1);
+        if (last.mightContain(h1, h2)) {
+            return;
+        }
+        if (last.count >= last.capacity) {
+            last = new Stage(last.capacity * 2, firstStageFpp / (1L << Math.min(stages.size(), 30)));
+            stages.add(last);
+        }
+        last.add(h1, h2);
+        size++;
+    }
+
+    long size() {
+        return size;
+    }
+
+    int stageCount() {
+        return stages.size();
+    }
+
+    long bitCount() {
+        return stages.stream().mapToLong(s -> s.bits).sum();
+    }
+
+    // FNV-1a seguido do finalizador do SplitMix64
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
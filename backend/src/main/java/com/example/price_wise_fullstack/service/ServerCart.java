@@ -0,0 +1,138 @@
+package com.example.price_wise_fullstack.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.example.price_wise_fullstack.dto.CartDTO;
+
+/**
+ * One shopper's cart, held by {@link CartStore}. The subtotal, the item
+ * count and the {@link PricingPlan.Tally} are kept up to date by applying
+ * only the difference of the line that changed, so no change or read walks
+ * the whole cart to price it. Lines keep the unit price read when they were
+ * last set; orders still price from the catalog.
+ */
+final class ServerCart {
+
+    record Snapshot(Map<Long, Integer> items, String couponCode, long version) {}
+
+    private final Map<Long, PricingLine> lines = new LinkedHashMap<>();
+    private final Map<Long, String> names = new HashMap<>();
+    private long subtotal;
+    private int itemCount;
+    private String couponCode;
+    private PricingPlan.Tally tally;
+    // Incrementada a cada alteração; a gravação em segundo plano só limpa a versão que gravou
+    private long version;
+
+    synchronized void add(Long productId, String name, long unitCents, int quantity) {
+        PricingLine current = lines.get(productId);
+        set(productId, name, unitCents, Math.addExact(current != null ? current.quantity() : 0, quantity));
+    }
+
+    synchronized boolean setQuantity(Long productId, int quantity) {
+        PricingLine current = lines.get(productId);
+        if (current == null) {
+            return false;
+        }
+        set(productId, names.get(productId), current.unitCents(), quantity);
+        return true;
+    }
+
+    synchronized boolean remove(Long productId) {
+        return setQuantity(productId, 0);
+    }
+
+    synchronized void setCouponCode(String couponCode) {
+        this.couponCode = couponCode;
+    }
+
+    synchronized void clear() {
+        lines.clear();
+        names.clear();
+        subtotal = 0;
+        itemCount = 0;
+        couponCode = null;
+        tally = null;
+    }
+
+    synchronized void changed() {
+        version++;
+    }
+
+    synchronized long version() {
+        return version;
+    }
+
+    synchronized long subtotal() {
+        return subtotal;
+    }
+
+    synchronized Snapshot snapshot() {
+        Map<Long, Integer> items = new LinkedHashMap<>();
+        lines.forEach((id, line) -> items.put(id, line.quantity()));
+        return new Snapshot(items, couponCode, version);
+    }
+
+    // Troca a linha inteira: retira a contribuição antiga e soma a nova
+    private void set(Long productId, String name, long unitCents, int quantity) {
+        PricingLine previous = quantity > 0
+                ? lines.put(productId, new PricingLine(productId, unitCents, quantity))
+                : lines.remove(productId);
+        if (previous != null) {
+            subtotal -= previous.amount();
+            itemCount -= previous.quantity();
+            if (tally != null) {
+                tally.add(productId, previous.unitCents(), -previous.quantity());
+            }
+        }
+        if (quantity > 0) {
+            names.put(productId, name);
+            subtotal = Math.addExact(subtotal, Money.times(unitCents, quantity));
+            itemCount += quantity;
+            if (tally != null) {
+                tally.add(productId, unitCents, quantity);
+            }
+        } else {
+            names.remove(productId);
+        }
+    }
+
+    /**
+     * Prices the cart under the current plan. The tally is rebuilt from the
+     * lines only when the promotion rules were recompiled since the last
+     * read. An unknown or inactive coupon is left out of the price.
+     */
+    synchronized CartDTO view(PricingPlan plan, Function<String, PricingRule> activeCoupon) {
+        if (tally == null || !tally.compiledBy(plan)) {
+            tally = plan.tally(lines.values());
+        }
+        PricingRule coupon = couponCode != null ? activeCoupon.apply(couponCode) : null;
+        PricingResult price = plan.evaluate(tally, lines.values(), coupon);
+
+        List<CartDTO.CartItemDTO> items = new ArrayList<>(lines.size());
+        for (PricingLine line : lines.values()) {
+            CartDTO.CartItemDTO item = new CartDTO.CartItemDTO();
+            item.setProductId(line.productId());
+            item.setName(names.get(line.productId()));
+            item.setUnitPrice(Money.toDecimal(line.unitCents()));
+            item.setQuantity(line.quantity());
+            item.setAmount(Money.toDecimal(line.amount()));
+            items.add(item);
+        }
+
+        CartDTO dto = new CartDTO();
+        dto.setItems(items);
+        dto.setItemCount(itemCount);
+        dto.setTotalOriginal(Money.toDecimal(price.subtotal()));
+        dto.setDiscountAmount(Money.toDecimal(price.discount()));
+        dto.setTotalWithDiscount(Money.toDecimal(price.total()));
+        dto.setAppliedCoupon(coupon != null ? couponCode : null);
+        dto.setAppliedPromotions(price.promotionNames());
+        return dto;
+    }
+}
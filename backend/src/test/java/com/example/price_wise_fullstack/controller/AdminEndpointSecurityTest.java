@@ -0,0 +1,96 @@
+package com.example.price_wise_fullstack.controller;
+
+import com.example.price_wise_fullstack.model.User;
+import com.example.price_wise_fullstack.repository.UserRepository;
+import com.example.price_wise_fullstack.security.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@SuppressWarnings("null")
+class AdminEndpointSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User cliente;
+    private User admin;
+
+    @BeforeEach
+    void setup() {
+        cliente = usuario("cliente-admin-rotas@example.com", User.Role.USER);
+        admin = usuario("admin-rotas@example.com", User.Role.ADMIN);
+    }
+
+    @AfterEach
+    void cleanup() {
+        userRepository.delete(cliente);
+        userRepository.delete(admin);
+    }
+
+    private User usuario(String email, User.Role role) {
+        User user = new User();
+        user.setName("Usuário " + role);
+        user.setEmail(email);
+        user.setPassword("x");
+        user.setRole(role);
+        return userRepository.save(user);
+    }
+
+    private String token(User user) {
+        return "Bearer " + jwtUtil.generateToken(user.getEmail(), user.getRole().name());
+    }
+
+    @Test
+    void naoDevePermitirGeracaoDeCuponsEmLoteParaCliente() throws Exception {
+        mockMvc.perform(post("/api/v1/coupons/batch")
+                        .header("Authorization", token(cliente))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void devePermitirGeracaoDeCuponsEmLoteParaAdmin() throws Exception {
+        // Corpo vazio: passa pela autorização e para na validação, sem gerar cupons
+        mockMvc.perform(post("/api/v1/coupons/batch")
+                        .header("Authorization", token(admin))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void naoDevePermitirImportacaoDeProdutosParaCliente() throws Exception {
+        mockMvc.perform(post("/api/v1/products/import")
+                        .header("Authorization", token(cliente))
+                        .contentType("text/csv")
+                        .content("name,price,stock\nImportado indevido,10.00,1\n"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void devePermitirImportacaoDeProdutosParaAdmin() throws Exception {
+        mockMvc.perform(post("/api/v1/products/import")
+                        .header("Authorization", token(admin))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isOk());
+    }
+}
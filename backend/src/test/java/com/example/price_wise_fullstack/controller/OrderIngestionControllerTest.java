@@ -0,0 +1,115 @@
+package com.example.price_wise_fullstack.controller;
+
+import com.example.price_wise_fullstack.dto.OrderRequestDTO;
+import com.example.price_wise_fullstack.model.Product;
+import com.example.price_wise_fullstack.model.User;
+import com.example.price_wise_fullstack.repository.OrderRepository;
+import com.example.price_wise_fullstack.repository.ProductRepository;
+import com.example.price_wise_fullstack.repository.UserRepository;
+import com.example.price_wise_fullstack.security.JwtUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+// Pool menor que o número de requisições simultâneas: se a requisição segurasse uma conexão
+// enquanto espera o lote, o writer ficaria sem conexão e os pedidos falhariam por timeout
+@SpringBootTest(properties = {
+    "pricewise.orders.ingest.enabled=true",
+    "spring.datasource.hikari.maximum-pool-size=2",
+    "spring.datasource.hikari.connection-timeout=1000"
+})
+@AutoConfigureMockMvc
+@SuppressWarnings("null")
+class OrderIngestionControllerTest {
+
+    private static final int REQUESTS = 12;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private User user;
+    private Product produto;
+    private final List<Long> pedidos = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        user = new User();
+        user.setName("Comprador fila");
+        user.setEmail("fila-pedidos@example.com");
+        user.setPassword("x");
+        user = userRepository.save(user);
+        produto = productRepository.save(new Product("Produto fila web", null, new BigDecimal("30.00"), 1000));
+    }
+
+    @AfterEach
+    void cleanup() {
+        orderRepository.deleteAllById(pedidos);
+        productRepository.delete(produto);
+        userRepository.delete(user);
+    }
+
+    @Test
+    void deveAtenderPedidosSimultaneosComPoolMenorQueAsRequisicoes() throws Exception {
+        OrderRequestDTO.OrderItemDTO item = new OrderRequestDTO.OrderItemDTO();
+        item.setProductId(produto.getId());
+        item.setQuantity(1);
+        OrderRequestDTO pedido = new OrderRequestDTO();
+        pedido.setItems(List.of(item));
+        String body = objectMapper.writeValueAsString(pedido);
+        String token = jwtUtil.generateToken(user.getEmail(), "USER");
+
+        ExecutorService clientes = Executors.newFixedThreadPool(REQUESTS);
+        try {
+            List<Future<MockHttpServletResponse>> respostas = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                respostas.add(clientes.submit(() -> mockMvc.perform(post("/api/v1/orders")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body)).andReturn().getResponse()));
+            }
+            for (Future<MockHttpServletResponse> resposta : respostas) {
+                MockHttpServletResponse response = resposta.get(30, TimeUnit.SECONDS);
+                if (response.getStatus() == 201) {
+                    pedidos.add(objectMapper.readTree(response.getContentAsString()).get("orderId").asLong());
+                }
+                assertEquals(201, response.getStatus(), response.getContentAsString());
+            }
+        } finally {
+            clientes.shutdownNow();
+        }
+        assertEquals(REQUESTS, pedidos.stream().distinct().count());
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.price_wise_fullstack.service;
+
+import com.example.price_wise_fullstack.model.Coupon;
+import com.example.price_wise_fullstack.repository.CouponRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sem transação de teste: o índice só recebe cupons confirmados
+@SpringBootTest
+class BestCouponFinderTest {
+
+    @Autowired
+    private BestCouponFinder finder;
+
+    @Autowired
+    private CouponLifecycle couponLifecycle;
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    private final List<Coupon> criados = new ArrayList<>();
+
+    @AfterEach
+    void cleanup() {
+        couponRepository.deleteAll(criados);
+    }
+
+    private Coupon cupom(String codigo, String tipo, String valor, LocalDateTime fim, Integer maximo) {
+        Coupon coupon = new Coupon();
+        coupon.setCode(codigo);
+        coupon.setType(tipo);
+        coupon.setDiscountValue(new BigDecimal(valor));
+        coupon.setOneShot(false);
+        coupon.setValidFrom(LocalDateTime.now().minusDays(1));
+        coupon.setValidUntil(fim);
+        coupon.setMaxRedemptions(maximo);
+        coupon.setRedemptionCount(0);
+        Coupon saved = couponRepository.saveAndFlush(coupon);
+        criados.add(saved);
+        return saved;
+    }
+
+    // Só os cupons deste teste, na ordem do ranking
+    private List<String> ranking(long totalCents, String prefixo) {
+        return finder.top(totalCents, totalCents, 10_000).stream()
+                .map(r -> r.coupon().getCode().toUpperCase())
+                .filter(c -> c.startsWith(prefixo))
+                .toList();
+    }
+
+    @Test
+    void deveAcompanharAlteracoesDoConjuntoAtivoSemReconstruir() {
+        LocalDateTime fim = LocalDateTime.now().plusDays(1);
+        Coupon fixo = cupom("RANK-FIXO", "fixed", "30", fim, null);
+        Coupon percentual = cupom("RANK-PCT", "percent", "50", fim, null);
+
+        assertEquals(List.of("RANK-PCT", "RANK-FIXO"), ranking(100_00, "RANK-"));
+
+        // Valor novo: sai e entra de novo no índice com a chave nova
+        fixo.setDiscountValue(new BigDecimal("80"));
+        couponRepository.saveAndFlush(fixo);
+        assertEquals(List.of("RANK-FIXO", "RANK-PCT"), ranking(100_00, "RANK-"));
+
+        percentual.setDeletedAt(LocalDateTime.now());
+        couponRepository.saveAndFlush(percentual);
+        assertEquals(List.of("RANK-FIXO"), ranking(100_00, "RANK-"));
+    }
+
+    @Test
+    void deveIgnorarCupomEsgotadoPelaContagemAtual() {
+        Coupon limitado = cupom("LIMITE-1", "fixed", "40", LocalDateTime.now().plusDays(1), 1);
+        cupom("LIMITE-OUTRO", "fixed", "10", LocalDateTime.now().plusDays(1), null);
+        assertEquals(List.of("LIMITE-1", "LIMITE-OUTRO"), ranking(100_00, "LIMITE-"));
+
+        // O resgate só atualiza a visão; o ranking lê a contagem no merge
+        couponLifecycle.redeemed(limitado.getId());
+        assertEquals(List.of("LIMITE-OUTRO"), ranking(100_00, "LIMITE-"));
+    }
+
+    @Test
+    void deveTirarCupomExpiradoPelaRoda() throws InterruptedException {
+        cupom("EXPIRA-JA", "fixed", "25", LocalDateTime.now().plusSeconds(1), null);
+        assertEquals(List.of("EXPIRA-JA"), ranking(100_00, "EXPIRA-"));
+
+        long limite = System.currentTimeMillis() + 5000;
+        while (!ranking(100_00, "EXPIRA-").isEmpty() && System.currentTimeMillis() < limite) {
+            Thread.sleep(50);
+        }
+        assertEquals(List.of(), ranking(100_00, "EXPIRA-"));
+    }
+
+    @Test
+    void deveLimitarDescontoAoQueSobraDasPromocoes() {
+        LocalDateTime fim = LocalDateTime.now().plusDays(1);
+        cupom("SOBRA-FIXO", "fixed", "45", fim, null);
+        cupom("SOBRA-PCT", "percent", "20", fim, null);
+
+        // Subtotal de 350 com 300 de promoção: 20% de 350 é 70, mas só restam 50
+        List<BestCouponFinder.RankedCoupon> ranking = finder.top(350_00, 50_00, 10_000).stream()
+                .filter(r -> r.coupon().getCode().toUpperCase().startsWith("SOBRA-"))
+                .toList();
+
+        assertEquals(List.of("SOBRA-PCT", "SOBRA-FIXO"),
+                ranking.stream().map(r -> r.coupon().getCode().toUpperCase()).toList());
+        assertEquals(List.of(50_00L, 45_00L), ranking.stream().map(BestCouponFinder.RankedCoupon::discountCents).toList());
+    }
+
+    @Test
+    void naoDeveListarCuponsDeUsoUnicoNemGeradosEmLote() {
+        LocalDateTime fim = LocalDateTime.now().plusDays(1);
+        cupom("PUBLICO-10", "fixed", "10", fim, null);
+        Coupon unico = cupom("PUBLICO-UNICO", "fixed", "90", fim, null);
+        unico.setOneShot(true);
+        couponRepository.saveAndFlush(unico);
+        Coupon lote = cupom("PUBLICO-LOTE", "fixed", "80", fim, null);
+        lote.setBatchId(1L);
+        couponRepository.saveAndFlush(lote);
+
+        // Códigos de destinatário certo não aparecem para qualquer comprador
+        assertEquals(List.of("PUBLICO-10"), ranking(100_00, "PUBLICO-"));
+    }
+}
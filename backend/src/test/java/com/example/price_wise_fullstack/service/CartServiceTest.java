@@ -1,7 +1,9 @@
 package com.example.price_wise_fullstack.service;
 
+import com.example.price_wise_fullstack.dto.BestCouponRequestDTO;
 import com.example.price_wise_fullstack.dto.CartRequestDTO;
 import com.example.price_wise_fullstack.dto.CartSummaryDTO;
+import com.example.price_wise_fullstack.dto.PromotionRuleRequestDTO;
 import com.example.price_wise_fullstack.model.Coupon;
 import com.example.price_wise_fullstack.model.Product;
 import com.example.price_wise_fullstack.repository.CouponRepository;
@@ -33,6 +35,9 @@ class CartServiceTest {
     @Autowired
     private CouponRepository couponRepository;
 
+    @Autowired
+    private PromotionRuleService promotionRuleService;
+
     private Product produto1, produto2;
     private Coupon cupom;
 
@@ -180,4 +185,79 @@ class CartServiceTest {
         assertEquals("desc10", result.getAppliedCoupon());
         assertEquals(new BigDecimal("10.00"), result.getDiscountAmount());
     }
+
+    private void cupomExtra(String codigo, String tipo, String valor, LocalDateTime fim, Integer max, int usados) {
+        Coupon c = new Coupon();
+        c.setCode(codigo);
+        c.setType(tipo);
+        c.setDiscountValue(new BigDecimal(valor));
+        c.setOneShot(false);
+        c.setValidFrom(LocalDateTime.now().minusDays(2));
+        c.setValidUntil(fim);
+        c.setMaxRedemptions(max);
+        c.setRedemptionCount(usados);
+        couponRepository.save(c);
+    }
+
+    @Test
+    void deveOrdenarMelhoresCuponsPeloDescontoReal() {
+        LocalDateTime futuro = LocalDateTime.now().plusDays(5);
+        cupomExtra("GRANDE", "fixed", "500", futuro, null, 0);
+        cupomExtra("METADE", "percent", "50", futuro, null, 0);
+        cupomExtra("MEDIO", "fixed", "40", futuro, null, 0);
+        cupomExtra("VENCIDO", "fixed", "1000", LocalDateTime.now().minusDays(1), null, 0);
+        cupomExtra("ESGOTADO", "fixed", "400", futuro, 1, 1);
+
+        BestCouponRequestDTO dto = new BestCouponRequestDTO();
+        dto.setProductIds(List.of(produto1.getId(), produto2.getId()));
+        dto.setLimit(4);
+
+        List<CartSummaryDTO> result = cartService.bestCoupons(dto);
+
+        assertEquals(List.of("grande", "metade", "medio", "desc10"),
+                result.stream().map(CartSummaryDTO::getAppliedCoupon).toList());
+        assertEquals(0, result.get(0).getTotalWithDiscount().compareTo(BigDecimal.ZERO));
+        assertEquals(0, result.get(1).getTotalWithDiscount().compareTo(new BigDecimal("175")));
+    }
+
+    @Test
+    void deveLimitarQuantidadeDeCuponsSugeridos() {
+        cupomExtra("OUTRO5", "fixed", "5", LocalDateTime.now().plusDays(5), null, 0);
+
+        BestCouponRequestDTO dto = new BestCouponRequestDTO();
+        dto.setProductIds(List.of(produto1.getId()));
+        dto.setLimit(1);
+
+        List<CartSummaryDTO> result = cartService.bestCoupons(dto);
+
+        assertEquals(1, result.size());
+        assertEquals("desc10", result.get(0).getAppliedCoupon());
+    }
+
+    @Test
+    void deveOrdenarCuponsPeloQueSobraDasPromocoes() {
+        PromotionRuleRequestDTO promocao = new PromotionRuleRequestDTO();
+        promocao.setName("Queima de estoque");
+        promocao.setAction("fixed");
+        promocao.setValue(new BigDecimal("300"));
+        promotionRuleService.create(promocao);
+
+        LocalDateTime futuro = LocalDateTime.now().plusDays(5);
+        cupomExtra("QUASE", "fixed", "45", futuro, null, 0);
+        cupomExtra("VINTE", "percent", "20", futuro, null, 0);
+
+        BestCouponRequestDTO dto = new BestCouponRequestDTO();
+        dto.setProductIds(List.of(produto1.getId(), produto2.getId()));
+        dto.setLimit(3);
+
+        List<CartSummaryDTO> result = cartService.bestCoupons(dto);
+
+        // 350 - 300 da promoção deixa 50: o cupom só pode descontar até isso
+        assertEquals(List.of("vinte", "quase", "desc10"),
+                result.stream().map(CartSummaryDTO::getAppliedCoupon).toList());
+        assertEquals(List.of("Queima de estoque"), result.get(0).getAppliedPromotions());
+        assertEquals(0, result.get(0).getTotalWithDiscount().compareTo(BigDecimal.ZERO));
+        assertEquals(0, result.get(1).getTotalWithDiscount().compareTo(new BigDecimal("5")));
+        assertEquals(0, result.get(2).getTotalWithDiscount().compareTo(new BigDecimal("15")));
+    }
 }
@@ -0,0 +1,222 @@
+package com.example.price_wise_fullstack.service;
+
+import com.example.price_wise_fullstack.dto.CartDTO;
+import com.example.price_wise_fullstack.dto.CartItemRequestDTO;
+import com.example.price_wise_fullstack.dto.PromotionRuleRequestDTO;
+import com.example.price_wise_fullstack.model.Coupon;
+import com.example.price_wise_fullstack.model.Product;
+import com.example.price_wise_fullstack.repository.CouponRepository;
+import com.example.price_wise_fullstack.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Gravação em segundo plano desligada: o teste chama flush() quando quer
+@SpringBootTest(properties = "pricewise.cart.snapshot-interval=1h")
+@Transactional
+class CartStoreTest {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    @Autowired
+    private PromotionRuleService promotionRuleService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    private Product produto(String nome, String preco) {
+        return productRepository.save(new Product(nome, null, new BigDecimal(preco), 100));
+    }
+
+    private CartItemRequestDTO item(Long produto, int quantidade) {
+        CartItemRequestDTO dto = new CartItemRequestDTO();
+        dto.setProductId(produto);
+        dto.setQuantity(quantidade);
+        return dto;
+    }
+
+    @Test
+    void deveManterTotaisIguaisAoRecalculoACadaAlteracao() {
+        List<Product> produtos = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            produtos.add(produto("Item " + i, (10 + 7 * i) + ".99"));
+        }
+        PromotionRuleRequestDTO acima = new PromotionRuleRequestDTO();
+        acima.setName("Acima de 150");
+        acima.setMinCartValue(new BigDecimal("150"));
+        acima.setAction("fixed");
+        acima.setValue(new BigDecimal("15"));
+        acima.setStackable(true);
+        promotionRuleService.create(acima);
+        PromotionRuleRequestDTO combo = new PromotionRuleRequestDTO();
+        combo.setName("Combo");
+        combo.setProductIds(Set.of(produtos.get(0).getId(), produtos.get(1).getId()));
+        combo.setMinQuantity(3);
+        combo.setAction("percent");
+        combo.setValue(new BigDecimal("12.5"));
+        combo.setStackable(true);
+        promotionRuleService.create(combo);
+
+        String dono = "incremental@example.com";
+        Random random = new Random(7);
+        CartDTO cart = cartService.getCart(dono);
+        for (int passo = 0; passo < 300; passo++) {
+            Long produto = produtos.get(random.nextInt(produtos.size())).getId();
+            int op = random.nextInt(3);
+            boolean noCarrinho = cart.getItems().stream().anyMatch(i -> i.getProductId().equals(produto));
+            if (op == 0 || !noCarrinho) {
+                cart = cartService.addItem(dono, item(produto, 1 + random.nextInt(3)));
+            } else if (op == 1) {
+                cart = cartService.updateQuantity(dono, produto, random.nextInt(5));
+            } else {
+                cart = cartService.removeItem(dono, produto);
+            }
+
+            List<PricingLine> linhas = cart.getItems().stream()
+                    .map(i -> new PricingLine(i.getProductId(), Money.toCents(i.getUnitPrice()), i.getQuantity()))
+                    .toList();
+            PricingResult esperado = pricingEngine.plan().evaluate(linhas, null);
+            assertEquals(esperado.subtotal(), Money.toCents(cart.getTotalOriginal()), "passo " + passo);
+            assertEquals(esperado.discount(), Money.toCents(cart.getDiscountAmount()), "passo " + passo);
+            assertEquals(esperado.promotionNames(), cart.getAppliedPromotions(), "passo " + passo);
+            assertEquals(linhas.stream().mapToInt(PricingLine::quantity).sum(), cart.getItemCount());
+        }
+    }
+
+    @Test
+    void deveRestaurarCarrinhoDoSnapshotComPrecoAtual() {
+        Product mouse = produto("Mouse", "50.00");
+        Product teclado = produto("Teclado", "120.00");
+        Coupon cupom = new Coupon();
+        cupom.setCode("CARRINHO10");
+        cupom.setType("percent");
+        cupom.setDiscountValue(new BigDecimal("10"));
+        cupom.setOneShot(false);
+        cupom.setValidFrom(LocalDateTime.now().minusDays(1));
+        cupom.setValidUntil(LocalDateTime.now().plusDays(1));
+        couponRepository.save(cupom);
+
+        String dono = "snapshot@example.com";
+        cartService.addItem(dono, item(mouse.getId(), 2));
+        cartService.addItem(dono, item(teclado.getId(), 1));
+        cartService.applyCoupon(dono, "carrinho10");
+        cartStore.flush();
+
+        mouse.setPrice(new BigDecimal("40.00"));
+        productRepository.save(mouse);
+
+        // Um store novo simula o reinício: o carrinho vem do banco
+        CartStore reiniciado = new CartStore(100, Duration.ofHours(1), new SimpleMeterRegistry());
+        beanFactory.autowireBean(reiniciado);
+        CartDTO restaurado = reiniciado.get(dono).view(pricingEngine.plan(),
+                codigo -> PricingRule.of(CouponSnapshot.of(cupom)));
+
+        assertEquals(2, restaurado.getItems().size());
+        assertEquals(3, restaurado.getItemCount());
+        assertEquals(0, restaurado.getTotalOriginal().compareTo(new BigDecimal("200.00")));
+        assertEquals("carrinho10", restaurado.getAppliedCoupon());
+        assertEquals(0, restaurado.getTotalWithDiscount().compareTo(new BigDecimal("180.00")));
+    }
+
+    @Test
+    void deveApagarSnapshotDoCarrinhoEsvaziado() {
+        Product mouse = produto("Mouse", "50.00");
+        String dono = "vazio@example.com";
+        cartService.addItem(dono, item(mouse.getId(), 1));
+        cartStore.flush();
+        cartService.clear(dono);
+        cartStore.flush();
+
+        CartStore reiniciado = new CartStore(100, Duration.ofHours(1), new SimpleMeterRegistry());
+        beanFactory.autowireBean(reiniciado);
+        assertEquals(0, reiniciado.get(dono).snapshot().items().size());
+    }
+
+    @Test
+    void deveRejeitarAlteracaoDeProdutoForaDoCarrinho() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> cartService.updateQuantity("outro@example.com", 999_999L, 2));
+        assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
+    }
+
+    @Test
+    void naoDevePerderAlteracaoDeCarrinhoExpiradoDuranteOUpdate() throws Exception {
+        Product cabo = produto("Cabo despejo", "10.00");
+        String dono = "despejo@example.com";
+        CartStore curto = new CartStore(100, Duration.ofMillis(50), new SimpleMeterRegistry());
+        beanFactory.autowireBean(curto);
+
+        ExecutorService outro = Executors.newSingleThreadExecutor();
+        try {
+            curto.update(dono, cart -> {
+                // O carrinho expira no meio da alteração e outra requisição mexe no mesmo dono
+                Future<?> concorrente = outro.submit(() -> {
+                    sleep(200);
+                    curto.update(dono, c -> {
+                        c.add(cabo.getId(), cabo.getName(), 10_00, 1);
+                        return null;
+                    });
+                });
+                try {
+                    concorrente.get(500, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    // Esperando este update terminar: é o que se quer
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                cart.add(cabo.getId(), cabo.getName(), 10_00, 1);
+                return null;
+            });
+            outro.shutdown();
+            assertTrue(outro.awaitTermination(10, TimeUnit.SECONDS));
+        } finally {
+            outro.shutdownNow();
+        }
+        curto.flush();
+
+        CartStore reiniciado = new CartStore(100, Duration.ofHours(1), new SimpleMeterRegistry());
+        beanFactory.autowireBean(reiniciado);
+        assertEquals(2, reiniciado.get(dono).snapshot().items().get(cabo.getId()));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
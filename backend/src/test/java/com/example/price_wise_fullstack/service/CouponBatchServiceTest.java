@@ -0,0 +1,151 @@
+package com.example.price_wise_fullstack.service;
+
+import com.example.price_wise_fullstack.dto.CouponBatchRequestDTO;
+import com.example.price_wise_fullstack.model.Coupon;
+import com.example.price_wise_fullstack.repository.CouponRepository;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class CouponBatchServiceTest {
+
+    @Autowired
+    private CouponBatchService couponBatchService;
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private CouponRegistry couponRegistry;
+
+    private CouponBatchRequestDTO template(String prefix, int length, int count) {
+        CouponBatchRequestDTO dto = new CouponBatchRequestDTO();
+        dto.setPrefix(prefix);
+        dto.setLength(length);
+        dto.setType("percent");
+        dto.setValue(new BigDecimal("15"));
+        dto.setValidFrom(LocalDateTime.now().minusDays(1));
+        dto.setValidUntil(LocalDateTime.now().plusDays(30));
+        dto.setCount(count);
+        return dto;
+    }
+
+    private List<String> gerar(CouponBatchRequestDTO dto) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        couponBatchService.generate(couponBatchService.plan(dto), out);
+        List<String> linhas = out.toString(StandardCharsets.UTF_8).lines().toList();
+
+        // Última linha fecha o arquivo com a contagem e o hash das linhas de código
+        List<String> codigos = linhas.subList(0, linhas.size() - 1);
+        MessageDigest sha = MessageDigest.getInstance("SHA-256");
+        codigos.forEach(c -> sha.update((c + "\n").getBytes(StandardCharsets.UTF_8)));
+        assertEquals("#end count=" + codigos.size() + " sha256=" + HexFormat.of().formatHex(sha.digest()),
+                linhas.get(linhas.size() - 1));
+        return codigos;
+    }
+
+    @Test
+    void deveGerarCodigosUnicosEntreLotes() throws Exception {
+        long antes = couponRepository.count();
+
+        List<String> primeiro = gerar(template("BLACK", 6, 2500));
+        List<String> segundo = gerar(template("black", 6, 1200));
+
+        Set<String> todos = new HashSet<>(primeiro);
+        todos.addAll(segundo);
+        assertEquals(3700, todos.size());
+        assertTrue(todos.stream().allMatch(c -> c.matches("^black[23456789abcdefghjkmnpqrstuvwxyz]{6}$")));
+        assertEquals(antes + 3700, couponRepository.count());
+
+        CouponSnapshot cupom = couponRegistry.find(primeiro.get(0).toUpperCase()).orElseThrow();
+        assertTrue(cupom.oneShot());
+    }
+
+    @Test
+    void devePularCodigosJaCriadosManualmente() throws Exception {
+        // Espaço de 2^4 = 16 códigos com metade já ocupada por cupons criados à mão
+        Set<String> manuais = new HashSet<>();
+        for (int i = 0; i < 16; i += 2) {
+            String codigo = "mini" + CouponBatchService.encode(i, new char[] { 'x', 'y' }, 4);
+            Coupon cupom = new Coupon();
+            cupom.setCode(codigo);
+            cupom.setType("fixed");
+            cupom.setDiscountValue(BigDecimal.ONE);
+            cupom.setOneShot(false);
+            cupom.setValidFrom(LocalDateTime.now());
+            cupom.setValidUntil(LocalDateTime.now().plusDays(1));
+            couponRepository.save(cupom);
+            manuais.add(codigo);
+        }
+
+        CouponBatchRequestDTO dto = template("mini", 4, 6);
+        dto.setAlphabet("xy");
+        List<String> gerados = gerar(dto);
+
+        assertEquals(6, new HashSet<>(gerados).size());
+        assertTrue(gerados.stream().noneMatch(manuais::contains));
+
+        CouponBatchRequestDTO esgotado = template("mini", 4, 1);
+        esgotado.setAlphabet("xy");
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> couponBatchService.plan(esgotado));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+
+    @Test
+    void deveFecharArquivoComErroQuandoAFolgaAcaba() {
+        // Espaço de 16 códigos já todo ocupado à mão, depois de reservada a faixa
+        CouponBatchRequestDTO dto = template("cheio", 4, 2);
+        dto.setAlphabet("xy");
+        CouponBatchService.CouponBatchPlan plano = couponBatchService.plan(dto);
+        for (int i = 0; i < 16; i++) {
+            Coupon cupom = new Coupon();
+            cupom.setCode("cheio" + CouponBatchService.encode(i, new char[] { 'x', 'y' }, 4));
+            cupom.setType("fixed");
+            cupom.setDiscountValue(BigDecimal.ONE);
+            cupom.setOneShot(false);
+            cupom.setValidFrom(LocalDateTime.now());
+            cupom.setValidUntil(LocalDateTime.now().plusDays(1));
+            couponRepository.saveAndFlush(cupom);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThrows(IllegalStateException.class, () -> couponBatchService.generate(plano, out));
+        assertEquals(List.of("#error count=0"), out.toString(StandardCharsets.UTF_8).lines().toList());
+    }
+
+    @Test
+    void deveRejeitarTemplateMaiorQue20Caracteres() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> couponBatchService.plan(template("promocaoverao", 10, 1)));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+
+    @Test
+    void devePermutarSemRepetirValores() {
+        CouponCodePermutation permutation = new CouponCodePermutation(new byte[32], 1000);
+        Set<Long> valores = new HashSet<>();
+        for (long i = 0; i < 1000; i++) {
+            long v = permutation.permute(i);
+            assertTrue(v >= 0 && v < 1000);
+            valores.add(v);
+        }
+        assertEquals(1000, valores.size());
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.price_wise_fullstack.service;
+
+import com.example.price_wise_fullstack.dto.CouponRequestDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.transaction.Transactional;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class CouponCodeFilterTest {
+
+    @Autowired
+    private CouponService couponService;
+
+    @Autowired
+    private CouponCodeFilter codeFilter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private void cupom(String codigo) {
+        CouponRequestDTO dto = new CouponRequestDTO();
+        dto.setCode(codigo);
+        dto.setType("fixed");
+        dto.setValue(new BigDecimal("5"));
+        dto.setOneShot(false);
+        dto.setValidFrom(LocalDateTime.now().minusDays(1));
+        dto.setValidUntil(LocalDateTime.now().plusDays(1));
+        couponService.createCoupon(dto);
+    }
+
+    private double evitadas() {
+        return meterRegistry.get("coupons.code_filter.lookups").tag("result", "avoided").counter().count();
+    }
+
+    @Test
+    void deveResponderCodigoInexistenteSemConsultarOBanco() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        double antes = evitadas();
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> couponService.getByCode("chute-de-robo-123"));
+
+        assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
+        assertEquals(0, stats.getPrepareStatementCount());
+        assertEquals(antes + 1, evitadas());
+    }
+
+    @Test
+    void deveEncontrarCupomRecemCriado() {
+        cupom("Filtro10");
+
+        assertTrue(codeFilter.mightExist(" FILTRO10 "));
+        assertEquals("filtro10", couponService.getByCode("filtro10").getCode());
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> cupom("filtro10"));
+        assertEquals(HttpStatus.CONFLICT, ex.getStatusCode());
+    }
+
+    @Test
+    void deveCrescerSemFalsosNegativosEDentroDaTaxaConfigurada() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+        for (int i = 0; i < 50_000; i++) {
+            filter.add("cupom-" + i);
+        }
+        for (int i = 0; i < 50_000; i++) {
+            assertTrue(filter.mightContain("cupom-" + i));
+        }
+
+        int falsosPositivos = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("outro-" + i)) {
+                falsosPositivos++;
+            }
+        }
+        assertTrue(filter.stageCount() > 1);
+        assertTrue(falsosPositivos < 1_000, "falsos positivos: " + falsosPositivos);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.price_wise_fullstack.service;
+
+import com.example.price_wise_fullstack.dto.CouponRequestDTO;
+import com.example.price_wise_fullstack.dto.CouponResponseDTO;
+import com.example.price_wise_fullstack.model.Coupon;
+import com.example.price_wise_fullstack.model.Product;
+import com.example.price_wise_fullstack.repository.CouponRepository;
+import com.example.price_wise_fullstack.repository.ProductRepository;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class CouponLifecycleTest {
+
+    @Autowired
+    private CouponService couponService;
+
+    @Autowired
+    private CouponLifecycle couponLifecycle;
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private void cupom(String codigo, LocalDateTime inicio, LocalDateTime fim) {
+        CouponRequestDTO dto = new CouponRequestDTO();
+        dto.setCode(codigo);
+        dto.setType("fixed");
+        dto.setValue(new BigDecimal("10"));
+        dto.setOneShot(false);
+        dto.setValidFrom(inicio);
+        dto.setValidUntil(fim);
+        couponService.createCoupon(dto);
+    }
+
+    private List<String> codigos(String status) {
+        return couponService.listByStatus(status).stream().map(CouponResponseDTO::getCode).toList();
+    }
+
+    @Test
+    void deveSepararCuponsPendentesAtivosEExpirados() {
+        LocalDateTime agora = LocalDateTime.now();
+        cupom("Ciclo-futuro", agora.plusDays(1), agora.plusDays(2));
+        cupom("Ciclo-ativo", agora.minusDays(1), agora.plusDays(1));
+        cupom("Ciclo-vencido", agora.minusDays(2), agora.minusDays(1));
+
+        assertTrue(codigos("active").contains("ciclo-ativo"));
+        assertFalse(codigos("active").contains("ciclo-futuro"));
+        assertFalse(codigos("active").contains("ciclo-vencido"));
+        assertTrue(codigos("pending").contains("ciclo-futuro"));
+        assertTrue(codigos("EXPIRED").contains("ciclo-vencido"));
+    }
+
+    @Test
+    void deveRejeitarCupomPendenteComAMesmaMensagem() {
+        LocalDateTime agora = LocalDateTime.now();
+        cupom("Ciclo-cedo", agora.plusHours(1), agora.plusDays(1));
+        Product produto = productRepository.saveAndFlush(new Product("Produto ciclo", null, new BigDecimal("100.00"), 5));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> couponService.applyCouponToProduct(produto.getId(), "ciclo-cedo"));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+        assertEquals("Cupom inválido ou expirado", ex.getReason());
+    }
+
+    @Test
+    void deveTirarCupomExcluidoDeTodosOsStatus() {
+        LocalDateTime agora = LocalDateTime.now();
+        cupom("Ciclo-excluido", agora.minusDays(1), agora.plusDays(1));
+        Coupon coupon = couponRepository.findByCodeIgnoreCase("ciclo-excluido").orElseThrow();
+
+        coupon.setDeletedAt(LocalDateTime.now());
+        couponRepository.saveAndFlush(coupon);
+
+        for (String status : List.of("active", "pending", "expired")) {
+            assertFalse(codigos(status).contains("ciclo-excluido"));
+        }
+    }
+
+    @Test
+    void deveRejeitarStatusDesconhecido() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> couponService.listByStatus("vencendo"));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+
+    @Test
+    void deveAtivarEExpirarCupomNasFronteiras() throws InterruptedException {
+        LocalDateTime agora = LocalDateTime.now();
+        cupom("Ciclo-relampago", agora.plusSeconds(1), agora.plusSeconds(2));
+        assertTrue(codigos("pending").contains("ciclo-relampago"));
+
+        // Sem novas escritas: só o tick da roda muda o status
+        assertTrue(esperarStatus("active", "ciclo-relampago"));
+        assertTrue(esperarStatus("expired", "ciclo-relampago"));
+        assertFalse(codigos("active").contains("ciclo-relampago"));
+    }
+
+    private boolean esperarStatus(String status, String codigo) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < limite) {
+            if (codigos(status).contains(codigo)) {
+                return true;
+            }
+            Thread.sleep(50);
+        }
+        return false;
+    }
+
+    @Test
+    void deveDispararTimersNoTickCertoEmTodosOsNiveis() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(1, 0);
+        // Um prazo por nível, mais um além do último nível (lista de overflow)
+        long[] prazos = {5, 64, 4_095, 4_096, 300_000, 20_000_000};
+        for (long prazo : prazos) {
+            assertTrue(wheel.schedule(prazo, prazo));
+        }
+        assertFalse(wheel.schedule(-1L, 0));
+
+        for (long prazo : prazos) {
+            assertTrue(wheel.advance(prazo - 1).isEmpty());
+            assertEquals(List.of(prazo), wheel.advance(prazo));
+        }
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.price_wise_fullstack.service;
+
+import com.example.price_wise_fullstack.dto.OrderRequestDTO;
+import com.example.price_wise_fullstack.dto.OrderSummaryDTO;
+import com.example.price_wise_fullstack.model.Coupon;
+import com.example.price_wise_fullstack.model.Product;
+import com.example.price_wise_fullstack.repository.CouponRedemptionRepository;
+import com.example.price_wise_fullstack.repository.CouponRepository;
+import com.example.price_wise_fullstack.repository.ProductRepository;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class CouponRedemptionTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private CouponRedemptionRepository redemptionRepository;
+
+    private Product produto;
+
+    @BeforeEach
+    void setup() {
+        produto = productRepository.save(new Product("Produto resgate", null, new BigDecimal("100.00"), 10));
+        salvarCupom("UNICO10", true);
+        salvarCupom("SEMPRE10", false);
+    }
+
+    private void salvarCupom(String codigo, boolean oneShot) {
+        Coupon cupom = new Coupon();
+        cupom.setCode(codigo);
+        cupom.setType("fixed");
+        cupom.setDiscountValue(new BigDecimal("10"));
+        cupom.setOneShot(oneShot);
+        cupom.setValidFrom(LocalDateTime.now().minusDays(1));
+        cupom.setValidUntil(LocalDateTime.now().plusDays(1));
+        couponRepository.save(cupom);
+    }
+
+    private OrderRequestDTO pedido(String cupom) {
+        OrderRequestDTO.OrderItemDTO item = new OrderRequestDTO.OrderItemDTO();
+        item.setProductId(produto.getId());
+        item.setQuantity(1);
+        OrderRequestDTO dto = new OrderRequestDTO();
+        dto.setItems(List.of(item));
+        dto.setCouponCode(cupom);
+        return dto;
+    }
+
+    @Test
+    void deveResgatarCupomOneShotUmaUnicaVez() {
+        OrderSummaryDTO primeiro = orderService.saveOrder(pedido("unico10"));
+        assertEquals(new BigDecimal("90.00"), primeiro.getTotalFinal());
+
+        Long couponId = couponRepository.findByCodeIgnoreCase("unico10").orElseThrow().getId();
+        assertTrue(redemptionRepository.existsByCouponId(couponId));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> orderService.saveOrder(pedido("UNICO10")));
+        assertEquals(HttpStatus.CONFLICT, ex.getStatusCode());
+    }
+
+    @Test
+    void devePermitirReusoDeCupomComum() {
+        orderService.saveOrder(pedido("sempre10"));
+        orderService.saveOrder(pedido("sempre10"));
+
+        assertEquals(0, redemptionRepository.count());
+    }
+}
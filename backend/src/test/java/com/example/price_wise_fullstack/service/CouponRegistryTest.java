@@ -0,0 +1,122 @@
+package com.example.price_wise_fullstack.service;
+
+import com.example.price_wise_fullstack.dto.CouponRequestDTO;
+import com.example.price_wise_fullstack.dto.DiscountedProductDTO;
+import com.example.price_wise_fullstack.model.Coupon;
+import com.example.price_wise_fullstack.model.Product;
+import com.example.price_wise_fullstack.repository.CouponRepository;
+import com.example.price_wise_fullstack.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class CouponRegistryTest {
+
+    @Autowired
+    private CouponRegistry couponRegistry;
+
+    @Autowired
+    private CouponService couponService;
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private CouponRequestDTO cupom(String codigo) {
+        CouponRequestDTO dto = new CouponRequestDTO();
+        dto.setCode(codigo);
+        dto.setType("percent");
+        dto.setValue(new BigDecimal("10"));
+        dto.setOneShot(false);
+        dto.setValidFrom(LocalDateTime.now().minusDays(1));
+        dto.setValidUntil(LocalDateTime.now().plusDays(1));
+        return dto;
+    }
+
+    @Test
+    void deveResolverCupomCriadoPeloCodigoNormalizado() {
+        couponService.createCoupon(cupom("Registro10"));
+
+        CouponSnapshot snapshot = couponRegistry.find("  REGISTRO10 ").orElseThrow();
+        assertEquals("registro10", snapshot.code());
+        assertTrue(snapshot.isPercent());
+        assertTrue(snapshot.isValidAt(LocalDateTime.now()));
+    }
+
+    @Test
+    void deveRefletirExclusaoEAlteracaoDeCupom() {
+        couponService.createCoupon(cupom("Troca10"));
+        Coupon coupon = couponRepository.findByCodeIgnoreCase("troca10").orElseThrow();
+
+        coupon.setValidUntil(LocalDateTime.now().minusHours(1));
+        couponRepository.saveAndFlush(coupon);
+        assertFalse(couponRegistry.find("troca10").orElseThrow().isValidAt(LocalDateTime.now()));
+
+        couponRepository.delete(coupon);
+        couponRepository.flush();
+        assertTrue(couponRegistry.find("troca10").isEmpty());
+    }
+
+    @Test
+    void deveAplicarCupomSemConsultarOBanco() {
+        couponService.createCoupon(cupom("Semdb10"));
+        Product produto = productRepository.saveAndFlush(new Product("Produto registro", null, new BigDecimal("200.00"), 5));
+        entityManager.flush();
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        DiscountedProductDTO result = couponService.applyCouponToProduct(produto.getId(), "SEMDB10");
+
+        assertEquals(0, result.getDiscountedPrice().compareTo(new BigDecimal("180")));
+        // Produto vem do contexto de persistência e o cupom do registro
+        assertEquals(0, stats.getPrepareStatementCount());
+    }
+
+    @Test
+    void naoDeveExporCupomDeTransacaoAindaAberta() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            tx.executeWithoutResult(status -> {
+                couponService.createCoupon(cupom("Aberto10"));
+                // A própria transação enxerga o cupom; outra requisição, não
+                assertTrue(couponRegistry.find("aberto10").isPresent());
+                Optional<CouponSnapshot> deOutraThread = CompletableFuture.supplyAsync(() -> couponRegistry.find("aberto10")).join();
+                assertTrue(deOutraThread.isEmpty());
+            });
+            assertTrue(CompletableFuture.supplyAsync(() -> couponRegistry.find("aberto10")).join().isPresent());
+        } finally {
+            tx.executeWithoutResult(status -> couponRepository.findByCodeIgnoreCase("aberto10").ifPresent(couponRepository::delete));
+        }
+    }
+}
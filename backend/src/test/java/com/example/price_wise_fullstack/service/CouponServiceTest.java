@@ -2,6 +2,8 @@ package com.example.price_wise_fullstack.service;
 
 import com.example.price_wise_fullstack.dto.CouponRequestDTO;
 import com.example.price_wise_fullstack.dto.CouponResponseDTO;
+import com.example.price_wise_fullstack.dto.CouponStatsDTO;
+import com.example.price_wise_fullstack.dto.CursorPageResponseDTO;
 import com.example.price_wise_fullstack.dto.DiscountedProductDTO;
 import com.example.price_wise_fullstack.model.Coupon;
 import com.example.price_wise_fullstack.model.Product;
@@ -115,6 +117,34 @@ class CouponServiceTest {
         assertEquals(2, cupons.size());
     }
 
+    @Test
+    void deveLimitarListagemSemCursorEManterOrdemDeId() {
+        List<CouponResponseDTO> cupons = couponService.listAll();
+
+        assertTrue(cupons.size() <= CouponService.UNPAGED_LIMIT);
+        List<Long> ids = cupons.stream().map(CouponResponseDTO::getId).toList();
+        assertEquals(ids.stream().sorted().toList(), ids);
+    }
+
+    @Test
+    void deveContarCuponsPorStatus() {
+        CouponRequestDTO dto = new CouponRequestDTO();
+        dto.setCode("FUTURO5");
+        dto.setType("percent");
+        dto.setValue(new BigDecimal("5"));
+        dto.setOneShot(false);
+        dto.setValidFrom(LocalDateTime.now().plusDays(2));
+        dto.setValidUntil(LocalDateTime.now().plusDays(5));
+        couponService.createCoupon(dto);
+
+        CouponStatsDTO stats = couponService.stats();
+
+        assertEquals(3, stats.getTotalCoupons());
+        assertEquals(2, stats.getActive());
+        assertEquals(1, stats.getPending());
+        assertEquals(0, stats.getExpired());
+    }
+
     @Test
     void deveBuscarCupomPorCodigo() {
         CouponResponseDTO response = couponService.getByCode("PROMO10");
@@ -240,4 +270,80 @@ class CouponServiceTest {
 
         assertEquals("promo10", response.getCode());
     }
+
+    @Test
+    void devePaginarCuponsPorCursorSemRepetirItens() {
+        CursorPageResponseDTO<CouponResponseDTO> primeira = couponService.listKeyset(
+            null, null, null, null, 1, "code", "asc", null, true
+        );
+
+        assertEquals(1, primeira.getData().size());
+        assertEquals("fixed50", primeira.getData().get(0).getCode());
+        assertEquals(2L, primeira.getTotalItems());
+        assertTrue(primeira.isHasNext());
+
+        CursorPageResponseDTO<CouponResponseDTO> segunda = couponService.listKeyset(
+            null, null, null, null, 1, "code", "asc", primeira.getNextCursor(), false
+        );
+
+        assertEquals("promo10", segunda.getData().get(0).getCode());
+        assertFalse(segunda.isHasNext());
+        assertNull(segunda.getTotalItems());
+    }
+
+    @Test
+    void deveFiltrarCuponsPorTipoOneShotPrefixoEVigencia() {
+        CursorPageResponseDTO<CouponResponseDTO> porTipo = couponService.listKeyset(
+            "PERCENT", null, null, null, 10, "id", "asc", null, false
+        );
+        assertEquals(List.of("promo10"), porTipo.getData().stream().map(CouponResponseDTO::getCode).toList());
+
+        CursorPageResponseDTO<CouponResponseDTO> porOneShot = couponService.listKeyset(
+            null, true, null, "fix", 10, "id", "asc", null, false
+        );
+        assertEquals(List.of("fixed50"), porOneShot.getData().stream().map(CouponResponseDTO::getCode).toList());
+
+        CursorPageResponseDTO<CouponResponseDTO> vencidos = couponService.listKeyset(
+            null, null, LocalDateTime.now().plusDays(30), null, 10, "validUntil", "desc", null, true
+        );
+        assertTrue(vencidos.getData().isEmpty());
+        assertEquals(0L, vencidos.getTotalItems());
+    }
+
+    @Test
+    void deveRejeitarOrdenacaoNaoSuportadaNoCursor() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () ->
+            couponService.listKeyset(null, null, null, null, 10, "discountValue", "asc", null, false));
+
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+
+    @Test
+    void deveAplicarCupomEmLoteNaOrdemDosProdutos() {
+        Product monitor = new Product();
+        monitor.setName("Monitor");
+        monitor.setPrice(new BigDecimal("40.00"));
+        monitor.setStock(5);
+        monitor = productRepository.save(monitor);
+
+        List<DiscountedProductDTO> result = couponService.applyCouponToProducts(
+            List.of(monitor.getId(), produto.getId(), monitor.getId()), "FIXED50"
+        );
+
+        assertEquals(3, result.size());
+        assertEquals(monitor.getId(), result.get(0).getProductId());
+        assertEquals(0, result.get(0).getDiscountedPrice().compareTo(BigDecimal.ZERO));
+        assertEquals(produto.getId(), result.get(1).getProductId());
+        assertEquals(0, result.get(1).getDiscountedPrice().compareTo(new BigDecimal("50.00")));
+        assertEquals(monitor.getId(), result.get(2).getProductId());
+    }
+
+    @Test
+    void deveRejeitarLoteComProdutoInexistente() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () ->
+            couponService.applyCouponToProducts(List.of(produto.getId(), 999_999L), "promo10"));
+
+        assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
+        assertEquals("Produto não encontrado", ex.getReason());
+    }
 }
@@ -0,0 +1,240 @@
+package com.example.price_wise_fullstack.service;
+
+import com.example.price_wise_fullstack.dto.CouponRequestDTO;
+import com.example.price_wise_fullstack.dto.OrderRequestDTO;
+import com.example.price_wise_fullstack.model.Product;
+import com.example.price_wise_fullstack.model.Coupon;
+import com.example.price_wise_fullstack.model.CouponRedemptionStripe;
+import com.example.price_wise_fullstack.repository.CouponRedemptionStripeRepository;
+import com.example.price_wise_fullstack.repository.CouponRepository;
+import com.example.price_wise_fullstack.repository.CouponUserRedemptionRepository;
+import com.example.price_wise_fullstack.repository.OrderRepository;
+import com.example.price_wise_fullstack.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sem @Transactional: cada pedido precisa confirmar na sua própria transação para haver disputa real
+@SpringBootTest
+class CouponUsageLimitTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CouponService couponService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private CouponUserRedemptionRepository userRedemptionRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CouponRedemptionStripeRepository stripeRepository;
+
+    @Autowired
+    private CouponUsageLimiter usageLimiter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Product produto;
+
+    @BeforeEach
+    void setup() {
+        produto = productRepository.save(new Product("Produto campanha", null, new BigDecimal("100.00"), 1000));
+    }
+
+    @AfterEach
+    void cleanup() {
+        orderRepository.deleteAll();
+        userRedemptionRepository.deleteAll();
+        couponRepository.findByCodeIgnoreCase("campanha5").ifPresent(couponRepository::delete);
+        productRepository.delete(produto);
+    }
+
+    private void criarCupom(Integer maxRedemptions, Integer maxRedemptionsPerUser) {
+        CouponRequestDTO dto = new CouponRequestDTO();
+        dto.setCode("CAMPANHA5");
+        dto.setType("fixed");
+        dto.setValue(new BigDecimal("5"));
+        dto.setOneShot(false);
+        dto.setMaxRedemptions(maxRedemptions);
+        dto.setMaxRedemptionsPerUser(maxRedemptionsPerUser);
+        dto.setValidFrom(LocalDateTime.now().minusDays(1));
+        dto.setValidUntil(LocalDateTime.now().plusDays(1));
+        couponService.createCoupon(dto);
+    }
+
+    private OrderRequestDTO pedido() {
+        OrderRequestDTO.OrderItemDTO item = new OrderRequestDTO.OrderItemDTO();
+        item.setProductId(produto.getId());
+        item.setQuantity(1);
+        OrderRequestDTO dto = new OrderRequestDTO();
+        dto.setItems(List.of(item));
+        dto.setCouponCode("campanha5");
+        return dto;
+    }
+
+    @Test
+    void naoDeveUltrapassarLimiteSobConcorrencia() throws Exception {
+        int limite = 7;
+        int threads = 16;
+        int pedidosPorThread = 5;
+        criarCupom(limite, null);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch largada = new CountDownLatch(1);
+        AtomicInteger aceitos = new AtomicInteger();
+        AtomicInteger recusados = new AtomicInteger();
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            tarefas.add(pool.submit(() -> {
+                largada.await();
+                for (int i = 0; i < pedidosPorThread; i++) {
+                    try {
+                        orderService.saveOrder(pedido(), null);
+                        aceitos.incrementAndGet();
+                    } catch (ResponseStatusException e) {
+                        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+                        recusados.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        largada.countDown();
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(limite, aceitos.get());
+        assertEquals(threads * pedidosPorThread - limite, recusados.get());
+        assertEquals(limite, orderRepository.count());
+
+        // O contador do cupom só é gravado pela reconciliação, a partir das fatias
+        Long couponId = couponRepository.findByCodeIgnoreCase("campanha5").orElseThrow().getId();
+        assertEquals(limite, stripeRepository.sumUsed(couponId));
+        usageLimiter.reconcile();
+        assertEquals(limite, couponRepository.findByCodeIgnoreCase("campanha5").orElseThrow().getRedemptionCount());
+    }
+
+    @Test
+    void deveLimitarResgatesPorUsuario() {
+        criarCupom(null, 2);
+
+        orderService.saveOrder(pedido(), "ana@pricewise.com");
+        orderService.saveOrder(pedido(), "ana@pricewise.com");
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> orderService.saveOrder(pedido(), "ana@pricewise.com"));
+        assertEquals(HttpStatus.CONFLICT, ex.getStatusCode());
+
+        orderService.saveOrder(pedido(), "bia@pricewise.com");
+        assertEquals(3, orderRepository.count());
+    }
+
+    @Test
+    void deveLiberarReservaQuandoPedidoFalha() {
+        criarCupom(1, null);
+
+        OrderRequestDTO invalido = pedido();
+        invalido.getItems().get(0).setQuantity(0); // total abaixo de R$ 0,01
+        assertThrows(ResponseStatusException.class, () -> orderService.saveOrder(invalido, null));
+
+        assertNotNull(orderService.saveOrder(pedido(), null).getOrderId());
+    }
+
+    @Test
+    void deveRedividirFatiasQuandoOLimiteMuda() {
+        criarCupom(2, null);
+        orderService.saveOrder(pedido(), null);
+        orderService.saveOrder(pedido(), null);
+        assertThrows(ResponseStatusException.class, () -> orderService.saveOrder(pedido(), null));
+
+        Coupon cupom = couponRepository.findByCodeIgnoreCase("campanha5").orElseThrow();
+        cupom.setMaxRedemptions(3);
+        couponRepository.save(cupom);
+        usageLimiter.reconcile();
+
+        orderService.saveOrder(pedido(), null);
+        assertThrows(ResponseStatusException.class, () -> orderService.saveOrder(pedido(), null));
+        usageLimiter.reconcile();
+        assertEquals(3, couponRepository.findByCodeIgnoreCase("campanha5").orElseThrow().getRedemptionCount());
+    }
+
+    @Test
+    void deveReconciliarSoCuponsComResgateNovo() {
+        criarCupom(5, null);
+        orderService.saveOrder(pedido(), null);
+        usageLimiter.reconcile();
+        Long couponId = couponRepository.findByCodeIgnoreCase("campanha5").orElseThrow().getId();
+        assertEquals(1, couponRepository.findById(couponId).orElseThrow().getRedemptionCount());
+
+        // Fatia alterada por fora: sem resgate novo, a reconciliação não volta a olhar o cupom
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            CouponRedemptionStripe fatia = stripeRepository.lockByCouponId(couponId).get(1);
+            fatia.setUsed(fatia.getUsed() + 1);
+        });
+        usageLimiter.reconcile();
+        assertEquals(1, couponRepository.findById(couponId).orElseThrow().getRedemptionCount());
+
+        orderService.saveOrder(pedido(), null);
+        usageLimiter.reconcile();
+        assertEquals(3, couponRepository.findById(couponId).orElseThrow().getRedemptionCount());
+    }
+
+    @Test
+    void naoDeveEsperarPelaLinhaDoCupom() throws Exception {
+        criarCupom(10, null);
+        Long couponId = couponRepository.findByCodeIgnoreCase("campanha5").orElseThrow().getId();
+
+        // Outra transação segura a linha do cupom enquanto o pedido é gravado
+        CountDownLatch travado = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService outra = Executors.newSingleThreadExecutor();
+        Future<?> trava = outra.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            couponRepository.lockById(couponId);
+            travado.countDown();
+            try {
+                liberar.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        try {
+            assertTrue(travado.await(10, TimeUnit.SECONDS));
+            assertNotNull(orderService.saveOrder(pedido(), null).getOrderId());
+        } finally {
+            liberar.countDown();
+            trava.get(30, TimeUnit.SECONDS);
+            outra.shutdown();
+        }
+    }
+}
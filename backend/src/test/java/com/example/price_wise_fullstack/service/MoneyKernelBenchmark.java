@@ -0,0 +1,108 @@
+package com.example.price_wise_fullstack.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Totals of a 100-line cart with a 12.5% discount, computed the old way on
+ * BigDecimal and with {@link Money} on long cents, plus the whole
+ * {@link PricingPlan} over the same cart. Run with the GC profiler to see
+ * the allocation per cart next to the throughput:
+ *
+ * <pre>mvn -Pbenchmark test-compile exec:exec -Dbenchmark=MoneyKernelBenchmark</pre>
+ * <pre>java -cp ... org.openjdk.jmh.Main MoneyKernelBenchmark -prof gc</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyKernelBenchmark {
+
+    private static final int LINES = 100;
+    private static final BigDecimal RATE = new BigDecimal("12.5");
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private BigDecimal[] decimalPrices;
+    private long[] centPrices;
+    private int[] quantities;
+    private long rateBasisPoints;
+
+    private List<PricingLine> cart;
+    private PricingPlan plan;
+    private PricingRule coupon;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        decimalPrices = new BigDecimal[LINES];
+        centPrices = new long[LINES];
+        quantities = new int[LINES];
+        cart = new ArrayList<>(LINES);
+        for (int i = 0; i < LINES; i++) {
+            centPrices[i] = 100 + random.nextInt(50_000);
+            decimalPrices[i] = BigDecimal.valueOf(centPrices[i], 2);
+            quantities[i] = 1 + random.nextInt(5);
+            cart.add(new PricingLine((long) i, centPrices[i], quantities[i]));
+        }
+        rateBasisPoints = Money.toBasisPoints(RATE);
+
+        plan = PricingPlan.compile(List.of(
+            new PricingRule(1L, "acima de 500", 1, true, 500_00L, null, null, PricingRule.FIXED, 20_00, null, null),
+            new PricingRule(2L, "leve 3 pague 2", 0, true, null, null, 3, PricingRule.BUY_X_GET_Y, 0, 2, 1)
+        ));
+        coupon = new PricingRule(null, "cupom", Integer.MIN_VALUE, true, null, null, null,
+                PricingRule.PERCENT, rateBasisPoints, null, null);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalTotals() {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (int i = 0; i < LINES; i++) {
+            subtotal = subtotal.add(decimalPrices[i].multiply(BigDecimal.valueOf(quantities[i])));
+        }
+        BigDecimal discount = subtotal.multiply(RATE).divide(HUNDRED, 2, RoundingMode.HALF_UP).min(subtotal);
+        return subtotal.subtract(discount);
+    }
+
+    @Benchmark
+    public long longCentsTotals() {
+        long subtotal = 0;
+        for (int i = 0; i < LINES; i++) {
+            subtotal = Math.addExact(subtotal, Money.times(centPrices[i], quantities[i]));
+        }
+        long discount = Math.min(Money.percentOf(subtotal, rateBasisPoints), subtotal);
+        return subtotal - discount;
+    }
+
+    @Benchmark
+    public PricingResult pricingPlan() {
+        return plan.evaluate(cart, coupon);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MoneyKernelBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.price_wise_fullstack.service;
+
+import com.example.price_wise_fullstack.dto.OrderRequestDTO;
+import com.example.price_wise_fullstack.dto.OrderSummaryDTO;
+import com.example.price_wise_fullstack.model.Product;
+import com.example.price_wise_fullstack.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class OrderBatchInsertTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void devePersistirPedidoDe50ItensEmPoucosRoundTrips() {
+        List<Product> produtos = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            produtos.add(new Product("Produto lote " + i, null, new BigDecimal("10.00"), 100));
+        }
+        productRepository.saveAllAndFlush(produtos);
+
+        OrderRequestDTO request = new OrderRequestDTO();
+        request.setItems(produtos.stream().map(p -> {
+            OrderRequestDTO.OrderItemDTO item = new OrderRequestDTO.OrderItemDTO();
+            item.setProductId(p.getId());
+            item.setQuantity(1);
+            return item;
+        }).toList());
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        OrderSummaryDTO summary = orderService.saveOrder(request);
+        entityManager.flush();
+
+        assertNotNull(summary.getOrderId());
+        assertEquals(new BigDecimal("500.00"), summary.getTotalFinal());
+        assertEquals(51, stats.getEntityInsertCount());
+        // select dos produtos + nextval das sequences + um insert do pedido + um lote com os 50 itens
+        assertTrue(stats.getPrepareStatementCount() <= 6,
+                "statements preparados: " + stats.getPrepareStatementCount());
+    }
+}
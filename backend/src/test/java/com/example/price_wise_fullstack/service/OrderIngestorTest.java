@@ -0,0 +1,145 @@
+package com.example.price_wise_fullstack.service;
+
+import com.example.price_wise_fullstack.dto.OrderRequestDTO;
+import com.example.price_wise_fullstack.dto.OrderSummaryDTO;
+import com.example.price_wise_fullstack.model.Product;
+import com.example.price_wise_fullstack.repository.OrderRepository;
+import com.example.price_wise_fullstack.repository.ProductRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sem @Transactional: o writer grava em outra thread e faz commit; o @AfterEach apaga o que foi criado
+@SpringBootTest(properties = "pricewise.orders.ingest.enabled=true")
+class OrderIngestorTest {
+
+    @Autowired
+    private OrderIngestor orderIngestor;
+
+    @Autowired
+    private PriceQuoteSigner quoteSigner;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    private final List<Product> produtos = new ArrayList<>();
+    private final List<Long> pedidos = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        for (int i = 0; i < 3; i++) {
+            produtos.add(new Product("Produto fila " + i, null, new BigDecimal("25.00"), 1000));
+        }
+        productRepository.saveAll(produtos);
+    }
+
+    @AfterEach
+    void cleanup() {
+        orderRepository.deleteAllById(pedidos);
+        productRepository.deleteAll(productRepository.findAllById(produtos.stream().map(Product::getId).toList()));
+    }
+
+    private OrderRequestDTO pedido(Product produto, int quantidade) {
+        OrderRequestDTO.OrderItemDTO item = new OrderRequestDTO.OrderItemDTO();
+        item.setProductId(produto.getId());
+        item.setQuantity(quantidade);
+        OrderRequestDTO dto = new OrderRequestDTO();
+        dto.setItems(List.of(item));
+        return dto;
+    }
+
+    @Test
+    void deveGravarPedidosEmLotesEResponderCadaChamador() throws Exception {
+        DistributionSummary lotes = meterRegistry.get("orders.ingest.batch.size").summary();
+        long lotesAntes = lotes.count();
+        long esperasAntes = meterRegistry.get("orders.ingest.queue.wait").timer().count();
+
+        List<CompletableFuture<OrderSummaryDTO>> futuros = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            futuros.add(orderIngestor.submit(pedido(produtos.get(i % 3), 1 + i % 4), null));
+        }
+        CompletableFuture.allOf(futuros.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+        for (int i = 0; i < 300; i++) {
+            OrderSummaryDTO resumo = futuros.get(i).get();
+            pedidos.add(resumo.getOrderId());
+            assertEquals(List.of("Produto fila " + i % 3), resumo.getProductNames());
+            assertEquals(0, resumo.getTotalFinal().compareTo(new BigDecimal("25.00").multiply(BigDecimal.valueOf(1 + i % 4))));
+        }
+        assertEquals(300, pedidos.stream().distinct().count());
+        assertEquals(300, orderRepository.findAllById(pedidos).size());
+
+        // Menos transações que pedidos, e nenhum lote acima do limite
+        long transacoes = lotes.count() - lotesAntes;
+        assertTrue(transacoes < 300, "lotes: " + transacoes);
+        assertTrue(lotes.max() <= 200);
+        assertEquals(300, meterRegistry.get("orders.ingest.queue.wait").timer().count() - esperasAntes);
+    }
+
+    @Test
+    void deveIsolarPedidoInvalidoSemDerrubarOLote() throws Exception {
+        // Writer parado: o teste decide quando o lote é gravado
+        OrderIngestor ingestor = new OrderIngestor(10, 200, Duration.ofMillis(5), new SimpleMeterRegistry());
+        beanFactory.autowireBean(ingestor);
+
+        Product removido = productRepository.save(new Product("Produto fila removido", null, new BigDecimal("10.00"), 10));
+        OrderRequestDTO cotado = new OrderRequestDTO();
+        cotado.setQuoteToken(quoteSigner.sign(new PriceQuote(quoteSigner.expiresAt(System.currentTimeMillis()),
+                null, null, 1000, 0, 1000, List.of(),
+                List.of(new PriceQuote.Line(removido.getId(), removido.getName(), 1000, 1)))));
+        productRepository.delete(removido);
+
+        CompletableFuture<OrderSummaryDTO> antes = ingestor.submit(pedido(produtos.get(0), 1), null);
+        CompletableFuture<OrderSummaryDTO> invalido = ingestor.submit(cotado, null);
+        CompletableFuture<OrderSummaryDTO> depois = ingestor.submit(pedido(produtos.get(1), 2), null);
+        assertEquals(3, ingestor.writeBatch(0));
+
+        pedidos.add(antes.get().getOrderId());
+        pedidos.add(depois.get().getOrderId());
+        assertEquals(0, depois.get().getTotalFinal().compareTo(new BigDecimal("50.00")));
+        CompletionException ex = assertThrows(CompletionException.class, invalido::join);
+        ResponseStatusException causa = assertInstanceOf(ResponseStatusException.class, ex.getCause());
+        assertEquals(HttpStatus.CONFLICT, causa.getStatusCode());
+    }
+
+    @Test
+    void deveRecusarComServiceUnavailableQuandoAFilaEstaCheia() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OrderIngestor ingestor = new OrderIngestor(1, 200, Duration.ofMillis(5), registry);
+        beanFactory.autowireBean(ingestor);
+
+        ingestor.submit(pedido(produtos.get(0), 1), null);
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> ingestor.submit(pedido(produtos.get(0), 1), null));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ex.getStatusCode());
+        assertEquals(1, registry.get("orders.ingest.rejected").counter().count());
+        assertEquals(1, registry.get("orders.ingest.queue.size").gauge().value());
+    }
+}
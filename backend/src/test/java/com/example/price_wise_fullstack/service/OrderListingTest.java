@@ -0,0 +1,152 @@
+package com.example.price_wise_fullstack.service;
+
+import com.example.price_wise_fullstack.dto.CursorPageResponseDTO;
+import com.example.price_wise_fullstack.dto.OrderRequestDTO;
+import com.example.price_wise_fullstack.dto.OrderStatsDTO;
+import com.example.price_wise_fullstack.dto.OrderSummaryDTO;
+import com.example.price_wise_fullstack.model.Product;
+import com.example.price_wise_fullstack.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class OrderListingTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Map<Long, List<String>> criados = new HashMap<>();
+
+    @BeforeEach
+    void setup() {
+        List<Product> produtos = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            produtos.add(new Product("Produto listagem " + i, null, new BigDecimal("10.00"), 1000));
+        }
+        productRepository.saveAllAndFlush(produtos);
+
+        for (int i = 0; i < 25; i++) {
+            Product a = produtos.get(i % 5);
+            Product b = produtos.get((i + 1) % 5);
+            OrderRequestDTO request = new OrderRequestDTO();
+            request.setItems(List.of(item(a.getId()), item(b.getId())));
+            OrderSummaryDTO pedido = orderService.saveOrder(request);
+            criados.put(pedido.getOrderId(), List.of(a.getName(), b.getName()));
+        }
+        // Nada no contexto de persistência: cada página vai ao banco
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private OrderRequestDTO.OrderItemDTO item(Long produto) {
+        OrderRequestDTO.OrderItemDTO item = new OrderRequestDTO.OrderItemDTO();
+        item.setProductId(produto);
+        item.setQuantity(1);
+        return item;
+    }
+
+    @Test
+    void devePercorrerPaginasComDuasConsultasPorPagina() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<OrderSummaryDTO> vistos = new ArrayList<>();
+        String cursor = null;
+        do {
+            stats.clear();
+            CursorPageResponseDTO<OrderSummaryDTO> pagina = orderService.listKeyset(7, "desc", cursor, false);
+            assertEquals(2, stats.getPrepareStatementCount(), "statements por página");
+            assertEquals(0, stats.getEntityLoadCount());
+            assertTrue(pagina.getData().size() <= 7);
+            vistos.addAll(pagina.getData());
+            cursor = pagina.getNextCursor();
+        } while (cursor != null);
+
+        // Mais novos primeiro, sem repetir nem pular linhas
+        Comparator<OrderSummaryDTO> ordem = Comparator.comparing(OrderSummaryDTO::getCreatedAt)
+                .thenComparing(OrderSummaryDTO::getOrderId).reversed();
+        assertEquals(vistos.stream().sorted(ordem).toList(), vistos);
+        assertEquals(vistos.size(), vistos.stream().map(OrderSummaryDTO::getOrderId).distinct().count());
+
+        Map<Long, List<String>> nomes = new HashMap<>();
+        vistos.forEach(p -> nomes.put(p.getOrderId(), p.getProductNames()));
+        criados.forEach((id, produtos) -> assertEquals(produtos, nomes.get(id)));
+    }
+
+    @Test
+    void deveListarTodosOsPedidosComDuasConsultas() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        List<OrderSummaryDTO> todos = orderService.listAllOrders();
+
+        assertEquals(2, stats.getPrepareStatementCount());
+        Map<Long, List<String>> nomes = new HashMap<>();
+        todos.forEach(p -> nomes.put(p.getOrderId(), p.getProductNames()));
+        criados.forEach((id, produtos) -> assertEquals(produtos, nomes.get(id)));
+
+        // Listagem sem cursor limitada aos mais recentes, ainda em ordem de id
+        assertTrue(todos.size() <= OrderService.UNPAGED_LIMIT);
+        List<Long> ids = todos.stream().map(OrderSummaryDTO::getOrderId).toList();
+        assertEquals(ids.stream().sorted().toList(), ids);
+    }
+
+    @Test
+    void deveSomarPedidosNumaUnicaConsulta() {
+        BigDecimal soma = BigDecimal.ZERO;
+        long quantidade = 0;
+        String cursor = null;
+        do {
+            CursorPageResponseDTO<OrderSummaryDTO> pagina = orderService.listKeyset(100, "desc", cursor, false);
+            for (OrderSummaryDTO pedido : pagina.getData()) {
+                soma = soma.add(pedido.getTotalFinal());
+                quantidade++;
+            }
+            cursor = pagina.getNextCursor();
+        } while (cursor != null);
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        OrderStatsDTO totais = orderService.stats();
+
+        assertEquals(1, stats.getPrepareStatementCount());
+        assertEquals(quantidade, totais.getTotalOrders());
+        assertEquals(0, soma.compareTo(totais.getTotalValue()));
+    }
+
+    @Test
+    void deveRejeitarLimiteForaDoIntervalo() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> orderService.listKeyset(0, "desc", null, false));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+        ex = assertThrows(ResponseStatusException.class,
+                () -> orderService.listKeyset(101, "desc", null, false));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+}
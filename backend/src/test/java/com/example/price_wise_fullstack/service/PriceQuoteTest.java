@@ -0,0 +1,147 @@
+package com.example.price_wise_fullstack.service;
+
+import com.example.price_wise_fullstack.dto.CartRequestDTO;
+import com.example.price_wise_fullstack.dto.CartSummaryDTO;
+import com.example.price_wise_fullstack.dto.OrderRequestDTO;
+import com.example.price_wise_fullstack.dto.OrderSummaryDTO;
+import com.example.price_wise_fullstack.model.Coupon;
+import com.example.price_wise_fullstack.model.Product;
+import com.example.price_wise_fullstack.repository.CouponRepository;
+import com.example.price_wise_fullstack.repository.ProductRepository;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.transaction.Transactional;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class PriceQuoteTest {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private PriceQuoteSigner quoteSigner;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Product mouse;
+    private Product teclado;
+
+    @BeforeEach
+    void setup() {
+        mouse = productRepository.save(new Product("Mouse cotado", null, new BigDecimal("80.00"), 10));
+        teclado = productRepository.save(new Product("Teclado cotado", null, new BigDecimal("120.00"), 10));
+        Coupon cupom = new Coupon();
+        cupom.setCode("COTA10");
+        cupom.setType("percent");
+        cupom.setDiscountValue(new BigDecimal("10"));
+        cupom.setOneShot(false);
+        cupom.setValidFrom(LocalDateTime.now().minusDays(1));
+        cupom.setValidUntil(LocalDateTime.now().plusDays(1));
+        couponRepository.save(cupom);
+    }
+
+    private CartSummaryDTO checkout() {
+        CartRequestDTO cart = new CartRequestDTO();
+        cart.setProductIds(List.of(mouse.getId(), teclado.getId()));
+        cart.setCouponCode("cota10");
+        return cartService.checkout(cart);
+    }
+
+    private OrderRequestDTO pedido(String token) {
+        OrderRequestDTO dto = new OrderRequestDTO();
+        dto.setQuoteToken(token);
+        return dto;
+    }
+
+    @Test
+    void deveCriarPedidoComOsPrecosDaCotacaoSemReprecificar() {
+        CartSummaryDTO cotacao = checkout();
+        assertNotNull(cotacao.getQuoteToken());
+        assertTrue(cotacao.getQuoteExpiresAt().isAfter(LocalDateTime.now()));
+
+        // Preço muda depois da cotação: o pedido mantém o valor cotado
+        mouse.setPrice(new BigDecimal("999.00"));
+        productRepository.saveAndFlush(mouse);
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        OrderSummaryDTO pedido = orderService.saveOrder(pedido(cotacao.getQuoteToken()));
+
+        assertEquals(0, pedido.getTotalOriginal().compareTo(new BigDecimal("200.00")));
+        assertEquals(0, pedido.getTotalFinal().compareTo(new BigDecimal("180.00")));
+        assertEquals("cota10", pedido.getCouponCode());
+        assertEquals(List.of("Mouse cotado", "Teclado cotado"), pedido.getProductNames());
+        assertEquals(0, stats.getEntityLoadCount());
+    }
+
+    @Test
+    void deveRejeitarCotacaoAdulterada() {
+        String token = checkout().getQuoteToken();
+        String adulterado = token.substring(0, 10) + (token.charAt(10) == 'A' ? 'B' : 'A') + token.substring(11);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> orderService.saveOrder(pedido(adulterado)));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+
+        ex = assertThrows(ResponseStatusException.class, () -> orderService.saveOrder(pedido("lixo")));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+
+    @Test
+    void deveRejeitarCotacaoExpirada() {
+        PriceQuoteSigner expirado = new PriceQuoteSigner("segredo-de-teste-com-pelo-menos-32-bytes", Duration.ofMillis(-1));
+        String token = expirado.sign(new PriceQuote(expirado.expiresAt(System.currentTimeMillis()), null, null,
+                100, 0, 100, List.of(), List.of(new PriceQuote.Line(mouse.getId(), "Mouse", 100, 1))));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> expirado.verify(token));
+        assertEquals(HttpStatus.GONE, ex.getStatusCode());
+
+        // Assinada com outra chave
+        ex = assertThrows(ResponseStatusException.class, () -> quoteSigner.verify(token));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+
+    @Test
+    void deveRecusarSegredoCurto() {
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> new PriceQuoteSigner("segredo-curto", Duration.ofMinutes(5)));
+        assertTrue(ex.getMessage().contains("32 bytes"));
+    }
+
+    @Test
+    void deveRejeitarItensDiferentesDaCotacao() {
+        OrderRequestDTO dto = pedido(checkout().getQuoteToken());
+        OrderRequestDTO.OrderItemDTO item = new OrderRequestDTO.OrderItemDTO();
+        item.setProductId(mouse.getId());
+        item.setQuantity(2);
+        dto.setItems(List.of(item));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> orderService.saveOrder(dto));
+        assertEquals(HttpStatus.CONFLICT, ex.getStatusCode());
+    }
+}
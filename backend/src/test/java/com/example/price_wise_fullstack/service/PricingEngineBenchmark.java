@@ -0,0 +1,117 @@
+package com.example.price_wise_fullstack.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Carts priced per second by a compiled {@link PricingPlan}. The rules mix
+ * every condition and action type over a catalog of 1000 products, and
+ * each invocation prices the next cart of a pre-generated batch.
+ *
+ * <pre>mvn -Pbenchmark test-compile exec:exec -Dbenchmark=PricingEngineBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PricingEngineBenchmark {
+
+    private static final int PRODUCTS = 1000;
+    private static final int CARTS = 1024;
+
+    @Param({"10", "100", "1000"})
+    public int rules;
+
+    @Param({"5", "30"})
+    public int linesPerCart;
+
+    private PricingPlan plan;
+    private PricingRule coupon;
+    private List<List<PricingLine>> carts;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        String[] actions = {PricingRule.PERCENT, PricingRule.FIXED, PricingRule.BUY_X_GET_Y};
+
+        List<PricingRule> compiled = new ArrayList<>(rules);
+        for (long id = 1; id <= rules; id++) {
+            String action = actions[random.nextInt(actions.length)];
+            Set<Long> productIds = null;
+            if (random.nextBoolean()) {
+                productIds = new HashSet<>();
+                for (int i = 0; i < 1 + random.nextInt(20); i++) {
+                    productIds.add((long) random.nextInt(PRODUCTS));
+                }
+            }
+            compiled.add(new PricingRule(
+                id,
+                "rule-" + id,
+                random.nextInt(10),
+                random.nextInt(4) != 0,
+                random.nextBoolean() ? 100L * (50 + random.nextInt(950)) : null,
+                productIds,
+                random.nextBoolean() ? 1 + random.nextInt(5) : null,
+                action,
+                action.equals(PricingRule.PERCENT) ? 100L * (1 + random.nextInt(30))
+                        : action.equals(PricingRule.FIXED) ? 100L * (1 + random.nextInt(50)) : 0,
+                action.equals(PricingRule.BUY_X_GET_Y) ? 2 : null,
+                action.equals(PricingRule.BUY_X_GET_Y) ? 1 : null
+            ));
+        }
+        plan = PricingPlan.compile(compiled);
+        coupon = new PricingRule(null, "cupom", Integer.MIN_VALUE, true, null, null, null,
+                PricingRule.PERCENT, 10_00, null, null);
+
+        carts = new ArrayList<>(CARTS);
+        for (int c = 0; c < CARTS; c++) {
+            List<PricingLine> lines = new ArrayList<>(linesPerCart);
+            for (int i = 0; i < linesPerCart; i++) {
+                lines.add(new PricingLine(
+                    (long) random.nextInt(PRODUCTS),
+                    100 + random.nextInt(20_000),
+                    1 + random.nextInt(3)
+                ));
+            }
+            carts.add(lines);
+        }
+    }
+
+    @Benchmark
+    public PricingResult priceCart() {
+        List<PricingLine> cart = carts.get(next++ & (CARTS - 1));
+        return plan.evaluate(cart, coupon);
+    }
+
+    @Benchmark
+    public PricingResult priceCartWithoutCoupon() {
+        List<PricingLine> cart = carts.get(next++ & (CARTS - 1));
+        return plan.evaluate(cart, null);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PricingEngineBenchmark.class.getSimpleName()).build()).run();
+    }
+}
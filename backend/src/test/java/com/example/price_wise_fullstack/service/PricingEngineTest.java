@@ -0,0 +1,181 @@
+package com.example.price_wise_fullstack.service;
+
+import com.example.price_wise_fullstack.dto.CartRequestDTO;
+import com.example.price_wise_fullstack.dto.CartSummaryDTO;
+import com.example.price_wise_fullstack.dto.PromotionRuleRequestDTO;
+import com.example.price_wise_fullstack.model.Coupon;
+import com.example.price_wise_fullstack.model.Product;
+import com.example.price_wise_fullstack.repository.CouponRepository;
+import com.example.price_wise_fullstack.repository.ProductRepository;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class PricingEngineTest {
+
+    @Autowired
+    private PromotionRuleService promotionRuleService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    // Valores em centavos; percentuais em pontos-base
+    private static PricingRule regra(long id, int prioridade, boolean acumula, Long minimo, Set<Long> produtos,
+                                     Integer quantidade, String acao, long valor) {
+        return new PricingRule(id, "regra" + id, prioridade, acumula, minimo, produtos, quantidade, acao, valor,
+                null, null);
+    }
+
+    private static PricingLine linha(long produto, long preco, int quantidade) {
+        return new PricingLine(produto, preco, quantidade);
+    }
+
+    @Test
+    void deveAplicarSomenteRegrasCujasCondicoesOCarrinhoAtende() {
+        PricingPlan plan = PricingPlan.compile(List.of(
+            regra(1, 0, true, 100_00L, null, null, PricingRule.PERCENT, 10_00),
+            regra(2, 0, true, 500_00L, null, null, PricingRule.FIXED, 50_00),
+            regra(3, 0, true, null, Set.of(7L), 3, PricingRule.PERCENT, 50_00),
+            regra(4, 0, true, null, Set.of(9L), null, PricingRule.FIXED, 5_00)
+        ));
+
+        PricingResult result = plan.evaluate(List.of(linha(7, 20_00, 3), linha(8, 60_00, 1)), null);
+
+        // 10% de 120 mais 50% dos 60 do produto 7; a de 500 e a do produto 9 não se aplicam
+        assertEquals(120_00, result.subtotal());
+        assertEquals(List.of("regra1", "regra3"), result.promotionNames());
+        assertEquals(42_00, result.discount());
+        assertEquals(78_00, result.total());
+    }
+
+    @Test
+    void deveRespeitarPrioridadeERegraNaoAcumulativa() {
+        PricingPlan plan = PricingPlan.compile(List.of(
+            regra(1, 10, false, null, null, null, PricingRule.PERCENT, 30_00),
+            regra(2, 5, true, null, null, null, PricingRule.FIXED, 10_00),
+            regra(3, 20, true, 1000_00L, null, null, PricingRule.FIXED, 100_00)
+        ));
+
+        PricingResult sozinha = plan.evaluate(List.of(linha(1, 100_00, 1)), null);
+        assertEquals(List.of("regra1"), sozinha.promotionNames());
+        assertEquals(70_00, sozinha.total());
+
+        // Uma regra acumulável de maior prioridade já aplicada bloqueia a exclusiva
+        PricingResult acumulada = plan.evaluate(List.of(linha(1, 1000_00, 1)), null);
+        assertEquals(List.of("regra3", "regra2"), acumulada.promotionNames());
+        assertEquals(110_00, acumulada.discount());
+    }
+
+    @Test
+    void deveDarAsUnidadesMaisBaratasNoLevePague() {
+        PricingRule leve3Pague2 = new PricingRule(1L, "leve3pague2", 0, true, null, null, null,
+                PricingRule.BUY_X_GET_Y, 0, 2, 1);
+        PricingPlan plan = PricingPlan.compile(List.of(leve3Pague2));
+
+        PricingResult result = plan.evaluate(List.of(linha(1, 30_00, 4), linha(2, 10_00, 3)), null);
+
+        // 7 unidades: 2 grupos de 3, as 2 mais baratas (10 cada) saem de graça
+        assertEquals(20_00, result.discount());
+    }
+
+    @Test
+    void deveLimitarODescontoAoSubtotalEAcumularOCupom() {
+        PricingPlan plan = PricingPlan.compile(List.of(
+            regra(1, 0, true, null, null, null, PricingRule.PERCENT, 50_00)
+        ));
+        Coupon coupon = new Coupon();
+        coupon.setId(1L);
+        coupon.setCode("maior100");
+        coupon.setType("fixed");
+        coupon.setDiscountValue(new BigDecimal("100"));
+        coupon.setOneShot(false);
+        coupon.setValidFrom(LocalDateTime.now());
+        coupon.setValidUntil(LocalDateTime.now());
+
+        PricingResult result = plan.evaluate(List.of(linha(1, 80_00, 1)), PricingRule.of(CouponSnapshot.of(coupon)));
+
+        assertEquals(80_00, result.discount());
+        assertEquals(0, result.total());
+        assertEquals(40_00, result.applied().get(1).amount());
+    }
+
+    @Test
+    void deveArredondarPercentualNoCentavo() {
+        // 12,5% de 0,99 = 0,12375 e 15% de 0,10 = 0,015: meio centavo arredonda para cima
+        assertEquals(12, Money.percentOf(99, Money.toBasisPoints(new BigDecimal("12.5"))));
+        assertEquals(2, Money.percentOf(10, 15_00));
+        assertEquals(1, Money.percentOf(10, 15_00, RoundingMode.DOWN));
+        assertEquals(2, Money.percentOf(10, 15_00, RoundingMode.HALF_EVEN));
+        assertEquals(2, Money.percentOf(30, 5_00, RoundingMode.HALF_EVEN));
+        for (long cents = -500; cents <= 500; cents += 7) {
+            for (RoundingMode mode : List.of(RoundingMode.UP, RoundingMode.DOWN, RoundingMode.CEILING,
+                    RoundingMode.FLOOR, RoundingMode.HALF_UP, RoundingMode.HALF_DOWN, RoundingMode.HALF_EVEN)) {
+                long esperado = BigDecimal.valueOf(cents).multiply(new BigDecimal("0.0333"))
+                        .setScale(0, mode).longValueExact();
+                assertEquals(esperado, Money.percentOf(cents, 333, mode), cents + " " + mode);
+            }
+        }
+        assertEquals(new BigDecimal("12.30"), Money.toDecimal(Money.toCents(new BigDecimal("12.295"))));
+        assertThrows(ArithmeticException.class, () -> Money.times(Long.MAX_VALUE / 2, 3));
+    }
+
+    @Test
+    void deveAplicarPromocaoCadastradaNoCheckout() {
+        Product produto = productRepository.save(new Product("Produto promo", null, new BigDecimal("200.00"), 10));
+        Coupon cupom = new Coupon();
+        cupom.setCode("PROMOCHK");
+        cupom.setType("percent");
+        cupom.setDiscountValue(new BigDecimal("10"));
+        cupom.setOneShot(false);
+        cupom.setValidFrom(LocalDateTime.now().minusDays(1));
+        cupom.setValidUntil(LocalDateTime.now().plusDays(1));
+        couponRepository.save(cupom);
+
+        PromotionRuleRequestDTO dto = new PromotionRuleRequestDTO();
+        dto.setName("Acima de 150");
+        dto.setMinCartValue(new BigDecimal("150"));
+        dto.setAction("fixed");
+        dto.setValue(new BigDecimal("30"));
+        promotionRuleService.create(dto);
+
+        CartRequestDTO cart = new CartRequestDTO();
+        cart.setProductIds(List.of(produto.getId()));
+        cart.setCouponCode("promochk");
+        CartSummaryDTO result = cartService.checkout(cart);
+
+        // 30 da promoção mais 10% de 200 do cupom
+        assertEquals(List.of("Acima de 150"), result.getAppliedPromotions());
+        assertEquals(0, result.getDiscountAmount().compareTo(new BigDecimal("50")));
+        assertEquals(0, result.getTotalWithDiscount().compareTo(new BigDecimal("150")));
+    }
+
+    @Test
+    void deveExigirQuantidadesNoLevePague() {
+        PromotionRuleRequestDTO dto = new PromotionRuleRequestDTO();
+        dto.setName("Incompleta");
+        dto.setAction("buy_x_get_y");
+        dto.setBuyQuantity(2);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> promotionRuleService.create(dto));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+}
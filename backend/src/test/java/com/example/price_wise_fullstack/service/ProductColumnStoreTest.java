@@ -0,0 +1,140 @@
+package com.example.price_wise_fullstack.service;
+
+import com.example.price_wise_fullstack.dto.PaginatedResponseDTO;
+import com.example.price_wise_fullstack.dto.ProductResponseDTO;
+import com.example.price_wise_fullstack.model.Product;
+import com.example.price_wise_fullstack.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "pricewise.products.columnar.enabled=true")
+// Sem transação de teste: as visões em memória só recebem alterações confirmadas
+class ProductColumnStoreTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductColumnStore columnStore;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @AfterEach
+    void cleanup() {
+        productRepository.deleteAll();
+    }
+
+    @BeforeEach
+    void setup() {
+        productRepository.deleteAll();
+        salvar("Notebook Dell", "4500.00", 10);
+        salvar("Mouse Logitech", "150.00", 25);
+        salvar("Teclado Mecânico", "350.00", 0);
+        salvar("Monitor LG", "150.00", 5);
+    }
+
+    private void salvar(String nome, String preco, int estoque) {
+        Product p = new Product();
+        p.setName(nome);
+        p.setDescription("desc " + nome);
+        p.setPrice(new BigDecimal(preco));
+        p.setStock(estoque);
+        productRepository.saveAndFlush(p);
+    }
+
+    @Test
+    void deveListarPorPrecoComFiltroSemBanco() {
+        PaginatedResponseDTO<ProductResponseDTO> result = columnStore
+                .query(new BigDecimal("100"), new BigDecimal("400"), 1, 10, "price", Sort.Direction.ASC)
+                .orElseThrow();
+
+        assertEquals(3, result.getTotalItems());
+        assertEquals(List.of("Mouse Logitech", "Monitor LG", "Teclado Mecânico"),
+                result.getData().stream().map(ProductResponseDTO::getName).toList());
+        assertEquals(new BigDecimal("150.00"), result.getData().get(0).getPrice());
+    }
+
+    @Test
+    void devePaginarPorNomeDecrescente() {
+        PaginatedResponseDTO<ProductResponseDTO> result = productService.listFiltered(null, null, null, 2, 3, "name", "desc");
+
+        assertEquals(4, result.getTotalItems());
+        assertEquals(2, result.getTotalPages());
+        assertEquals(List.of("Monitor LG"), result.getData().stream().map(ProductResponseDTO::getName).toList());
+    }
+
+    @Test
+    void deveRefletirAlteracoesEDelecoes() {
+        Product notebook = productRepository.findAll().stream()
+                .filter(p -> p.getName().equals("Notebook Dell"))
+                .findFirst().orElseThrow();
+        notebook.setPrice(new BigDecimal("99.90"));
+        productRepository.saveAndFlush(notebook);
+        productRepository.delete(productRepository.findAll().stream()
+                .filter(p -> p.getName().equals("Monitor LG"))
+                .findFirst().orElseThrow());
+        productRepository.flush();
+
+        PaginatedResponseDTO<ProductResponseDTO> result = productService.listFiltered(null, null, new BigDecimal("200"), 1, 10, "price", "asc");
+
+        assertEquals(List.of("Notebook Dell", "Mouse Logitech"),
+                result.getData().stream().map(ProductResponseDTO::getName).toList());
+        assertEquals(new BigDecimal("99.90"), result.getData().get(0).getPrice());
+    }
+
+    @Test
+    void naoDeveAtenderOrdenacaoNaoSuportada() {
+        assertTrue(columnStore.query(null, null, 1, 10, "stock", Sort.Direction.ASC).isEmpty());
+
+        PaginatedResponseDTO<ProductResponseDTO> result = productService.listFiltered(null, null, null, 1, 10, "stock", "asc");
+        assertEquals(0, result.getData().get(0).getStock());
+    }
+
+    // Mesma página antes do rebuild (base + delta) e depois (só colunas)
+    @Test
+    void deveResponderIgualComDeltaEDepoisDoRebuild() {
+        columnStore.rebuild();
+        salvar("Cabo HDMI", "150.00", 3);
+        salvar("Zebra Impressora", "900.00", 1);
+        Product mouse = productRepository.findAll().stream()
+                .filter(p -> p.getName().equals("Mouse Logitech"))
+                .findFirst().orElseThrow();
+        mouse.setName("Abajur");
+        productRepository.saveAndFlush(mouse);
+        assertTrue(columnStore.pendingChanges() > 0);
+
+        List<List<String>> antes = paginas();
+        columnStore.rebuild();
+        assertEquals(0, columnStore.pendingChanges());
+        assertEquals(antes, paginas());
+        assertEquals(List.of("Abajur", "Cabo HDMI", "total=5"), antes.get(0));
+    }
+
+    private List<List<String>> paginas() {
+        List<List<String>> paginas = new ArrayList<>();
+        for (String campo : List.of("name", "price", "id")) {
+            for (Sort.Direction direcao : Sort.Direction.values()) {
+                for (int pagina = 1; pagina <= 3; pagina++) {
+                    PaginatedResponseDTO<ProductResponseDTO> result = columnStore
+                            .query(null, new BigDecimal("1000"), pagina, 2, campo, direcao)
+                            .orElseThrow();
+                    List<String> nomes = new ArrayList<>(result.getData().stream().map(ProductResponseDTO::getName).toList());
+                    nomes.add("total=" + result.getTotalItems());
+                    paginas.add(nomes);
+                }
+            }
+        }
+        return paginas;
+    }
+}
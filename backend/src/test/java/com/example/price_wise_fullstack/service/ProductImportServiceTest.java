@@ -0,0 +1,108 @@
+package com.example.price_wise_fullstack.service;
+
+import com.example.price_wise_fullstack.dto.ProductImportErrorDTO;
+import com.example.price_wise_fullstack.dto.ProductImportResultDTO;
+import com.example.price_wise_fullstack.dto.ProductSuggestionDTO;
+import com.example.price_wise_fullstack.model.Product;
+import com.example.price_wise_fullstack.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+// Sem transação de teste: as visões em memória só recebem alterações confirmadas
+class ProductImportServiceTest {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @AfterEach
+    void cleanup() {
+        productRepository.deleteAll();
+    }
+
+    @BeforeEach
+    void setup() {
+        productRepository.deleteAll();
+        productRepository.save(new Product("Notebook Dell", "Intel i7", new BigDecimal("4500.00"), 10));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void deveImportarJsonReportandoErrosPorLinha() throws Exception {
+        String json = """
+            [
+              {"name": "Mouse Logitech", "description": "Wireless", "price": 150.00, "stock": 25},
+              {"name": "notebook dell", "price": 10, "stock": 1},
+              {"name": "Teclado", "price": "abc", "stock": 1},
+              {"name": "Monitor LG", "price": 0, "stock": 1},
+              {"name": "MOUSE LOGITECH", "price": 99, "stock": 2},
+              {"name": "Webcam HD", "price": 299.90, "stock": 4}
+            ]
+            """;
+
+        ProductImportResultDTO result = productImportService.importJson(stream(json));
+
+        assertEquals(2, result.getImported());
+        assertEquals(4, result.getRejected());
+        assertEquals(List.of(2L, 3L, 4L, 5L), result.getErrors().stream().map(ProductImportErrorDTO::getRow).sorted().toList());
+        assertEquals(3, productRepository.count());
+    }
+
+    @Test
+    void deveImportarCsvComCamposEntreAspas() throws Exception {
+        String csv = "name,description,price,stock\r\n"
+                + "\"Cabo USB, 2m\",\"Cabo \"\"reforçado\"\"\",19.90,3\r\n"
+                + "Hub USB,\"Quatro\nportas\",89.00,7\r\n"
+                + "Sem preço,,,1\r\n";
+
+        ProductImportResultDTO result = productImportService.importCsv(stream(csv));
+
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getRejected());
+        assertEquals(3, result.getErrors().get(0).getRow());
+
+        Product cabo = productRepository.findAll().stream()
+                .filter(p -> p.getName().equals("Cabo USB, 2m"))
+                .findFirst().orElseThrow();
+        assertEquals("Cabo \"reforçado\"", cabo.getDescription());
+        assertEquals(new BigDecimal("19.90"), cabo.getPrice());
+    }
+
+    @Test
+    void deveDisponibilizarProdutosImportadosNaBusca() throws Exception {
+        productImportService.importCsv(stream("name,price,stock\nHeadset Gamer,199.90,5\n"));
+
+        List<ProductSuggestionDTO> sugestoes = productService.suggest("head", 5);
+        assertEquals(List.of("Headset Gamer"), sugestoes.stream().map(ProductSuggestionDTO::getName).toList());
+        assertEquals(1, productService.listFiltered("headset", null, null, 1, 10, "relevance", "desc").getTotalItems());
+    }
+
+    @Test
+    void deveRejeitarCsvSemColunasObrigatorias() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> productImportService.importCsv(stream("name,description\nA,B\n")));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+}
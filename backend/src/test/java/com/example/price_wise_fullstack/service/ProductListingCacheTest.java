@@ -0,0 +1,91 @@
+package com.example.price_wise_fullstack.service;
+
+import com.example.price_wise_fullstack.dto.PaginatedResponseDTO;
+import com.example.price_wise_fullstack.dto.ProductResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductListingCacheTest {
+
+    private SimpleMeterRegistry registry;
+    private ProductListingCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setup() {
+        registry = new SimpleMeterRegistry();
+        cache = new ProductListingCache(100, Duration.ofMinutes(1), registry);
+        loads = new AtomicInteger();
+    }
+
+    private PaginatedResponseDTO<ProductResponseDTO> load() {
+        loads.incrementAndGet();
+        return new PaginatedResponseDTO<>(new PageImpl<>(List.of()));
+    }
+
+    @Test
+    void deveReutilizarResultadoParaParametrosEquivalentes() {
+        cache.get(" Mouse ", new BigDecimal("10.0"), null, 1, 10, "name", "ASC", false, this::load);
+        cache.get("mouse", new BigDecimal("10"), null, 1, 10, "name", "asc", false, this::load);
+
+        assertEquals(1, loads.get());
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void deveInvalidarEmQualquerEscrita() {
+        cache.get(null, null, null, 1, 10, "name", "asc", false, this::load);
+        cache.productRemoved(1L);
+        cache.get(null, null, null, 1, 10, "name", "asc", false, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void deveAgruparMissesConcorrentesEmUmaUnicaCarga() throws Exception {
+        int threads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<PaginatedResponseDTO<ProductResponseDTO>>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return cache.get(null, null, null, 1, 10, "price", "desc", false, () -> {
+                        try {
+                            Thread.sleep(100);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return load();
+                    });
+                }));
+            }
+            start.countDown();
+            PaginatedResponseDTO<ProductResponseDTO> first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<PaginatedResponseDTO<ProductResponseDTO>> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+    }
+}
@@ -1,22 +1,36 @@
 package com.example.price_wise_fullstack.service;
 
+import com.example.price_wise_fullstack.dto.CursorPageResponseDTO;
 import com.example.price_wise_fullstack.dto.PaginatedResponseDTO;
 import com.example.price_wise_fullstack.dto.ProductRequestDTO;
 import com.example.price_wise_fullstack.dto.ProductResponseDTO;
+import com.example.price_wise_fullstack.dto.ProductSuggestionDTO;
 import com.example.price_wise_fullstack.model.Product;
 import com.example.price_wise_fullstack.repository.ProductRepository;
-import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
-@Transactional
+// Sem transação de teste: as visões em memória só recebem alterações confirmadas
 class ProductServiceTest {
 
     @Autowired
@@ -25,8 +39,16 @@ class ProductServiceTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     private Product produto1, produto2, produto3;
 
+    @AfterEach
+    void cleanup() {
+        productRepository.deleteAll();
+    }
+
     @BeforeEach
     void setup() {
         productRepository.deleteAll();
@@ -191,4 +213,309 @@ class ProductServiceTest {
             );
         });
     }
+
+    @Test
+    void devePaginarPorCursorSemRepetirItens() {
+        CursorPageResponseDTO<ProductResponseDTO> primeira = productService.listKeyset(
+            null, null, null, 2, "price", "asc", null, false, false
+        );
+
+        assertEquals(2, primeira.getData().size());
+        assertEquals(new BigDecimal("150.00"), primeira.getData().get(0).getPrice());
+        assertTrue(primeira.isHasNext());
+        assertNull(primeira.getTotalItems());
+
+        CursorPageResponseDTO<ProductResponseDTO> segunda = productService.listKeyset(
+            null, null, null, 2, "price", "asc", primeira.getNextCursor(), false, false
+        );
+
+        assertEquals(1, segunda.getData().size());
+        assertEquals(new BigDecimal("4500.00"), segunda.getData().get(0).getPrice());
+        assertFalse(segunda.isHasNext());
+        assertNull(segunda.getNextCursor());
+    }
+
+    @Test
+    void devePaginarPorCursorComFiltroETotal() {
+        CursorPageResponseDTO<ProductResponseDTO> result = productService.listKeyset(
+            null, new BigDecimal("200.00"), null, 1, "name", "desc", null, true, false
+        );
+
+        assertEquals(2, result.getTotalItems());
+        assertEquals("Teclado Mecânico", result.getData().get(0).getName());
+        assertTrue(result.isHasNext());
+    }
+
+    @Test
+    void deveRejeitarCursorDeOutraOrdenacao() {
+        CursorPageResponseDTO<ProductResponseDTO> primeira = productService.listKeyset(
+            null, null, null, 1, "price", "asc", null, false, false
+        );
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> {
+            productService.listKeyset(null, null, null, 1, "name", "asc", primeira.getNextCursor(), false, false);
+        });
+
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+
+    @Test
+    void deveOrdenarPorRelevancia() {
+        Product acessorio = new Product();
+        acessorio.setName("Mousepad");
+        acessorio.setDescription("Ideal para mouse gamer");
+        acessorio.setPrice(new BigDecimal("80.00"));
+        acessorio.setStock(30);
+        productRepository.save(acessorio);
+
+        PaginatedResponseDTO<ProductResponseDTO> result = productService.listFiltered(
+            "mouse", null, null, 1, 10, "relevance", "desc"
+        );
+
+        assertEquals(2, result.getTotalItems());
+        assertEquals("Mouse Logitech", result.getData().get(0).getName());
+        assertEquals("Mousepad", result.getData().get(1).getName());
+    }
+
+    @Test
+    void deveBuscarPorPrefixoEIgnorarAcentos() {
+        PaginatedResponseDTO<ProductResponseDTO> result = productService.listFiltered(
+            "teclado mecanico", null, null, 1, 10, "relevance", "asc"
+        );
+
+        assertEquals(1, result.getTotalItems());
+        assertEquals("Teclado Mecânico", result.getData().get(0).getName());
+
+        PaginatedResponseDTO<ProductResponseDTO> prefixo = productService.listFiltered(
+            "note", null, null, 1, 10, "name", "asc"
+        );
+
+        assertEquals(1, prefixo.getTotalItems());
+    }
+
+    @Test
+    void deveBuscarTrechoNoMeioDaPalavra() {
+        // Como o LIKE '%book%' que o índice substitui; o termo exato continua na frente
+        Product livro = new Product("Book de receitas", null, new BigDecimal("60.00"), 5);
+        productRepository.save(livro);
+
+        PaginatedResponseDTO<ProductResponseDTO> result = productService.listFiltered(
+            "book", null, null, 1, 10, "relevance", "desc"
+        );
+
+        assertEquals(2, result.getTotalItems());
+        assertEquals("Book de receitas", result.getData().get(0).getName());
+        assertEquals("Notebook Dell", result.getData().get(1).getName());
+
+        assertEquals(1, productService.listFiltered("gitec", null, null, 1, 10, "name", "asc").getTotalItems());
+    }
+
+    @Test
+    void deveOrdenarEPaginarBuscaPeloIndice() {
+        for (int i = 0; i < 7; i++) {
+            productRepository.save(new Product("Cabo USB " + i, "Cabo de dados", new BigDecimal(10 + (i % 3)), i));
+        }
+
+        // Página por número e por cursor na mesma ordem de preço decrescente, empate por id decrescente
+        List<Long> paginas = new ArrayList<>();
+        for (int page = 1; page <= 3; page++) {
+            productService.listFiltered("cabo", null, new BigDecimal("11.00"), page, 2, "price", "desc")
+                    .getData().forEach(p -> paginas.add(p.getId()));
+        }
+        List<Long> cursores = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageResponseDTO<ProductResponseDTO> pagina = productService.listKeyset(
+                "cabo", null, new BigDecimal("11.00"), 2, "price", "desc", cursor, true, false
+            );
+            assertEquals(5, pagina.getTotalItems());
+            pagina.getData().forEach(p -> cursores.add(p.getId()));
+            cursor = pagina.getNextCursor();
+        } while (cursor != null);
+
+        List<Long> esperado = productRepository.findAll().stream()
+                .filter(p -> p.getName().startsWith("Cabo") && p.getPrice().compareTo(new BigDecimal("11.00")) <= 0)
+                .sorted(Comparator.comparing(Product::getPrice).thenComparing(Product::getId).reversed())
+                .map(Product::getId)
+                .toList();
+        assertEquals(5, esperado.size());
+        assertEquals(esperado, paginas);
+        assertEquals(esperado, cursores);
+    }
+
+    @Test
+    void deveIndexarProdutoCriado() {
+        ProductRequestDTO dto = new ProductRequestDTO();
+        dto.setName("Cadeira Gamer");
+        dto.setDescription("Ergonômica");
+        dto.setPrice(new BigDecimal("1200.00"));
+        dto.setStock(3);
+        productService.createProduct(dto);
+
+        PaginatedResponseDTO<ProductResponseDTO> result = productService.listFiltered(
+            "ergonomica", null, new BigDecimal("1500.00"), 1, 10, "relevance", "asc"
+        );
+
+        assertEquals(1, result.getTotalItems());
+        assertEquals("Cadeira Gamer", result.getData().get(0).getName());
+    }
+
+    @Test
+    void deveEncontrarProdutoComErroDeDigitacaoNoModoFuzzy() {
+        PaginatedResponseDTO<ProductResponseDTO> exato = productService.listFiltered(
+            "notbook", null, null, 1, 10, "relevance", "asc", false
+        );
+        assertEquals(0, exato.getTotalItems());
+
+        PaginatedResponseDTO<ProductResponseDTO> fuzzy = productService.listFiltered(
+            "notbook", null, null, 1, 10, "relevance", "asc", true
+        );
+        assertEquals(1, fuzzy.getTotalItems());
+        assertEquals("Notebook Dell", fuzzy.getData().get(0).getName());
+    }
+
+    @Test
+    void deveCorrigirVariosTermosNoModoFuzzy() {
+        Product cadeira = new Product();
+        cadeira.setName("Cadeira Gamer");
+        cadeira.setPrice(new BigDecimal("1200.00"));
+        cadeira.setStock(3);
+        productRepository.save(cadeira);
+
+        PaginatedResponseDTO<ProductResponseDTO> result = productService.listFiltered(
+            "cadeira gamr", null, null, 1, 10, "name", "asc", true
+        );
+
+        assertEquals(1, result.getTotalItems());
+        assertEquals("Cadeira Gamer", result.getData().get(0).getName());
+    }
+
+    @Test
+    void deveSugerirNomesPorPrefixoOrdenadosPorEstoque() {
+        Product mousepad = new Product();
+        mousepad.setName("Mousepad");
+        mousepad.setPrice(new BigDecimal("80.00"));
+        mousepad.setStock(40);
+        productRepository.save(mousepad);
+
+        List<ProductSuggestionDTO> sugestoes = productService.suggest("mou", 10);
+
+        assertEquals(2, sugestoes.size());
+        assertEquals("Mousepad", sugestoes.get(0).getName());
+        assertEquals("Mouse Logitech", sugestoes.get(1).getName());
+
+        assertEquals("Notebook Dell", productService.suggest("del", 10).get(0).getName());
+        assertEquals(1, productService.suggest("mouse ", 10).size());
+        assertTrue(productService.suggest("xyz", 10).isEmpty());
+    }
+
+    @Test
+    void naoDeveExporProdutoAntesDoCommit() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            productRepository.saveAndFlush(new Product("Projetor Epson", null, new BigDecimal("2500.00"), 3));
+            // Já está no banco desta transação, mas as visões são compartilhadas com as outras requisições
+            assertTrue(productService.suggest("proj", 10).isEmpty());
+            assertEquals(0, productService.listFiltered("projetor", null, null, 1, 10, "name", "asc").getTotalItems());
+        });
+        assertEquals("Projetor Epson", productService.suggest("proj", 10).get(0).getName());
+
+        tx.executeWithoutResult(status -> {
+            productRepository.saveAndFlush(new Product("Projetor Desfeito", null, new BigDecimal("900.00"), 3));
+            status.setRollbackOnly();
+        });
+        assertEquals(List.of("Projetor Epson"),
+                productService.suggest("proj", 10).stream().map(ProductSuggestionDTO::getName).toList());
+    }
+
+    @Test
+    void deveAtualizarSugestoesQuandoProdutoMuda() {
+        produto2.setName("Mouse Razer");
+        productRepository.saveAndFlush(produto2);
+
+        assertTrue(productService.suggest("logi", 10).isEmpty());
+        assertEquals("Mouse Razer", productService.suggest("raz", 10).get(0).getName());
+
+        productRepository.delete(produto2);
+        productRepository.flush();
+
+        assertTrue(productService.suggest("mouse", 10).isEmpty());
+    }
+
+    @Test
+    void deveManterSugestoesIguaisAVarreduraComQuebrasEJuncoesDeArestas() {
+        // Palavras com prefixos em comum, para quebrar e juntar arestas a cada alteração
+        String[] palavras = {"mo", "mou", "mouse", "mousepad", "monitor", "mesa", "me", "cabo", "cab", "caixa"};
+        ProductSuggestionIndex indice = new ProductSuggestionIndex();
+        Map<Long, Product> atuais = new HashMap<>();
+        Random random = new Random(11);
+        for (int passo = 0; passo < 2000; passo++) {
+            long id = 1 + random.nextInt(60);
+            if (random.nextInt(4) == 0) {
+                indice.productRemoved(id);
+                atuais.remove(id);
+            } else {
+                StringBuilder nome = new StringBuilder();
+                for (int i = 1 + random.nextInt(3); i > 0; i--) {
+                    nome.append(nome.isEmpty() ? "" : " ").append(palavras[random.nextInt(palavras.length)]);
+                }
+                Product produto = new Product(nome.toString(), null, BigDecimal.ONE, random.nextInt(5));
+                produto.setId(id);
+                indice.productSaved(produto);
+                atuais.put(id, produto);
+            }
+
+            String prefixo = palavras[random.nextInt(palavras.length)];
+            prefixo = prefixo.substring(0, 1 + random.nextInt(prefixo.length()));
+            if (random.nextBoolean()) {
+                prefixo += " " + palavras[random.nextInt(palavras.length)].charAt(0);
+            }
+            String busca = prefixo;
+            List<Long> esperado = atuais.values().stream()
+                    .filter(p -> {
+                        List<String> tokens = List.of(p.getName().split(" "));
+                        for (int i = 0; i < tokens.size(); i++) {
+                            if (String.join(" ", tokens.subList(i, tokens.size())).startsWith(busca)) {
+                                return true;
+                            }
+                        }
+                        return false;
+                    })
+                    .sorted(Comparator.comparing(Product::getStock).reversed()
+                            .thenComparingInt(p -> p.getName().length())
+                            .thenComparing(Product::getId))
+                    .limit(ProductSuggestionIndex.TOP_K)
+                    .map(Product::getId)
+                    .toList();
+            List<Long> obtido = indice.suggest(busca, ProductSuggestionIndex.TOP_K).stream()
+                    .map(ProductSuggestionDTO::getId)
+                    .toList();
+            assertEquals(esperado, obtido, "passo " + passo + ", prefixo '" + busca + "'");
+        }
+    }
+
+    @Test
+    void deveExportarCatalogoEmNdjson() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        productService.exportCatalog("ndjson", out);
+
+        String[] linhas = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, linhas.length);
+        assertTrue(linhas[0].contains("\"name\":\"Notebook Dell\""));
+        assertTrue(linhas[2].contains("\"name\":\"Teclado Mecânico\""));
+    }
+
+    @Test
+    void deveExportarCatalogoEmCsvEscapandoCampos() throws Exception {
+        Product produto = new Product("Cabo USB, 2m", "Cabo \"reforçado\"", new BigDecimal("19.90"), 3);
+        productRepository.save(produto);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        productService.exportCatalog("csv", out);
+
+        List<String> linhas = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(5, linhas.size());
+        assertEquals("id,name,description,price,stock,createdAt,updatedAt", linhas.get(0));
+        assertTrue(linhas.get(4).startsWith(produto.getId() + ",\"Cabo USB, 2m\",\"Cabo \"\"reforçado\"\"\",19.90,3,"));
+    }
 }
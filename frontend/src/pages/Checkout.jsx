@@ -4,6 +4,14 @@ import { getProdutos, createOrder, getCupons } from "../services/api";
 import LoadingSpinner from "../components/LoadingSpinner";
 import ErrorMessage from "../components/ErrorMessage";
 
+// Hora local sem fuso, no formato que o backend espera para LocalDateTime
+function agoraLocal() {
+  const agora = new Date();
+  return new Date(agora.getTime() - agora.getTimezoneOffset() * 60000)
+    .toISOString()
+    .slice(0, 19);
+}
+
 export default function Checkout() {
   const navigate = useNavigate();
   const [products, setProducts] = useState([]);
@@ -21,10 +29,10 @@ export default function Checkout() {
         setError(""); // Limpa erros anteriores
         const [productsRes, couponsRes] = await Promise.all([
           getProdutos({ page: 1, limit: 100 }),
-          getCupons(),
+          getCupons({ activeAt: agoraLocal(), limit: 20 }),
         ]);
         setProducts(productsRes.data || []);
-        setAvailableCoupons(couponsRes || []);
+        setAvailableCoupons(couponsRes.data || []);
       } catch (err) {
         console.error("Error loading checkout data:", err);
         const errorMsg =
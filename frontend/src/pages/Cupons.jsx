@@ -1,13 +1,18 @@
 import { useEffect, useState } from "react";
-import { getCupons } from "../services/api";
+import { getCupons, getCouponStats } from "../services/api";
 import CouponCard from "../components/CouponCard";
 import CouponForm from "../components/CouponForm";
 import LoadingSpinner from "../components/LoadingSpinner";
 import ErrorMessage from "../components/ErrorMessage";
 
+const PAGE_SIZE = 20;
+
 export default function Cupons() {
   const [cupons, setCupons] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [stats, setStats] = useState({ totalCoupons: 0, active: 0, expired: 0 });
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [error, setError] = useState("");
   const [showForm, setShowForm] = useState(false);
 
@@ -15,8 +20,14 @@ export default function Cupons() {
     try {
       setLoading(true);
       setError("");
-      const response = await getCupons();
-      setCupons(response || []);
+      // Primeira página e totais vêm separados: os totais não dependem do que já foi carregado
+      const [pagina, totais] = await Promise.all([
+        getCupons({ limit: PAGE_SIZE }),
+        getCouponStats(),
+      ]);
+      setCupons(pagina.data || []);
+      setNextCursor(pagina.nextCursor);
+      setStats(totais);
     } catch (error) {
       console.error("Error fetching coupons:", error);
       setError("Error loading coupons");
@@ -25,6 +36,20 @@ export default function Cupons() {
     }
   };
 
+  async function carregarMais() {
+    setLoadingMore(true);
+    try {
+      const pagina = await getCupons({ cursor: nextCursor, limit: PAGE_SIZE });
+      setCupons((atuais) => [...atuais, ...pagina.data]);
+      setNextCursor(pagina.nextCursor);
+    } catch (error) {
+      console.error("Error fetching coupons:", error);
+      setError("Unable to load more coupons.");
+    } finally {
+      setLoadingMore(false);
+    }
+  }
+
   useEffect(() => {
     fetchCupons();
   }, []);
@@ -70,7 +95,7 @@ export default function Cupons() {
           <div className="flex items-center justify-between">
             <div>
               <p className="text-purple-100 text-sm">Total Coupons</p>
-              <p className="text-3xl font-bold mt-2">{cupons.length}</p>
+              <p className="text-3xl font-bold mt-2">{stats.totalCoupons}</p>
             </div>
             <div className="text-5xl opacity-20">🎟️</div>
           </div>
@@ -80,12 +105,7 @@ export default function Cupons() {
           <div className="flex items-center justify-between">
             <div>
               <p className="text-green-100 text-sm">Active Coupons</p>
-              <p className="text-3xl font-bold mt-2">
-                {
-                  cupons.filter((c) => new Date(c.validUntil) > new Date())
-                    .length
-                }
-              </p>
+              <p className="text-3xl font-bold mt-2">{stats.active}</p>
             </div>
             <div className="text-5xl opacity-20">✓</div>
           </div>
@@ -95,12 +115,7 @@ export default function Cupons() {
           <div className="flex items-center justify-between">
             <div>
               <p className="text-orange-100 text-sm">Expired Coupons</p>
-              <p className="text-3xl font-bold mt-2">
-                {
-                  cupons.filter((c) => new Date(c.validUntil) <= new Date())
-                    .length
-                }
-              </p>
+              <p className="text-3xl font-bold mt-2">{stats.expired}</p>
             </div>
             <div className="text-5xl opacity-20">⏰</div>
           </div>
@@ -128,6 +143,17 @@ export default function Cupons() {
                 <CouponCard key={cupom.id} cupom={cupom} />
               ))}
             </div>
+            {nextCursor && (
+              <div className="text-center mt-6">
+                <button
+                  onClick={carregarMais}
+                  disabled={loadingMore}
+                  className="px-6 py-2 bg-blue-600 text-white rounded-lg hover:bg-blue-700 disabled:opacity-50"
+                >
+                  {loadingMore ? "Loading..." : "Load more"}
+                </button>
+              </div>
+            )}
           </div>
         )}
       </div>
@@ -1,6 +1,6 @@
 import { useEffect, useState } from "react";
 import { useNavigate } from "react-router-dom";
-import { getProdutos, getCupons } from "../services/api";
+import { getProdutos, getCouponStats } from "../services/api";
 import ProductCard from "../components/ProductCard";
 import LoadingSpinner from "../components/LoadingSpinner";
 
@@ -17,30 +17,16 @@ export default function Dashboard() {
     async function fetchData() {
       try {
         setLoading(true);
-        const [productsResponse, couponsResponse] = await Promise.all([
+        const [productsResponse, couponStats] = await Promise.all([
           getProdutos({ page: 1, limit: 6 }),
-          getCupons().catch(() => ({ data: [] })),
+          getCouponStats().catch(() => ({ active: 0 })),
         ]);
 
         setProducts(productsResponse.data || []);
 
-        // Count active coupons (not deleted and still valid)
-        // Using date-only comparison (ignoring time)
-        const today = new Date().setHours(0, 0, 0, 0);
-        const activeCoupons = (
-          couponsResponse.data ||
-          couponsResponse ||
-          []
-        ).filter((coupon) => {
-          if (coupon.deletedAt) return false;
-          const validFrom = new Date(coupon.validFrom).setHours(0, 0, 0, 0);
-          const validUntil = new Date(coupon.validUntil).setHours(0, 0, 0, 0);
-          return today >= validFrom && today <= validUntil;
-        }).length;
-
         setStats({
           totalProducts: productsResponse.totalItems || 0,
-          activeCoupons: activeCoupons,
+          activeCoupons: couponStats?.active || 0,
         });
       } catch (error) {
         console.error("Erro ao carregar dados:", error);
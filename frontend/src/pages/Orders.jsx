@@ -1,12 +1,16 @@
 import OrderCard from "../components/OrderCard.jsx";
 import { useEffect, useState } from "react";
-import { getPedidos } from "../services/api.js";
+import { getPedidos, getOrderStats } from "../services/api.js";
 import LoadingSpinner from "../components/LoadingSpinner";
 import ErrorMessage from "../components/ErrorMessage";
 
+const PAGE_SIZE = 20;
+
 export default function Orders() {
   const [pedidos, setPedidos] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [erro, setErro] = useState(null);
   const [stats, setStats] = useState({
     total: 0,
@@ -16,17 +20,16 @@ export default function Orders() {
   useEffect(() => {
     async function buscarPedidos() {
       try {
-        const dados = await getPedidos();
-        setPedidos(dados);
-
-        // Calcular estatísticas
-        const totalValue = dados.reduce(
-          (acc, p) => acc + (p.totalFinal || 0),
-          0
-        );
+        // Primeira página e totais vêm separados: os totais não dependem do que já foi carregado
+        const [pagina, totais] = await Promise.all([
+          getPedidos({ limit: PAGE_SIZE }),
+          getOrderStats(),
+        ]);
+        setPedidos(pagina.data);
+        setNextCursor(pagina.nextCursor);
         setStats({
-          total: dados.length,
-          totalValue: totalValue,
+          total: totais.totalOrders,
+          totalValue: Number(totais.totalValue) || 0,
         });
       } catch (err) {
         console.error("Erro ao buscar pedidos:", err);
@@ -39,6 +42,20 @@ export default function Orders() {
     buscarPedidos();
   }, []);
 
+  async function carregarMais() {
+    setLoadingMore(true);
+    try {
+      const pagina = await getPedidos({ cursor: nextCursor, limit: PAGE_SIZE });
+      setPedidos((atuais) => [...atuais, ...pagina.data]);
+      setNextCursor(pagina.nextCursor);
+    } catch (err) {
+      console.error("Erro ao buscar pedidos:", err);
+      setErro("Unable to load more orders.");
+    } finally {
+      setLoadingMore(false);
+    }
+  }
+
   if (loading) return <LoadingSpinner />;
 
   return (
@@ -101,6 +118,17 @@ export default function Orders() {
                 />
               ))}
             </div>
+            {nextCursor && (
+              <div className="text-center mt-6">
+                <button
+                  onClick={carregarMais}
+                  disabled={loadingMore}
+                  className="px-6 py-2 bg-blue-600 text-white rounded-lg hover:bg-blue-700 disabled:opacity-50"
+                >
+                  {loadingMore ? "Loading..." : "Load more"}
+                </button>
+              </div>
+            )}
           </div>
         )}
       </div>
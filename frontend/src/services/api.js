@@ -83,9 +83,12 @@ export function getCurrentUser() {
 }
 
 // Orders endpoints
-export async function getPedidos() {
+// Keyset page: pass the nextCursor of the previous page, or nothing for the first one
+export async function getPedidos({ cursor, limit = 20 } = {}) {
   try {
-    const response = await axios.get("/api/v1/orders");
+    const response = await axios.get("/api/v1/orders", {
+      params: { cursor: cursor ?? "", limit },
+    });
     return response.data;
   } catch (error) {
     console.error("Error fetching orders:", error);
@@ -93,6 +96,16 @@ export async function getPedidos() {
   }
 }
 
+export async function getOrderStats() {
+  try {
+    const response = await axios.get("/api/v1/orders/stats");
+    return response.data;
+  } catch (error) {
+    console.error("Error fetching order stats:", error);
+    throw error;
+  }
+}
+
 export async function createOrder(orderData) {
   try {
     const response = await axios.post("/api/v1/orders", orderData);
@@ -139,9 +152,13 @@ export async function postCupom(data) {
   }
 }
 
-export async function getCupons() {
+// Keyset page: pass the nextCursor of the previous page, or nothing for the first one.
+// Optional filters: type, oneShot, activeAt, codePrefix
+export async function getCupons({ cursor, limit = 20, ...filters } = {}) {
   try {
-    const response = await axios.get("/api/v1/coupons");
+    const response = await axios.get("/api/v1/coupons", {
+      params: { cursor: cursor ?? "", limit, ...filters },
+    });
     return response.data;
   } catch (error) {
     console.error("Erro ao buscar cupons:", error);
@@ -149,6 +166,16 @@ export async function getCupons() {
   }
 }
 
+export async function getCouponStats() {
+  try {
+    const response = await axios.get("/api/v1/coupons/stats");
+    return response.data;
+  } catch (error) {
+    console.error("Erro ao buscar totais de cupons:", error);
+    throw error;
+  }
+}
+
 export async function applyCoupon(productId, couponCode) {
   try {
     const response = await axios.post("/api/v1/coupons/apply", {
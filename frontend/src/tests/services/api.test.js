@@ -2,12 +2,14 @@ import { describe, it, expect, vi, beforeEach, afterEach } from "vitest";
 import axios from "axios";
 import {
   getPedidos,
+  getOrderStats,
   createOrder,
   getProdutos,
   createProduct,
   removeDesconto,
   postCupom,
   getCupons,
+  getCouponStats,
   applyCoupon,
   checkout,
 } from "../../services/api";
@@ -24,14 +26,36 @@ describe("API Service", () => {
   });
 
   describe("Orders API", () => {
-    it("should fetch orders successfully", async () => {
-      const mockOrders = [{ id: 1, total: 100 }];
-      axios.get.mockResolvedValue({ data: mockOrders });
+    it("should fetch the first page of orders successfully", async () => {
+      const mockPage = { data: [{ orderId: 1, totalFinal: 100 }], nextCursor: "abc", hasNext: true };
+      axios.get.mockResolvedValue({ data: mockPage });
 
       const result = await getPedidos();
 
-      expect(axios.get).toHaveBeenCalledWith("/api/v1/orders");
-      expect(result).toEqual(mockOrders);
+      expect(axios.get).toHaveBeenCalledWith("/api/v1/orders", {
+        params: { cursor: "", limit: 20 },
+      });
+      expect(result).toEqual(mockPage);
+    });
+
+    it("should fetch the next page of orders with the cursor", async () => {
+      axios.get.mockResolvedValue({ data: { data: [], nextCursor: null, hasNext: false } });
+
+      await getPedidos({ cursor: "abc", limit: 10 });
+
+      expect(axios.get).toHaveBeenCalledWith("/api/v1/orders", {
+        params: { cursor: "abc", limit: 10 },
+      });
+    });
+
+    it("should fetch order stats successfully", async () => {
+      const mockStats = { totalOrders: 3, totalValue: 300 };
+      axios.get.mockResolvedValue({ data: mockStats });
+
+      const result = await getOrderStats();
+
+      expect(axios.get).toHaveBeenCalledWith("/api/v1/orders/stats");
+      expect(result).toEqual(mockStats);
     });
 
     it("should create order successfully", async () => {
@@ -100,14 +124,36 @@ describe("API Service", () => {
       expect(result).toEqual(mockResponse);
     });
 
-    it("should fetch coupons successfully", async () => {
-      const mockCoupons = [{ code: "PROMO10", value: 10 }];
-      axios.get.mockResolvedValue({ data: mockCoupons });
+    it("should fetch the first page of coupons successfully", async () => {
+      const mockPage = { data: [{ code: "PROMO10", value: 10 }], nextCursor: "abc", hasNext: true };
+      axios.get.mockResolvedValue({ data: mockPage });
 
       const result = await getCupons();
 
-      expect(axios.get).toHaveBeenCalledWith("/api/v1/coupons");
-      expect(result).toEqual(mockCoupons);
+      expect(axios.get).toHaveBeenCalledWith("/api/v1/coupons", {
+        params: { cursor: "", limit: 20 },
+      });
+      expect(result).toEqual(mockPage);
+    });
+
+    it("should fetch the next page of coupons with the cursor and filters", async () => {
+      axios.get.mockResolvedValue({ data: { data: [], nextCursor: null, hasNext: false } });
+
+      await getCupons({ cursor: "abc", limit: 10, activeAt: "2026-01-01T00:00:00" });
+
+      expect(axios.get).toHaveBeenCalledWith("/api/v1/coupons", {
+        params: { cursor: "abc", limit: 10, activeAt: "2026-01-01T00:00:00" },
+      });
+    });
+
+    it("should fetch coupon stats successfully", async () => {
+      const mockStats = { totalCoupons: 3, active: 2, pending: 1, expired: 0 };
+      axios.get.mockResolvedValue({ data: mockStats });
+
+      const result = await getCouponStats();
+
+      expect(axios.get).toHaveBeenCalledWith("/api/v1/coupons/stats");
+      expect(result).toEqual(mockStats);
     });
 
     it("should apply coupon to product", async () => {